@@ -76,7 +76,7 @@ public class WebfluxSecurityConfig {
                 configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
                 configuration.setAllowedHeaders(Arrays.asList("*"));
                 configuration.setAllowCredentials(true);
-                configuration.setExposedHeaders(Arrays.asList("Location")); // Location 헤더 노출
+                configuration.setExposedHeaders(Arrays.asList("Location", "Next-Cursor")); // Location, 채팅 기록 다음 페이지 헤더 노출
 
                 UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
                 source.registerCorsConfiguration("/**", configuration);
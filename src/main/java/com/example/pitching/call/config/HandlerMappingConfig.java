@@ -3,8 +3,6 @@ package com.example.pitching.call.config;
 import com.example.pitching.call.dto.properties.ServerProperties;
 import com.example.pitching.call.handler.CallWebSocketHandler;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.kurento.client.KurentoClient;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
@@ -13,13 +11,6 @@ import java.util.Map;
 
 @Configuration
 public class HandlerMappingConfig {
-    @Value("${kms.protocol}")
-    private String kmsProtocol;
-    @Value("${kms.host}")
-    private String kmsHost;
-    @Value("${kms.port}")
-    private int kmsPort;
-
     @Bean
     public SimpleUrlHandlerMapping simpleUrlHandlerMapping(
             CallWebSocketHandler callWebSocketHandler, ServerProperties serverProperties) {
@@ -32,9 +23,4 @@ public class HandlerMappingConfig {
     public ObjectMapper objectMapper() {
         return new ObjectMapper();
     }
-
-    @Bean
-    public KurentoClient kurentoClient() {
-        return KurentoClient.create(kmsProtocol + "://" + kmsHost + ":" + kmsPort + "/kurento");
-    }
 }
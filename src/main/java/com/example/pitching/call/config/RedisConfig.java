@@ -12,6 +12,8 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 
+import java.time.Duration;
+
 @Slf4j
 @Configuration
 public class RedisConfig {
@@ -51,6 +53,10 @@ public class RedisConfig {
     }
 
     @ConfigurationProperties("redis")
-    public record RedisProperties(String host, int port, int maxlen) {
+    public record RedisProperties(String host, int port, int maxlen, int streamShards, Duration streamPollTimeout) {
+        public RedisProperties {
+            if (streamShards <= 0) streamShards = Runtime.getRuntime().availableProcessors();
+            if (streamPollTimeout == null) streamPollTimeout = Duration.ofMillis(100L);
+        }
     }
 }
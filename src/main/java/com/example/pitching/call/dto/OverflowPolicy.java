@@ -0,0 +1,10 @@
+package com.example.pitching.call.dto;
+
+public enum OverflowPolicy {
+    // 가장 오래된 이벤트를 버리고 새 이벤트를 넣음
+    DROP_OLDEST,
+    // 같은 유저의 이전 UPDATE_STATE 이벤트를 새 이벤트로 대체, 대체할 이벤트가 없으면 연결 종료
+    COALESCE_STATE,
+    // 느린 클라이언트의 연결을 끊음 (재연결 후 SERVER_ACK 로 상태 복구)
+    DISCONNECT
+}
@@ -0,0 +1,8 @@
+package com.example.pitching.call.dto;
+
+public enum RoomMode {
+    // 참여자마다 다른 참여자의 미디어를 각각 받음 (endpoint O(N²))
+    MESH,
+    // Composite 가 섞은 오디오 하나만 받음 (음성 채널 참여자가 많을 때, endpoint O(N))
+    COMPOSITE
+}
@@ -0,0 +1,28 @@
+package com.example.pitching.call.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * server:%d:events 스트림에 XADD 할 레코드 (Lua 스크립트 안에서 XADD 할 때도 사용)
+ */
+public record StreamRecord(
+        String key,
+        int maxlen,
+        Map<String, String> fields
+) {
+    public static StreamRecord of(String key, int maxlen, Map<String, String> fields) {
+        return new StreamRecord(key, maxlen, fields);
+    }
+
+    // XADD 의 field value field value ... 형태
+    public List<String> flattenFields() {
+        List<String> flattened = new ArrayList<>(fields.size() * 2);
+        fields.forEach((field, value) -> {
+            flattened.add(field);
+            flattened.add(value);
+        });
+        return flattened;
+    }
+}
@@ -51,6 +51,19 @@ public record VoiceState(
                 this.isScreenSharing);
     }
 
+    public VoiceState changeUsername(String username) {
+        return new VoiceState(
+                this.userId,
+                username,
+                this.serverId,
+                this.channelId,
+                this.channelType,
+                this.isMuted,
+                this.isDeafened,
+                this.isCameraOn,
+                this.isScreenSharing);
+    }
+
     public VoiceState updateState(StateRequest stateRequest) {
         return new VoiceState(
                 this.userId,
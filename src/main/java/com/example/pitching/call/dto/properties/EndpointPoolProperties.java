@@ -0,0 +1,17 @@
+package com.example.pitching.call.dto.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param size        Room 마다 미리 만들어 둘 WebRtcEndpoint 수 (0 이면 사용하지 않음)
+ * @param idleTimeout 이 시간 동안 쓰이지 않은 endpoint 는 해제
+ */
+@ConfigurationProperties("call.endpoint-pool")
+public record EndpointPoolProperties(int size, Duration idleTimeout) {
+    public EndpointPoolProperties {
+        if (size < 0) size = 0;
+        if (idleTimeout == null || idleTimeout.isNegative() || idleTimeout.isZero()) idleTimeout = Duration.ofSeconds(30);
+    }
+}
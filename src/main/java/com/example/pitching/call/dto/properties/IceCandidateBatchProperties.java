@@ -0,0 +1,24 @@
+package com.example.pitching.call.dto.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param maxSize 한 프레임에 담을 최대 candidate 수
+ * @param window  candidate 를 모으는 최대 시간 (0 이면 하나씩 ICE_CANDIDATE 로 전송)
+ */
+@ConfigurationProperties("call.ice-candidate-batch")
+public record IceCandidateBatchProperties(int maxSize, Duration window) {
+    // ICE_CANDIDATES 를 지원하지 않는 클라이언트
+    public static final IceCandidateBatchProperties DISABLED = new IceCandidateBatchProperties(0, Duration.ZERO);
+
+    public IceCandidateBatchProperties {
+        if (maxSize <= 0) maxSize = 16;
+        if (window == null || window.isNegative()) window = Duration.ZERO;
+    }
+
+    public boolean isEnabled() {
+        return !window.isZero() && maxSize > 1;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.pitching.call.dto.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param urls              여러 KMS 를 사용할 때의 접속 주소 목록 (ex. ws://kms-1:8888/kurento), 비어있으면 protocol/host/port 하나만 사용
+ * @param reconnectInterval 시작할 때 연결하지 못한 KMS 에 다시 연결을 시도하는 간격
+ */
+@ConfigurationProperties("kms")
+public record KmsProperties(String protocol, String host, int port, List<String> urls, Duration reconnectInterval) {
+    public KmsProperties {
+        urls = urls == null ? List.of() : urls.stream().filter(url -> !url.isBlank()).toList();
+        if (reconnectInterval == null || reconnectInterval.isNegative() || reconnectInterval.isZero()) reconnectInterval = Duration.ofSeconds(10);
+    }
+
+    public List<String> getUrls() {
+        if (!urls.isEmpty()) return urls;
+        return List.of(protocol + "://" + host + ":" + port + "/kurento");
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.pitching.call.dto.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param compositeThreshold 음성 채널 참여자가 이 수 이상이 되면 Composite(오디오 믹서) 로 전환
+ */
+@ConfigurationProperties("call.room")
+public record RoomProperties(Duration releaseGracePeriod, int compositeThreshold) {
+    public RoomProperties {
+        if (releaseGracePeriod == null || releaseGracePeriod.isNegative()) releaseGracePeriod = Duration.ofSeconds(5);
+        if (compositeThreshold <= 0) compositeThreshold = 30;
+    }
+}
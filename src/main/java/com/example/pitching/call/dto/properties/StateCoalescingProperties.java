@@ -0,0 +1,16 @@
+package com.example.pitching.call.dto.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("call.state-coalescing")
+public record StateCoalescingProperties(Duration window) {
+    public StateCoalescingProperties {
+        if (window == null || window.isNegative()) window = Duration.ZERO;
+    }
+
+    public boolean isEnabled() {
+        return !window.isZero();
+    }
+}
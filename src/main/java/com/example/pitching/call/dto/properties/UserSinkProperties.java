@@ -0,0 +1,12 @@
+package com.example.pitching.call.dto.properties;
+
+import com.example.pitching.call.dto.OverflowPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("call.user-sink")
+public record UserSinkProperties(int capacity, OverflowPolicy overflowPolicy) {
+    public UserSinkProperties {
+        if (capacity <= 0) capacity = 256;
+        if (overflowPolicy == null) overflowPolicy = OverflowPolicy.COALESCE_STATE;
+    }
+}
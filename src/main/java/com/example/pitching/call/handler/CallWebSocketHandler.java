@@ -2,6 +2,7 @@ package com.example.pitching.call.handler;
 
 import com.example.pitching.call.exception.CommonException;
 import com.example.pitching.call.operation.Event;
+import com.example.pitching.call.operation.Frame;
 import com.example.pitching.call.operation.response.ErrorResponse;
 import com.example.pitching.call.service.ConvertService;
 import io.micrometer.common.lang.NonNullApi;
@@ -44,7 +45,7 @@ public class CallWebSocketHandler implements WebSocketHandler {
                         .flatMap(jsonMessage -> replyHandler.handleMessages(session, jsonMessage)
                                 .onErrorResume(e -> handleReplyErrors(getUserIdFromSession(session), e)))
                         .doOnNext(message -> log.debug("[{}] Reply Message : {}", getUserIdFromSession(session), message))
-                        .map(session::textMessage)
+                        .map(frame -> frame.toMessage(session.bufferFactory()))
                         .doOnError(e -> handleGlobalErrors(getUserIdFromSession(session), e))
                         .doFinally(signalType -> {
                             log.info("[{}] Disconnected: {}", getUserIdFromSession(session), signalType);
@@ -56,14 +57,14 @@ public class CallWebSocketHandler implements WebSocketHandler {
         );
     }
 
-    private Mono<String> handleReplyErrors(String userId, Throwable e) {
+    private Mono<Frame> handleReplyErrors(String userId, Throwable e) {
         if (!(e instanceof CommonException ex)) {
             log.error("Exception occurs in handling replyMessages : ", e);
             return Mono.error(e);
         }
         log.error("[{}] : {} -> ", userId, ex.getErrorCode().name(), ex);
         Event errorEvent = Event.error(ErrorResponse.from((CommonException) e));
-        return Mono.just(convertService.convertObjectToJson(errorEvent));
+        return Mono.just(convertService.convertObjectToFrame(errorEvent));
     }
 
     private void handleGlobalErrors(String userId, Throwable e) {
@@ -3,9 +3,11 @@ package com.example.pitching.call.handler;
 import com.example.pitching.auth.domain.User;
 import com.example.pitching.auth.jwt.JwtTokenProvider;
 import com.example.pitching.auth.repository.UserRepository;
+import com.example.pitching.call.dto.RoomMode;
 import com.example.pitching.call.dto.Subscription;
 import com.example.pitching.call.dto.VoiceState;
-import com.example.pitching.call.dto.properties.ServerProperties;
+import com.example.pitching.call.dto.properties.IceCandidateBatchProperties;
+import com.example.pitching.call.dto.properties.UserSinkProperties;
 import com.example.pitching.call.exception.CommonException;
 import com.example.pitching.call.exception.ErrorCode;
 import com.example.pitching.call.exception.InvalidValueException;
@@ -22,12 +24,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.kurento.client.IceCandidate;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
 import org.springframework.web.reactive.socket.WebSocketSession;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Sinks;
-import reactor.util.function.Tuple2;
 
 import java.util.List;
 import java.util.Map;
@@ -40,9 +41,13 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ReplyHandler {
     private final Map<String, UserSink> userSinkMap = new ConcurrentHashMap<>();
     private final JwtTokenProvider jwtTokenProvider;
-    private final ServerProperties serverProperties;
+    private final ConstantFrameRegistry constantFrameRegistry;
+    private final UserSinkProperties userSinkProperties;
+    private final UserSinkMetrics userSinkMetrics;
+    private final IceCandidateBatchProperties iceCandidateBatchProperties;
     private final ConvertService convertService;
     private final ServerStreamManager serverStreamManager;
+    private final ServerEventPublisher serverEventPublisher;
     private final VoiceStateManager voiceStateManager;
     private final ActiveUserManager activeUserManager;
     private final ServerService serverService;
@@ -65,100 +70,100 @@ public class ReplyHandler {
         log.debug("Clean up Session in ReplyHandler");
         String userIdFromSession = getUserIdFromSession(session);
         UserSession user = registry.removeByUserId(userIdFromSession);
-        if (user != null && roomManager.doesRoomExists(user.getChannelId())) {
-            roomManager.getRoom(user.getChannelId()).leave(user);
-        }
+        if (user != null) roomManager.leave(user);
     }
 
-    public Mono<String> handleMessages(WebSocketSession session, String receivedMessage) {
-        return convertService.readRequestOperationFromMessage(receivedMessage)
-                .flatMap(requestOperation -> switch (requestOperation) {
-                    case RequestOperation.INIT -> sendHello(session, receivedMessage);
+    public Mono<Frame> handleMessages(WebSocketSession session, String receivedMessage) {
+        return convertService.readRequestFromMessage(receivedMessage)
+                .flatMap(request -> switch (request.operation()) {
+                    case RequestOperation.INIT -> sendHello(session, request.dataAs(WebsocketAuthRequest.class));
                     case RequestOperation.HEARTBEAT -> sendHeartbeatAck();
-                    case RequestOperation.SERVER -> enterServer(session, receivedMessage);
-                    case RequestOperation.ENTER_CHANNEL -> enterChannel(session, receivedMessage);
-                    case RequestOperation.LEAVE_CHANNEL -> leaveChannel(session, receivedMessage);
-                    case RequestOperation.UPDATE_STATE -> updateState(session, receivedMessage);
-                    case RequestOperation.ON_ICE_CANDIDATE -> onIceCandidate(session, receivedMessage);
-                    case RequestOperation.RECEIVE_VIDEO -> receiveVideoFrom(session, receivedMessage);
-                    case RequestOperation.CANCEL_VIDEO -> cancelVideoFrom(session, receivedMessage);
+                    case RequestOperation.SERVER -> enterServer(session, request.dataAs(ServerRequest.class));
+                    case RequestOperation.ENTER_CHANNEL -> enterChannel(session, request.dataAs(ChannelRequest.class));
+                    case RequestOperation.LEAVE_CHANNEL -> leaveChannel(session, request.dataAs(ChannelRequest.class));
+                    case RequestOperation.UPDATE_STATE -> updateState(session, request.dataAs(StateRequest.class));
+                    case RequestOperation.ON_ICE_CANDIDATE -> onIceCandidate(session, request.dataAs(CandidateRequest.class));
+                    case RequestOperation.RECEIVE_VIDEO -> receiveVideoFrom(session, request.dataAs(OfferRequest.class));
+                    case RequestOperation.CANCEL_VIDEO -> cancelVideoFrom(session, request.dataAs(CancelRequest.class));
+                    case RequestOperation.ON_ICE_CANDIDATES -> onIceCandidates(session, request.dataAs(CandidatesRequest.class));
                 })
                 .doOnNext(requestOperation -> log.debug("[{}] Send Message : {}", getUserIdFromSession(session), receivedMessage));
     }
 
     /**
      * @param session
-     * @param receivedMessage
+     * @param authRequest
      * @return jsonMessage
      * 클라이언트가 처음 연결하면 토큰으로 인증과정을 거치고 Heartbeat_interval 을 담아서 응답
      */
-    private Mono<String> sendHello(WebSocketSession session, String receivedMessage) {
-        String token = convertService.readDataFromMessage(receivedMessage, WebsocketAuthRequest.class).token();
-        Event hello = Event.of(ResponseOperation.INIT_ACK,
-                HelloResponse.of(serverProperties.getHeartbeatInterval()),
-                null);
+    private Mono<Frame> sendHello(WebSocketSession session, WebsocketAuthRequest authRequest) {
+        String token = authRequest.token();
         return jwtTokenProvider.validateAndGetUserId(token)
                 .doOnSuccess(userId -> {
+                    session.getAttributes().put("iceCandidateBatching", authRequest.isIceCandidateBatching());
                     initializeUserSink(userId, session);
                     log.info("USER [{}] Connected", userId);
                 })
-                .then(Mono.just(convertService.convertObjectToJson(hello)));
+                .then(Mono.just(constantFrameRegistry.get(ResponseOperation.INIT_ACK)));
     }
 
     private void initializeUserSink(String userId, WebSocketSession session) {
         session.getAttributes().put("userId", userId);
         if (userSinkMap.containsKey(userId)) return;
         userSinkMap.computeIfAbsent(userId, ignored -> {
-            Sinks.Many<String> userSink = Sinks.many().unicast().onBackpressureBuffer();
             activeUserManager.setSubscriptionRequired(userId, true);
             log.debug("Create user sink : {}", userId);
-            return UserSink.of(userSink);
+            return UserSink.of(userSinkProperties, userSinkMetrics, () -> closeSlowConsumer(userId, session));
         });
         Mono.defer(() -> sendServerEvent(userId, session)).subscribe();
     }
 
+    private void closeSlowConsumer(String userId, WebSocketSession session) {
+        log.warn("[{}] Close slow consumer session : {}", userId, session.getId());
+        session.close(CloseStatus.SERVICE_OVERLOAD).subscribe();
+    }
+
     private Mono<Void> sendServerEvent(String userId, WebSocketSession session) {
         return session.send(
                 getMessageFromUserSink(userId)
                         .doOnNext(message -> log.debug("[{}] Server Message : {}", userId, message))
                         .onErrorResume(this::handleServerErrors)
-                        .map(session::textMessage)
+                        .map(frame -> frame.toMessage(session.bufferFactory()))
         );
     }
 
-    private Flux<String> getMessageFromUserSink(String userId) {
+    private Flux<Frame> getMessageFromUserSink(String userId) {
         return userSinkMap.get(userId).getUserSinkAsFlux();
     }
 
-    private Mono<String> handleServerErrors(Throwable e) {
+    private Mono<Frame> handleServerErrors(Throwable e) {
         if (!(e instanceof CommonException ex)) {
             log.error("Exception occurs in handling send server messages : ", e);
             return Mono.error(e);
         }
         log.error("{} -> ", ex.getErrorCode().name(), ex);
         Event errorEvent = Event.error(ErrorResponse.from((CommonException) e));
-        return Mono.just(convertService.convertObjectToJson(errorEvent));
+        return Mono.just(convertService.convertObjectToFrame(errorEvent));
     }
 
     /**
      * @return jsonMessage
      * 클라이언트가 Heartbeat 를 보내면 Heartbeat_ack 를 응답
      */
-    private Mono<String> sendHeartbeatAck() {
-        Event heartbeatAck = Event.of(ResponseOperation.HEARTBEAT_ACK, null, null);
-        return Mono.just(convertService.convertObjectToJson(heartbeatAck));
+    private Mono<Frame> sendHeartbeatAck() {
+        return Mono.just(constantFrameRegistry.get(ResponseOperation.HEARTBEAT_ACK));
     }
 
     /**
      * @param session
-     * @param receivedMessage
+     * @param serverRequest
      * @return jsonMessage
      * @apiNote 무조건 기존 서버 입장
      * 새로운 서버를 만들거나 새로운 서버에 초대된 경우 HTTP 를 사용하여 Server 참여 인원에 추가 (DB)
      */
-    private Mono<String> enterServer(WebSocketSession session, String receivedMessage) {
+    private Mono<Frame> enterServer(WebSocketSession session, ServerRequest serverRequest) {
         String userId = getUserIdFromSession(session);
-        Long serverId = convertService.readDataFromMessage(receivedMessage, ServerRequest.class).serverId();
+        Long serverId = serverRequest.serverId();
         return serverService.isValidServer(serverId)
                 .filter(Boolean.TRUE::equals)
                 .then(addActiveUser(userId, serverId))
@@ -189,96 +194,103 @@ public class ReplyHandler {
         activeUserManager.setSubscriptionRequired(userId, false);
     }
 
-    private Mono<String> createServerAck(Long serverId) {
+    private Mono<Frame> createServerAck(Long serverId) {
         return voiceStateManager.getAllVoiceState(serverId)
-                .flatMap(this::createDataWithProfileImage)
                 .collectList()
+                .flatMap(this::createDataWithProfileImage)
                 .flatMap(this::createServerAckEvent)
                 .switchIfEmpty(createServerAckEvent(List.of(EmptyResponse.of())));
     }
 
-    private Mono<Data> createDataWithProfileImage(Map.Entry<String, String> mapEntry) {
-        VoiceState voiceState = convertService.convertJsonToObject(mapEntry.getValue(), VoiceState.class);
-        return userRepository.findByUserId(Long.parseLong(voiceState.userId()))
-                .map(user -> ServerResponse.from(voiceState, user.getProfileImage()));
+    /**
+     * 음성 채널 인원의 프로필을 WHERE user_id IN (...) 한 번으로 조회해서 메모리에서 합친다
+     * 조회되지 않는 유저의 voice state 는 응답에서 제외
+     */
+    private Mono<List<Data>> createDataWithProfileImage(List<VoiceState> voiceStates) {
+        if (voiceStates.isEmpty()) return Mono.just(List.of());
+        List<Long> userIds = voiceStates.stream()
+                .map(voiceState -> Long.parseLong(voiceState.userId()))
+                .toList();
+        return userRepository.findAllByUserIdIn(userIds)
+                .collectMap(user -> String.valueOf(user.getUserId()))
+                .map(users -> voiceStates.stream()
+                        .filter(voiceState -> users.containsKey(voiceState.userId()))
+                        .map(voiceState -> createServerResponse(voiceState, users.get(voiceState.userId())))
+                        .toList());
+    }
+
+    private Data createServerResponse(VoiceState voiceState, User user) {
+        return ServerResponse.from(voiceState.changeUsername(user.getUsername()), user.getProfileImage());
     }
 
-    private Mono<String> createServerAckEvent(List<Data> response) {
+    private Mono<Frame> createServerAckEvent(List<Data> response) {
         Events serverAck = Events.of(ResponseOperation.SERVER_ACK, response, null);
-        return Mono.just(convertService.convertObjectToJson(serverAck));
+        return Mono.just(convertService.convertObjectToFrame(serverAck));
     }
 
     /**
      * @param session
-     * @param receivedMessage
+     * @param channelRequest
      * @return empty
      * @apiNote 음성/영상 채널 입장 (채팅 제외)
      * 직접 소켓에 응답하지 않고 server_event 로 등록
      */
-    private Mono<String> enterChannel(WebSocketSession session, String receivedMessage) {
+    private Mono<Frame> enterChannel(WebSocketSession session, ChannelRequest channelRequest) {
         String userId = getUserIdFromSession(session);
-        ChannelRequest channelRequest = convertService.readDataFromMessage(receivedMessage, ChannelRequest.class);
 
         return channelService.isValidChannel(channelRequest.serverId(), channelRequest.channelId())
                 .flatMap(isValid -> isValid ?
                         Mono.empty() : Mono.error(new InvalidValueException(ErrorCode.INVALID_CHANNEL_ID, String.valueOf(channelRequest.channelId()))))
                 .then(activeUserManager.isCorrectAccess(userId, channelRequest.serverId()))
-                .doOnSuccess(ignored -> {
-                    joinRoom(session, channelRequest.channelId());
-                    log.info("USER [{}] Enter {} channel ({})", userId, channelRequest.channelType(), channelRequest.channelId());
-                })
+                .then(joinRoom(session, channelRequest))
+                .doOnSuccess(ignored -> log.info("USER [{}] Enter {} channel ({})", userId, channelRequest.channelType(), channelRequest.channelId()))
                 .then(userRepository.findByUserId(Long.parseLong(userId)))
-                .flatMap(user -> createUserAndVoiceStateTuple(userId, user, channelRequest))
-                .map(tuple -> ChannelEnterResponse.from(tuple.getT1().getProfileImage(), tuple.getT2()))
-                .flatMap(this::putChannelEnterToStream);
+                .flatMap(user -> enterVoiceChannel(session, userId, user, channelRequest));
     }
 
-    private Mono<Tuple2<User, VoiceState>> createUserAndVoiceStateTuple(String userId, User user, ChannelRequest
-            channelRequest) {
-        return Mono.zip(
-                Mono.just(user),
-                Mono.just(VoiceState.from(channelRequest, user))
-                        .flatMap(voiceState -> addOrChangeVoiceState(userId, channelRequest, voiceState)));
-    }
-
-    private Mono<VoiceState> addOrChangeVoiceState(String userId, ChannelRequest channelRequest, VoiceState
-            voiceState) {
-        return voiceStateManager.addIfAbsentOrChangeChannel(channelRequest, userId, convertService.convertObjectToJson(voiceState))
-                .thenReturn(voiceState);
-    }
-
-    private Mono<String> putChannelEnterToStream(ChannelEnterResponse channelEnterResponse) {
-        Event channelAck = Event.of(ResponseOperation.ENTER_CHANNEL_EVENT, channelEnterResponse, null);
-        String jsonChannelAck = convertService.convertObjectToJson(channelAck);
-        return serverStreamManager.addVoiceMessageToStream(channelEnterResponse.serverId(), jsonChannelAck)
+    /**
+     * voice state 추가(또는 채널 변경)와 ENTER_CHANNEL_EVENT 를 한 스크립트로 처리
+     */
+    private Mono<Frame> enterVoiceChannel(WebSocketSession session, String userId, User user, ChannelRequest channelRequest) {
+        session.getAttributes().put("username", user.getUsername());
+        VoiceState voiceState = VoiceState.from(channelRequest, user);
+        ChannelEnterResponse channelEnterResponse = ChannelEnterResponse.from(user.getProfileImage(), voiceState);
+        return serverEventPublisher.publish(channelRequest.serverId(), userId, ResponseOperation.ENTER_CHANNEL_EVENT, channelEnterResponse,
+                        streamRecord -> voiceStateManager.addIfAbsentOrChangeChannel(channelRequest, userId, voiceState, streamRecord))
                 .then(Mono.empty());
     }
 
-    private void joinRoom(WebSocketSession session, Long channelId) {
-        final String userId = getUserIdFromSession(session);
-        log.info("USER [{}]: trying to join room {}", userId, channelId);
-
-        Room room = roomManager.getRoom(channelId);
-        final UserSession user = room.join(userId, session, convertService);
-        registry.register(user);
+    private Mono<Void> joinRoom(WebSocketSession session, ChannelRequest channelRequest) {
+        return Mono.defer(() -> {
+            final Long channelId = channelRequest.channelId();
+            final String userId = getUserIdFromSession(session);
+            log.info("USER [{}]: trying to join room {}", userId, channelId);
+
+            // 다른 채널로 바로 이동하거나 같은 채널에 다시 들어온 경우 이전 참여 정보를 먼저 정리
+            UserSession previous = registry.removeByUserId(userId);
+            if (previous != null) roomManager.leave(previous);
+            UserSink userSink = userSinkMap.get(userId);
+            if (userSink == null) return Mono.error(new UnAuthorizedException(ErrorCode.UNAUTHORIZED_USER, userId));
+            return roomManager.join(channelId, channelRequest.channelType(), userId, session, userSink, getIceCandidateBatch(session), convertService)
+                    .doOnNext(registry::register)
+                    .then();
+        });
     }
 
     /**
      * @param session
-     * @param receivedMessage
+     * @param channelRequest
      * @return empty
      * @apiNote 음성/영상 채널 나가기 (채팅 제외)
      * 직접 소켓에 응답하지 않고 server_event 로 등록
      */
-    private Mono<String> leaveChannel(WebSocketSession session, String receivedMessage) {
+    private Mono<Frame> leaveChannel(WebSocketSession session, ChannelRequest channelRequest) {
         String userId = getUserIdFromSession(session);
-        ChannelRequest channelRequest = convertService.readDataFromMessage(receivedMessage, ChannelRequest.class);
         return channelService.isValidChannel(channelRequest.serverId(), channelRequest.channelId())
                 .flatMap(isValid -> isValid ?
                         Mono.empty() : Mono.error(new InvalidValueException(ErrorCode.INVALID_CHANNEL_ID, String.valueOf(channelRequest.channelId()))))
                 .then(activeUserManager.isCorrectAccess(userId, channelRequest.serverId()))
-                .then(voiceStateManager.removeVoiceState(channelRequest.serverId(), userId))
-                .then(putChannelLeaveToStream(userId, channelRequest))
+                .then(removeVoiceStateAndPutChannelLeaveToStream(userId, channelRequest))
                 .doOnSuccess(ignored -> {
                     leaveRoom(session);
                     log.info("USER [{}] Leave {} channel ({})", userId, channelRequest.channelType(), channelRequest.channelId());
@@ -286,77 +298,69 @@ public class ReplyHandler {
     }
 
 
-    private Mono<String> putChannelLeaveToStream(String userId, ChannelRequest channelRequest) {
-        Event channelAck = Event.of(ResponseOperation.LEAVE_CHANNEL_EVENT, ChannelLeaveResponse.from(channelRequest, userId), null);
-        String jsonChannelAck = convertService.convertObjectToJson(channelAck);
-        return serverStreamManager.addVoiceMessageToStream(channelRequest.serverId(), jsonChannelAck)
+    private Mono<Frame> removeVoiceStateAndPutChannelLeaveToStream(String userId, ChannelRequest channelRequest) {
+        return serverEventPublisher.publish(channelRequest.serverId(), userId,
+                        ResponseOperation.LEAVE_CHANNEL_EVENT, ChannelLeaveResponse.from(channelRequest, userId),
+                        streamRecord -> voiceStateManager.removeVoiceStateAndPublish(channelRequest.serverId(), userId, streamRecord))
                 .then(Mono.empty());
     }
 
     private void leaveRoom(WebSocketSession session) {
         String userIdFromSession = getUserIdFromSession(session);
-        final UserSession user = registry.getByName(userIdFromSession);
+        final UserSession user = registry.removeByUserId(userIdFromSession);
         if (user == null) {
             log.warn("User session not found, maybe not entered channel");
             return;
         }
-        if (!roomManager.doesRoomExists(user.getChannelId())) return;
-        final Room room = roomManager.getRoom(user.getChannelId());
-        room.leave(user);
-        if (room.getParticipants().isEmpty()) {
-            roomManager.removeRoom(room);
-        }
+        roomManager.leave(user);
     }
 
     /**
      * @param session
-     * @param receivedMessage
+     * @param stateRequest
      * @return empty
      * @apiNote 음성/영상 채널의 상태(옵션) 변경 (채팅 제외)
      * 직접 소켓에 응답하지 않고 server_event 로 등록
      */
-    private Mono<String> updateState(WebSocketSession session, String receivedMessage) {
+    private Mono<Frame> updateState(WebSocketSession session, StateRequest stateRequest) {
         String userId = getUserIdFromSession(session);
-        StateRequest stateRequest = convertService.readDataFromMessage(receivedMessage, StateRequest.class);
 
         return channelService.isValidChannel(stateRequest.serverId(), stateRequest.channelId())
                 .flatMap(isValid -> isValid ?
                         Mono.empty() : Mono.error(new InvalidValueException(ErrorCode.INVALID_CHANNEL_ID, String.valueOf(stateRequest.channelId()))))
                 .then(activeUserManager.isCorrectAccess(userId, stateRequest.serverId()))
-                .then(updateStateAndGetVoiceState(userId, stateRequest))
+                .then(voiceStateManager.updateState(stateRequest, userId))
+                .flatMap(voiceState -> getUsername(session, userId).map(voiceState::changeUsername))
                 .flatMap(this::putUpdateStateToStream)
                 .doOnSuccess(ignored -> log.info("USER [{}] Update state : {}", userId, stateRequest));
     }
 
-    private Mono<VoiceState> updateStateAndGetVoiceState(String userId, StateRequest stateRequest) {
-        return voiceStateManager.updateState(stateRequest, userId)
-                .then(voiceStateManager.getVoiceState(stateRequest.serverId(), userId))
-                .flatMap(convertService::convertJsonToVoiceState);
+    // Redis 에는 username 을 저장하지 않으므로 채널 입장 시 세션에 둔 값을 사용
+    private Mono<String> getUsername(WebSocketSession session, String userId) {
+        return Mono.justOrEmpty(session.getAttributes().get("username"))
+                .map(Object::toString)
+                .switchIfEmpty(Mono.defer(() -> userRepository.findByUserId(Long.parseLong(userId)).map(User::getUsername)));
     }
 
-    private Mono<String> putUpdateStateToStream(VoiceState voiceState) {
-        Event stateAck = Event.of(ResponseOperation.UPDATE_STATE_EVENT, StateResponse.from(voiceState), null);
-        String jsonStateAck = convertService.convertObjectToJson(stateAck);
-        return serverStreamManager.addVoiceMessageToStream(voiceState.serverId(), jsonStateAck)
+    private Mono<Frame> putUpdateStateToStream(VoiceState voiceState) {
+        return serverEventPublisher.publish(voiceState.serverId(), voiceState.userId(),
+                        ResponseOperation.UPDATE_STATE_EVENT, StateResponse.from(voiceState))
                 .then(Mono.empty());
     }
 
     /**
      * @param session
-     * @param receivedMessage
+     * @param candidateRequest
      * @return runnable
      */
-    private Mono<String> onIceCandidate(WebSocketSession session, String receivedMessage) {
+    private Mono<Frame> onIceCandidate(WebSocketSession session, CandidateRequest candidateRequest) {
         return Mono.fromRunnable(() -> {
             String userIdFromSession = getUserIdFromSession(session);
             final UserSession user = registry.getByName(userIdFromSession);
-            CandidateRequest candidateRequest = convertService.readDataFromMessage(receivedMessage, CandidateRequest.class);
             log.info("ICE_CANDIDATE {}", candidateRequest.candidate());
 
             if (user != null) {
-                IceCandidate candidate = new IceCandidate(candidateRequest.candidate().toString(),
-                        candidateRequest.sdpMid(), candidateRequest.sdpMLineIndex());
-                user.addCandidate(candidate, candidateRequest.userId());
+                addCandidate(user, candidateRequest);
             } else {
                 log.warn("User session not found - onIceCandidate : [{}] - {}", userIdFromSession, session.getId());
             }
@@ -365,50 +369,80 @@ public class ReplyHandler {
 
     /**
      * @param session
-     * @param receivedMessage
+     * @param candidatesRequest
      * @return runnable
+     * ON_ICE_CANDIDATE 여러 개를 한 프레임으로 받음
      */
-    private Mono<String> receiveVideoFrom(WebSocketSession session, String receivedMessage) {
+    private Mono<Frame> onIceCandidates(WebSocketSession session, CandidatesRequest candidatesRequest) {
         return Mono.fromRunnable(() -> {
-            log.debug("receiveVideoFrom : {}", receivedMessage);
-            OfferRequest offerRequest = convertService.readDataFromMessage(receivedMessage, OfferRequest.class);
+            String userIdFromSession = getUserIdFromSession(session);
+            final UserSession user = registry.getByName(userIdFromSession);
+            log.info("ICE_CANDIDATES {}", candidatesRequest.candidates().size());
+
+            if (user != null) {
+                candidatesRequest.candidates().forEach(candidateRequest -> addCandidate(user, candidateRequest));
+            } else {
+                log.warn("User session not found - onIceCandidates : [{}] - {}", userIdFromSession, session.getId());
+            }
+        });
+    }
+
+    private void addCandidate(UserSession user, CandidateRequest candidateRequest) {
+        IceCandidate candidate = new IceCandidate(candidateRequest.candidate().toString(),
+                candidateRequest.sdpMid(), candidateRequest.sdpMLineIndex());
+        user.addCandidate(candidate, candidateRequest.userId());
+    }
+
+    /**
+     * @param session
+     * @param offerRequest
+     * @return empty (SDP 협상은 KMS 응답을 기다리지 않고 비동기로 진행)
+     */
+    private Mono<Frame> receiveVideoFrom(WebSocketSession session, OfferRequest offerRequest) {
+        return Mono.defer(() -> {
+            log.debug("receiveVideoFrom : {}", offerRequest);
             String userIdFromSession = getUserIdFromSession(session);
             final UserSession user = registry.getByName(userIdFromSession);
 
             if (user == null) {
                 log.warn("User session not found - receiveVideoFrom : [{}] - {}", userIdFromSession, session.getId());
-                return;
+                return Mono.empty();
             }
 
             final UserSession sender = registry.getByName(offerRequest.senderId());
             log.debug("SENDER - request : {}", sender);
             if (sender == null) {
                 log.warn("Sender {} not found", offerRequest.senderId());
-                return;
+                return Mono.empty();
             }
 
             // 연결 상태 검증 추가
             log.debug("USER - session : {}", user);
-            Room room = roomManager.getRoom(user.getChannelId());
-            if (!room.getParticipants().contains(sender)) {
+            Room room = roomManager.findRoom(user.getChannelId());
+            if (room == null || !room.getParticipants().contains(sender)) {
                 log.warn("Sender {} is not in room {} - receiveVideoFrom : session {}", sender.getUserId(), sender.getChannelId(), sender.getSession().getId());
-                return;
+                return Mono.empty();
+            }
+            // COMPOSITE 모드에서는 다른 참여자의 오디오가 자신의 endpoint 로 섞여서 들어옴
+            if (room.getMode() == RoomMode.COMPOSITE && !user.equals(sender)) {
+                log.debug("Room {} is composite, ignore receiveVideoFrom {} : {}", room.getChannelId(), sender.getUserId(), user.getUserId());
+                return Mono.empty();
             }
 
             final String sdpOffer = offerRequest.sdpOffer();
-            user.receiveVideoFrom(sender, sdpOffer, convertService);
+            return user.receiveVideoFrom(sender, sdpOffer, convertService)
+                    .then(Mono.empty());
         });
     }
 
     /**
      * @param session
-     * @param receivedMessage
+     * @param cancelRequest
      * @return runnable
      */
-    private Mono<String> cancelVideoFrom(WebSocketSession session, String receivedMessage) {
+    private Mono<Frame> cancelVideoFrom(WebSocketSession session, CancelRequest cancelRequest) {
         return Mono.fromRunnable(() -> {
-            log.debug("cancelVideoFrom : {}", receivedMessage);
-            CancelRequest cancelRequest = convertService.readDataFromMessage(receivedMessage, CancelRequest.class);
+            log.debug("cancelVideoFrom : {}", cancelRequest);
 
             String userIdFromSession = getUserIdFromSession(session);
             final UserSession user = registry.getByName(userIdFromSession);
@@ -424,8 +458,8 @@ public class ReplyHandler {
             }
 
             // 연결 상태 검증
-            Room room = roomManager.getRoom(user.getChannelId());
-            if (!room.getParticipants().contains(sender)) {
+            Room room = roomManager.findRoom(user.getChannelId());
+            if (room == null || !room.getParticipants().contains(sender)) {
                 log.warn("Sender {} is not in room {}", sender.getUserId(), user.getChannelId());
                 return;
             }
@@ -447,13 +481,20 @@ public class ReplyHandler {
     }
 
     private void removeUserSink(String userId) {
-        userSinkMap.remove(userId);
+        UserSink userSink = userSinkMap.remove(userId);
+        if (userSink != null) userSink.close();
     }
 
     private Mono<String> removeActiveUserFromServer(String userId) {
         return activeUserManager.removeUserActiveFromRedis(userId);
     }
 
+    // ICE_CANDIDATES 를 지원한다고 INIT 에서 알린 클라이언트만 배치로 전송
+    private IceCandidateBatchProperties getIceCandidateBatch(WebSocketSession session) {
+        return Boolean.TRUE.equals(session.getAttributes().get("iceCandidateBatching")) ?
+                iceCandidateBatchProperties : IceCandidateBatchProperties.DISABLED;
+    }
+
     private String getUserIdFromSession(WebSocketSession session) {
         return Optional.ofNullable(session.getAttributes().get("userId"))
                 .map(Object::toString)
@@ -0,0 +1,155 @@
+package com.example.pitching.call.operation;
+
+import com.example.pitching.call.dto.properties.EndpointPoolProperties;
+import com.example.pitching.call.service.KmsInstance;
+import lombok.extern.slf4j.Slf4j;
+import org.kurento.client.Continuation;
+import org.kurento.client.MediaPipeline;
+import org.kurento.client.WebRtcEndpoint;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Room 마다 미리 만들어 둔 WebRtcEndpoint
+ * 꺼내 쓸 때마다 size 개가 되도록 백그라운드에서 다시 채우고, idleTimeout 동안 쓰이지 않은 endpoint 는 해제한다
+ * 쓰인 endpoint 는 협상 상태가 남아있으므로 돌려받지 않는다
+ * Room 의 endpoint 는 모두 여기서 생성/해제해서 KMS 별 endpoint 수를 센다
+ */
+@Slf4j
+public class EndpointPool implements Closeable {
+    private final Deque<PooledEndpoint> idle = new ArrayDeque<>();
+    private final MediaPipeline pipeline;
+    private final EndpointPoolProperties properties;
+    private final KmsInstance kms;
+    private final Scheduler scheduler;
+    private int creating;
+    private boolean closed;
+
+    EndpointPool(MediaPipeline pipeline, EndpointPoolProperties properties, KmsInstance kms, Scheduler scheduler) {
+        this.pipeline = pipeline;
+        this.properties = properties;
+        this.kms = kms;
+        this.scheduler = scheduler;
+    }
+
+    public static EndpointPool of(MediaPipeline pipeline, EndpointPoolProperties properties, KmsInstance kms) {
+        return new EndpointPool(pipeline, properties, kms, Schedulers.parallel());
+    }
+
+    /**
+     * @return 미리 만들어 둔 endpoint (없으면 새로 생성)
+     */
+    public Mono<WebRtcEndpoint> acquire() {
+        return Mono.defer(() -> {
+            PooledEndpoint pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            warmUp();
+            if (pooled == null) return create();
+            pooled.expiration.dispose();
+            return Mono.just(pooled.endpoint);
+        });
+    }
+
+    /**
+     * 비어있는 만큼 endpoint 를 백그라운드에서 생성
+     */
+    public void warmUp() {
+        int missing;
+        synchronized (idle) {
+            if (closed) return;
+            missing = properties.size() - idle.size() - creating;
+            if (missing <= 0) return;
+            creating += missing;
+        }
+        for (int i = 0; i < missing; i++) {
+            create().subscribeOn(scheduler)
+                    .subscribe(this::offer, e -> {
+                        synchronized (idle) {
+                            creating--;
+                        }
+                        log.warn("Could not pre-create endpoint : {}", pipeline.getId(), e);
+                    });
+        }
+    }
+
+    public int size() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        List<PooledEndpoint> remained;
+        synchronized (idle) {
+            closed = true;
+            remained = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (PooledEndpoint pooled : remained) {
+            pooled.expiration.dispose();
+            release(pooled.endpoint);
+        }
+    }
+
+    public void release(WebRtcEndpoint endpoint) {
+        kms.endpointReleased();
+        endpoint.release(new Continuation<>() {
+            @Override
+            public void onSuccess(Void result) {
+                log.trace("Released endpoint : {}", endpoint.getId());
+            }
+
+            @Override
+            public void onError(Throwable cause) {
+                log.warn("Could not release endpoint : {}", endpoint.getId(), cause);
+            }
+        });
+    }
+
+    private Mono<WebRtcEndpoint> create() {
+        return KurentoMono.<WebRtcEndpoint>from(new WebRtcEndpoint.Builder(pipeline)::buildAsync)
+                .doOnNext(ignored -> kms.endpointCreated());
+    }
+
+    private void offer(WebRtcEndpoint endpoint) {
+        synchronized (idle) {
+            creating--;
+            if (!closed) {
+                PooledEndpoint pooled = new PooledEndpoint(endpoint);
+                pooled.expiration = Mono.delay(properties.idleTimeout(), scheduler)
+                        .subscribe(ignored -> expire(pooled));
+                idle.offerLast(pooled);
+                return;
+            }
+        }
+        release(endpoint);
+    }
+
+    private void expire(PooledEndpoint pooled) {
+        synchronized (idle) {
+            if (!idle.remove(pooled)) return;
+        }
+        log.debug("Release idle pooled endpoint : {}", pooled.endpoint.getId());
+        release(pooled.endpoint);
+    }
+
+    private static final class PooledEndpoint {
+        private final WebRtcEndpoint endpoint;
+        private Disposable expiration;
+
+        private PooledEndpoint(WebRtcEndpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+}
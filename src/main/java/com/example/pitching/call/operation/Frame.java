@@ -0,0 +1,55 @@
+package com.example.pitching.call.operation;
+
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * UTF-8 로 미리 인코딩된 텍스트 프레임
+ * 인코딩된 버퍼는 읽기 전용으로 공유하고, 전송할 때마다 duplicate 만 감싸서 WebSocketMessage 로 만든다
+ */
+public final class Frame {
+    private final ByteBuffer payload;
+    // 같은 key 를 가진 프레임은 최신 프레임 하나로 대체 가능 (UPDATE_STATE 의 user_id)
+    private final String coalesceKey;
+
+    private Frame(ByteBuffer payload, String coalesceKey) {
+        this.payload = payload;
+        this.coalesceKey = coalesceKey;
+    }
+
+    public static Frame of(byte[] encodedMessage) {
+        return of(encodedMessage, null);
+    }
+
+    public static Frame of(byte[] encodedMessage, String coalesceKey) {
+        return new Frame(ByteBuffer.wrap(encodedMessage).asReadOnlyBuffer(), coalesceKey);
+    }
+
+    public static Frame of(String message) {
+        return of(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public WebSocketMessage toMessage(DataBufferFactory bufferFactory) {
+        return new WebSocketMessage(WebSocketMessage.Type.TEXT, bufferFactory.wrap(payload.duplicate()));
+    }
+
+    public String getCoalesceKey() {
+        return coalesceKey;
+    }
+
+    public boolean isCoalescable() {
+        return coalesceKey != null;
+    }
+
+    public int size() {
+        return payload.remaining();
+    }
+
+    @Override
+    public String toString() {
+        return StandardCharsets.UTF_8.decode(payload.duplicate()).toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.pitching.call.operation;
+
+import com.example.pitching.call.dto.properties.IceCandidateBatchProperties;
+import com.example.pitching.call.operation.code.ResponseOperation;
+import com.example.pitching.call.operation.response.CandidateResponse;
+import com.example.pitching.call.operation.response.CandidatesResponse;
+import com.example.pitching.call.service.ConvertService;
+import lombok.extern.slf4j.Slf4j;
+import org.kurento.client.IceCandidate;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 유저의 모든 endpoint 에서 찾은 ICE candidate 를 window 동안 또는 maxSize 개까지 모아서
+ * sender 별 ICE_CANDIDATES 프레임 하나로 전송
+ * 배치를 지원하지 않는 클라이언트에는 기존처럼 ICE_CANDIDATE 로 하나씩 전송
+ */
+@Slf4j
+class IceCandidateBatcher implements Disposable {
+    private static final Sinks.EmitFailureHandler RETRY_ON_CONCURRENT_EMIT = Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
+    private final Sinks.Many<CandidateResponse> candidates = Sinks.many().unicast().onBackpressureBuffer();
+    private final Consumer<Frame> sender;
+    private final ConvertService convertService;
+    private final boolean isEnabled;
+    private final Disposable subscription;
+
+    IceCandidateBatcher(IceCandidateBatchProperties properties, Consumer<Frame> sender, ConvertService convertService, Scheduler scheduler) {
+        this.sender = sender;
+        this.convertService = convertService;
+        this.isEnabled = properties.isEnabled();
+        this.subscription = !isEnabled ? Disposables.disposed() : candidates.asFlux()
+                .bufferTimeout(properties.maxSize(), properties.window(), scheduler)
+                .flatMapIterable(IceCandidateBatcher::groupBySender)
+                .subscribe(response -> send(ResponseOperation.ICE_CANDIDATES, response),
+                        e -> log.error("ICE candidate batching stopped : ", e));
+    }
+
+    static IceCandidateBatcher of(IceCandidateBatchProperties properties, Consumer<Frame> sender, ConvertService convertService) {
+        return new IceCandidateBatcher(properties, sender, convertService, Schedulers.parallel());
+    }
+
+    /**
+     * @param senderId candidate 를 찾은 endpoint 가 수신하는 유저 (outgoing endpoint 면 자기 자신)
+     */
+    void add(String senderId, IceCandidate candidate) {
+        CandidateResponse candidateResponse = CandidateResponse.of(senderId, candidate);
+        if (!isEnabled) {
+            send(ResponseOperation.ICE_CANDIDATE, candidateResponse);
+            return;
+        }
+        if (isDisposed()) return;
+        candidates.emitNext(candidateResponse, RETRY_ON_CONCURRENT_EMIT);
+    }
+
+    @Override
+    public void dispose() {
+        subscription.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return subscription.isDisposed();
+    }
+
+    private void send(ResponseOperation responseOperation, Data data) {
+        Event response = Event.of(responseOperation, data, null);
+        log.debug("SEND ICE CANDIDATE : {}", response);
+        sender.accept(convertService.convertObjectToFrame(response));
+    }
+
+    private static List<CandidatesResponse> groupBySender(List<CandidateResponse> batch) {
+        Map<String, List<IceCandidate>> candidatesBySender = new LinkedHashMap<>();
+        for (CandidateResponse candidateResponse : batch) {
+            candidatesBySender.computeIfAbsent(candidateResponse.userId(), ignored -> new ArrayList<>())
+                    .add(candidateResponse.candidate());
+        }
+        List<CandidatesResponse> responses = new ArrayList<>(candidatesBySender.size());
+        candidatesBySender.forEach((senderId, senderCandidates) -> responses.add(CandidatesResponse.of(senderId, senderCandidates)));
+        return responses;
+    }
+}
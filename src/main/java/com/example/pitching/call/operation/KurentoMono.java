@@ -0,0 +1,33 @@
+package com.example.pitching.call.operation;
+
+import org.kurento.client.Continuation;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Consumer;
+
+/**
+ * Kurento 의 Continuation 기반 비동기 호출을 Mono 로 변환
+ * KMS 응답을 기다리는 동안 호출한 스레드(Netty event loop)를 막지 않는다
+ */
+public final class KurentoMono {
+    private KurentoMono() {
+    }
+
+    /**
+     * @param call Continuation 을 받는 Kurento 비동기 메서드 (ex. continuation -> endpoint.processOffer(sdpOffer, continuation))
+     * @return 결과가 null(Void) 이면 empty
+     */
+    public static <T> Mono<T> from(Consumer<Continuation<T>> call) {
+        return Mono.create(sink -> call.accept(new Continuation<>() {
+            @Override
+            public void onSuccess(T result) {
+                sink.success(result);
+            }
+
+            @Override
+            public void onError(Throwable cause) {
+                sink.error(cause);
+            }
+        }));
+    }
+}
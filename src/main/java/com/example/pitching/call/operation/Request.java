@@ -0,0 +1,16 @@
+package com.example.pitching.call.operation;
+
+import com.example.pitching.call.operation.code.RequestOperation;
+
+public record Request(
+        RequestOperation operation,
+        Data data
+) {
+    public static Request of(RequestOperation operation, Data data) {
+        return new Request(operation, data);
+    }
+
+    public <T extends Data> T dataAs(Class<T> dataClass) {
+        return dataClass.cast(data);
+    }
+}
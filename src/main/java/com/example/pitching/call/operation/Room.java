@@ -1,15 +1,19 @@
 package com.example.pitching.call.operation;
 
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.dto.RoomMode;
+import com.example.pitching.call.dto.properties.IceCandidateBatchProperties;
 import com.example.pitching.call.service.ConvertService;
+import com.example.pitching.call.service.KmsInstance;
 import jakarta.annotation.PreDestroy;
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.kurento.client.Composite;
 import org.kurento.client.Continuation;
 import org.kurento.client.MediaPipeline;
 import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Mono;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -17,18 +21,43 @@ import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+/**
+ * 기본은 참여자마다 다른 참여자의 endpoint 를 각각 만드는 MESH 모드
+ * 음성 채널 참여자가 compositeThreshold 이상이 되면 COMPOSITE 모드로 전환해서 참여자마다 HubPort 하나로 섞은 오디오를 받는다
+ * 한 번 전환하면 Room 이 해제될 때까지 유지 (경계에서 모드가 반복해서 바뀌지 않도록)
+ */
 @Slf4j
 @ToString
-@AllArgsConstructor(access = AccessLevel.PROTECTED)
 public class Room implements Closeable {
     @Getter
     private final Long channelId;
+    private final ChannelType channelType;
     @Getter
     private final MediaPipeline pipeline;
+    @Getter
+    private final EndpointPool endpointPool;
+    private final int compositeThreshold;
+    private final KmsInstance kms;
     private final ConcurrentMap<String, UserSession> participants = new ConcurrentHashMap<>();
+    // null 이면 MESH 모드, this 락 안에서 한 번만 생성
+    private volatile Mono<Composite> composite;
+
+    private Room(Long channelId, ChannelType channelType, MediaPipeline pipeline, EndpointPool endpointPool,
+                 int compositeThreshold, KmsInstance kms) {
+        this.channelId = channelId;
+        this.channelType = channelType;
+        this.pipeline = pipeline;
+        this.endpointPool = endpointPool;
+        this.compositeThreshold = compositeThreshold;
+        this.kms = kms;
+    }
 
-    public static Room of(Long channelId, MediaPipeline pipeline) {
-        return new Room(channelId, pipeline);
+    /**
+     * @param kms pipeline 이 만들어진 KMS (Room 의 모든 미디어 객체는 이 KMS 에 만들어짐)
+     */
+    public static Room of(Long channelId, ChannelType channelType, MediaPipeline pipeline, EndpointPool endpointPool,
+                          int compositeThreshold, KmsInstance kms) {
+        return new Room(channelId, channelType, pipeline, endpointPool, compositeThreshold, kms);
     }
 
     @PreDestroy
@@ -36,19 +65,50 @@ public class Room implements Closeable {
         this.close();
     }
 
-    public UserSession join(String userName, WebSocketSession session, ConvertService convertService) {
+    public Mono<UserSession> join(String userName, WebSocketSession session, UserSink outbound,
+                                  IceCandidateBatchProperties candidateBatch, ConvertService convertService) {
         log.info("ROOM {}: adding USER [{}]", this.channelId, userName);
-        final UserSession participant = UserSession.of(userName, this.channelId, session, this.pipeline);
-        log.info("participant : {}", participant);
-        participant.addIceCandidateFoundListener(convertService);
-        participants.put(participant.getUserId(), participant);
-        return participant;
+        return UserSession.of(userName, this.channelId, session, outbound, this.endpointPool, candidateBatch, convertService)
+                .flatMap(participant -> {
+                    log.info("participant : {}", participant);
+                    UserSession previous = participants.put(participant.getUserId(), participant);
+                    if (previous != null) closeParticipant(previous);
+                    Mono<Composite> hub = getCompositeIfRequired(convertService);
+                    if (hub == null) return Mono.just(participant);
+                    return hub.flatMap(mixer -> participant.attachToHub(mixer, convertService))
+                            .thenReturn(participant);
+                });
+    }
+
+    public RoomMode getMode() {
+        return composite == null ? RoomMode.MESH : RoomMode.COMPOSITE;
+    }
+
+    // 참여자를 participants 에 넣은 뒤에 호출해야 전환 시점의 참여자가 빠지지 않음
+    private synchronized Mono<Composite> getCompositeIfRequired(ConvertService convertService) {
+        if (composite == null) {
+            if (channelType != ChannelType.VOICE || participants.size() < compositeThreshold) return null;
+            log.info("ROOM {}: switching to composite mode with {} participants", this.channelId, participants.size());
+            composite = KurentoMono.<Composite>from(new Composite.Builder(pipeline)::buildAsync)
+                    .doOnNext(mixer -> switchToComposite(mixer, convertService))
+                    .cache();
+        }
+        return composite;
+    }
+
+    private void switchToComposite(Composite mixer, ConvertService convertService) {
+        for (final UserSession participant : participants.values()) {
+            participant.attachToHub(mixer, convertService)
+                    .subscribe(null, e -> log.error("PARTICIPANT {}: Could not attach to composite of room {}",
+                            participant.getUserId(), this.channelId, e));
+        }
     }
 
     public void leave(UserSession user) {
         try {
             log.info("USER [{}]: Leaving room {}", user.getUserId(), this.channelId);
-            this.removeParticipant(user.getUserId());
+            // 이미 교체되었거나 다른 Room 에서 닫힌 세션은 닫지 않음
+            if (!this.removeParticipant(user)) return;
             log.info("Remained Room [{}] users : {}", this.channelId, participants.values());
             user.close();
         } catch (IOException e) {
@@ -56,13 +116,22 @@ public class Room implements Closeable {
         }
     }
 
-    private void removeParticipant(String userId) throws IOException {
-        participants.remove(userId);
+    private boolean removeParticipant(UserSession user) {
+        // 같은 유저가 다시 입장해서 교체된 경우 새 참여자는 남겨둠 (UserSession.equals 는 userId, channelId 만 비교하므로 참조로 비교)
+        String userId = user.getUserId();
+        boolean[] removed = new boolean[1];
+        participants.computeIfPresent(userId, (id, current) -> {
+            if (current != user) return current;
+            removed[0] = true;
+            return null;
+        });
+        if (!removed[0]) return false;
         log.debug("ROOM {}: notifying all users that {} is leaving the room", this.channelId, userId);
 
         for (final UserSession participant : participants.values()) {
             participant.cancelVideoFrom(userId);
         }
+        return true;
     }
 
     public Collection<UserSession> getParticipants() {
@@ -70,17 +139,24 @@ public class Room implements Closeable {
     }
 
 
+    private void closeParticipant(UserSession user) {
+        try {
+            user.close();
+        } catch (IOException e) {
+            log.debug("ROOM {}: Could not invoke close on participant {}", this.channelId, user.getUserId(), e);
+        }
+    }
+
     @Override
     public void close() {
         for (final UserSession user : participants.values()) {
-            try {
-                user.close();
-            } catch (IOException e) {
-                log.debug("ROOM {}: Could not invoke close on participant {}", this.channelId, user.getUserId(), e);
-            }
+            closeParticipant(user);
         }
 
         participants.clear();
+        endpointPool.close();
+        // Composite 는 pipeline 과 함께 해제됨
+        kms.pipelineReleased();
 
         pipeline.release(new Continuation<>() {
 
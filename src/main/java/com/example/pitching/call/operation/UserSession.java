@@ -1,8 +1,10 @@
 package com.example.pitching.call.operation;
 
+import com.example.pitching.call.dto.RoomMode;
+import com.example.pitching.call.dto.properties.IceCandidateBatchProperties;
 import com.example.pitching.call.operation.code.ResponseOperation;
 import com.example.pitching.call.operation.response.AnswerResponse;
-import com.example.pitching.call.operation.response.CandidateResponse;
+import com.example.pitching.call.operation.response.RoomModeResponse;
 import com.example.pitching.call.service.ConvertService;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -12,12 +14,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.kurento.client.*;
 import org.springframework.web.reactive.socket.WebSocketSession;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @ToString
@@ -29,105 +32,135 @@ public class UserSession implements Closeable {
     private final Long channelId;
     @Getter
     private final WebSocketSession session;
-    private final MediaPipeline pipeline;
+    // ICE candidate, SDP answer, ROOM_MODE 는 서버 이벤트와 같은 연결로 보내지만 시그널링 큐로 먼저 보냄 (버려지지 않음)
+    private final UserSink outbound;
+    private final IceCandidateBatcher candidateBatcher;
+    private final EndpointPool endpointPool;
     private final WebRtcEndpoint outgoingMedia;
-    private final ConcurrentMap<String, WebRtcEndpoint> incomingMedia = new ConcurrentHashMap<>();
-
-    public static UserSession of(String userId, Long channelId, WebSocketSession session, MediaPipeline pipeline) {
-        return new UserSession(userId, channelId, session, pipeline, new WebRtcEndpoint.Builder(pipeline).build());
+    // 생성 중인 endpoint 도 먼저 등록해서, 협상 중에 도착한 ICE candidate 를 생성이 끝난 뒤에 추가함
+    private final ConcurrentMap<String, Mono<WebRtcEndpoint>> incomingMedia = new ConcurrentHashMap<>();
+    // COMPOSITE 모드에서 outgoingMedia 와 양방향으로 연결된 오디오 포트
+    private final AtomicReference<HubPort> hubPort = new AtomicReference<>();
+    private final AtomicBoolean attachedToHub = new AtomicBoolean();
+    // Room 교체/퇴장/Room 닫기에서 여러 번 호출되어도 endpoint 는 한 번만 해제 (KMS endpoint 수가 음수가 되지 않도록)
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * outgoing endpoint 생성과 ICE candidate 리스너 등록을 KMS 응답을 기다리지 않고 처리
+     */
+    public static Mono<UserSession> of(String userId, Long channelId, WebSocketSession session, UserSink outbound,
+                                       EndpointPool endpointPool, IceCandidateBatchProperties candidateBatch,
+                                       ConvertService convertService) {
+        return endpointPool.acquire()
+                .map(outgoingMedia -> new UserSession(userId, channelId, session, outbound,
+                        IceCandidateBatcher.of(candidateBatch, outbound::tryEmitSignal, convertService), endpointPool, outgoingMedia))
+                .flatMap(user -> user.addIceCandidateFoundListener().thenReturn(user));
     }
 
-    public void addIceCandidateFoundListener(ConvertService convertService) {
+    private Mono<ListenerSubscription> addIceCandidateFoundListener() {
         log.debug("ADD ICE CANDIDATE FOUND LISTENER : {} / {}", this.userId, this.outgoingMedia);
-        this.outgoingMedia.addIceCandidateFoundListener(event -> {
-            Event response = Event.of(ResponseOperation.ICE_CANDIDATE,
-                    CandidateResponse.of(userId, event.getCandidate()), null);
-            log.debug("SEND ICE CANDIDATE - joinRoom : {}", response);
-            sendMessage(convertService.convertObjectToJson(response));
-        });
+        return KurentoMono.from(continuation -> this.outgoingMedia.addIceCandidateFoundListener(
+                event -> candidateBatcher.add(userId, event.getCandidate()), continuation));
     }
 
     public WebRtcEndpoint getOutgoingWebRtcPeer() {
         return outgoingMedia;
     }
 
-    public void sendMessage(String message) {
-        this.session.send(Mono.just(session.textMessage(message)))
-                .subscribeOn(Schedulers.single()).subscribe();
+    public void sendMessage(Frame message) {
+        this.outbound.tryEmitSignal(message);
     }
 
 
     public void addCandidate(IceCandidate candidate, String userId) {
         log.debug("Add Ice Candidate : this.userId[{}], userId[{}], candidate[{}]", this.userId, userId, candidate);
+        final Mono<WebRtcEndpoint> webRtc;
         if (this.userId.compareTo(userId) == 0) {
             log.debug("SAME : [{}] outgoingMedia - {}", userId, outgoingMedia);
-            outgoingMedia.addIceCandidate(candidate);
+            webRtc = Mono.just(outgoingMedia);
         } else {
-            WebRtcEndpoint webRtc = incomingMedia.get(userId);
-            log.debug("DIFF : [{}] incomingMedia - {} / {}", userId, incomingMedia, webRtc);
-            if (webRtc != null) {
-                webRtc.addIceCandidate(candidate);
-            }
+            webRtc = incomingMedia.get(userId);
+            log.debug("DIFF : [{}] incomingMedia - {} / {}", userId, incomingMedia.keySet(), webRtc);
+        }
+        if (webRtc == null) {
+            log.warn("USER [{}]: no endpoint for {}, drop ICE candidate", this.userId, userId);
+            return;
         }
+        webRtc.flatMap(endpoint -> KurentoMono.<Void>from(continuation -> endpoint.addIceCandidate(candidate, continuation)))
+                .subscribe(null, e -> log.warn("USER [{}]: Could not add ICE candidate for {}", this.userId, userId, e));
     }
 
-    public void receiveVideoFrom(UserSession sender, String sdpOffer, ConvertService convertService) {
+    /**
+     * SDP 협상 (endpoint 생성/연결 -> processOffer -> answer 전송 -> gatherCandidates)
+     * 각 단계는 KMS 응답이 오면 이어서 진행되므로 다른 유저의 시그널링을 막지 않는다
+     */
+    public Mono<Void> receiveVideoFrom(UserSession sender, String sdpOffer, ConvertService convertService) {
         log.info("USER [{}]: connecting with {} in room {}", this.userId, sender.getUserId(), this.channelId);
 
-        try {
-            final WebRtcEndpoint endpoint = this.getEndpointForUser(sender, convertService);
-            if (endpoint == null) {
-                log.error("USER [{}]: Error creating endpoint for {}", this.userId, sender.getUserId());
-                return;
-            }
-
-            log.debug("USER [{}]: SdpOffer for {} is {}", this.userId, sender.getUserId(), sdpOffer);
-
-            final String ipSdpAnswer = endpoint.processOffer(sdpOffer);
-            Event response = Event.of(ResponseOperation.RECEIVE_VIDEO_ANSWER,
-                    AnswerResponse.of(sender.userId, ipSdpAnswer), null);
-
-            log.debug("USER [{}]: SdpAnswer for {} is {}", this.userId, sender.getUserId(), ipSdpAnswer);
-            this.sendMessage(convertService.convertObjectToJson(response));
-
-            log.debug("gather candidates");
-            endpoint.gatherCandidates();
-
-        } catch (Exception e) {
-            log.error("USER [{}]: Error receiving video from {}", this.userId, sender.getUserId(), e);
-        }
+        return this.getEndpointForUser(sender)
+                .flatMap(endpoint -> {
+                    log.debug("USER [{}]: SdpOffer for {} is {}", this.userId, sender.getUserId(), sdpOffer);
+                    return KurentoMono.<String>from(continuation -> endpoint.processOffer(sdpOffer, continuation))
+                            .doOnNext(ipSdpAnswer -> {
+                                Event response = Event.of(ResponseOperation.RECEIVE_VIDEO_ANSWER,
+                                        AnswerResponse.of(sender.userId, ipSdpAnswer), null);
+                                log.debug("USER [{}]: SdpAnswer for {} is {}", this.userId, sender.getUserId(), ipSdpAnswer);
+                                this.sendMessage(convertService.convertObjectToFrame(response));
+                                log.debug("gather candidates");
+                            })
+                            .then(KurentoMono.<Void>from(endpoint::gatherCandidates));
+                })
+                .onErrorResume(e -> {
+                    log.error("USER [{}]: Error receiving video from {}", this.userId, sender.getUserId(), e);
+                    return Mono.empty();
+                });
     }
 
-    private WebRtcEndpoint getEndpointForUser(final UserSession sender, ConvertService convertService) {
+    private Mono<WebRtcEndpoint> getEndpointForUser(final UserSession sender) {
         if (sender.getUserId().equals(userId)) {
             log.info("PARTICIPANT {}: configuring loopback", this.userId);
-            return outgoingMedia;
+            return Mono.just(outgoingMedia);
         }
 
-        WebRtcEndpoint incoming = incomingMedia.get(sender.getUserId());
-        if (incoming == null) {
-            try {
-                incoming = new WebRtcEndpoint.Builder(pipeline).build();
-
-                incoming.addIceCandidateFoundListener(event -> {
-                    Event response = Event.of(ResponseOperation.ICE_CANDIDATE,
-                            CandidateResponse.of(sender.getUserId(), event.getCandidate()), null);
-                    log.debug("SEND ICE CANDIDATE - getEndpointForUser: {}", response);
-                    sendMessage(convertService.convertObjectToJson(response));
-                });
+        // 같은 sender 에 대한 요청이 동시에 들어와도 endpoint 는 하나만 생성
+        Mono<WebRtcEndpoint> endpoint = incomingMedia.computeIfAbsent(sender.getUserId(), ignored -> createIncomingEndpoint(sender));
+        return endpoint.flatMap(ep -> KurentoMono.<Void>from(continuation -> sender.getOutgoingWebRtcPeer().connect(ep, continuation))
+                .thenReturn(ep));
+    }
 
-                incomingMedia.put(sender.getUserId(), incoming);
-                log.info("PARTICIPANT {}: Created endpoint for {} - INCOMING : {}", this.userId, sender.getUserId(), incoming);
-            } catch (Exception e) {
-                log.error("PARTICIPANT {}: Error creating endpoint for {}", this.userId, sender.getUserId(), e);
-                return null;
-            }
-        } else {
-            log.info("PARTICIPANT {}: receiving video from {} - INCOMING : {}", this.userId, sender.getUserId(), incoming);
-        }
-        sender.getOutgoingWebRtcPeer().connect(incoming);
+    // incomingMedia.computeIfAbsent 안에서 호출, 구독한 쪽들이 생성 결과를 공유
+    private Mono<WebRtcEndpoint> createIncomingEndpoint(final UserSession sender) {
+        String senderId = sender.getUserId();
+        AtomicReference<Mono<WebRtcEndpoint>> self = new AtomicReference<>();
+        Mono<WebRtcEndpoint> pending = endpointPool.acquire()
+                .flatMap(incoming -> KurentoMono.<ListenerSubscription>from(continuation -> incoming.addIceCandidateFoundListener(
+                                event -> candidateBatcher.add(senderId, event.getCandidate()), continuation))
+                        .doOnError(ignored -> releaseEndpoint(incoming, senderId))
+                        .thenReturn(incoming))
+                .doOnNext(incoming -> log.info("PARTICIPANT {}: Created endpoint for {} - INCOMING : {}", this.userId, senderId, incoming))
+                // 실패하면 다음 요청에서 다시 생성하도록 제거
+                .doOnError(ignored -> incomingMedia.remove(senderId, self.get()))
+                .cache();
+        self.set(pending);
+        return pending;
+    }
 
-        return incoming;
+    /**
+     * outgoingMedia 의 오디오를 Composite 로 보내고 나머지 참여자의 오디오를 섞어서 받음
+     * 다른 참여자에게서 받던 endpoint 는 해제하고, 클라이언트에 ROOM_MODE 를 보내 자신의 endpoint 만 협상하도록 한다
+     */
+    public Mono<Void> attachToHub(Composite composite, ConvertService convertService) {
+        if (!attachedToHub.compareAndSet(false, true)) return Mono.empty();
+        return KurentoMono.<HubPort>from(new HubPort.Builder(composite)::buildAsync)
+                .doOnNext(hubPort::set)
+                .flatMap(port -> KurentoMono.<Void>from(continuation -> outgoingMedia.connect(port, MediaType.AUDIO, continuation))
+                        .then(KurentoMono.<Void>from(continuation -> port.connect(outgoingMedia, MediaType.AUDIO, continuation))))
+                .doOnSuccess(ignored -> {
+                    incomingMedia.keySet().forEach(this::cancelVideoFrom);
+                    Event response = Event.of(ResponseOperation.ROOM_MODE, RoomModeResponse.of(channelId, RoomMode.COMPOSITE), null);
+                    this.sendMessage(convertService.convertObjectToFrame(response));
+                    log.info("PARTICIPANT {}: attached to composite of room {}", this.userId, this.channelId);
+                });
     }
 
     public void cancelVideoFrom(final UserSession sender) {
@@ -141,7 +174,7 @@ public class UserSession implements Closeable {
                 incomingMedia.keySet()  // 현재 저장된 모든 키를 로그로 출력
         );
 
-        final WebRtcEndpoint incoming = incomingMedia.remove(senderName);
+        final Mono<WebRtcEndpoint> incoming = incomingMedia.remove(senderName);
 
         if (incoming == null) {
             log.warn("PARTICIPANT {}: no incoming endpoint found for {} (remaining endpoints: {})",
@@ -152,21 +185,20 @@ public class UserSession implements Closeable {
             return;
         }
 
-        incoming.release(new Continuation<Void>() {
-            @Override
-            public void onSuccess(Void result) throws Exception {
-                log.trace("PARTICIPANT {}: Released successfully incoming EP for {}",
-                        UserSession.this.userId, senderName);
-            }
-
-            @Override
-            public void onError(Throwable cause) throws Exception {
-                log.warn("PARTICIPANT {}: Could not release incoming EP for {}", UserSession.this.userId,
-                        senderName);
-            }
+        releaseEndpoint(incoming, senderName);
+    }
+
+    // 아직 생성 중이면 생성된 뒤에 해제
+    private void releaseEndpoint(Mono<WebRtcEndpoint> incoming, String senderName) {
+        incoming.subscribe(endpoint -> releaseEndpoint(endpoint, senderName), ignored -> {
         });
     }
 
+    private void releaseEndpoint(WebRtcEndpoint incoming, String senderName) {
+        log.trace("PARTICIPANT {}: Releasing incoming EP for {}", this.userId, senderName);
+        endpointPool.release(incoming);
+    }
+
     @Override
     public boolean equals(Object obj) {
 
@@ -192,39 +224,20 @@ public class UserSession implements Closeable {
 
     @Override
     public void close() throws IOException {
+        if (!closed.compareAndSet(false, true)) return;
         log.debug("PARTICIPANT {}: Releasing resources", this.userId);
+        candidateBatcher.dispose();
+        HubPort port = hubPort.getAndSet(null);
+        if (port != null) {
+            KurentoMono.<Void>from(port::release)
+                    .subscribe(null, e -> log.warn("PARTICIPANT {}: Could not release hub port", this.userId, e));
+        }
         for (final String remoteParticipantName : incomingMedia.keySet()) {
-            log.trace("PARTICIPANT {}: Released incoming EP for {}", this.userId, remoteParticipantName);
-
-            final WebRtcEndpoint ep = this.incomingMedia.get(remoteParticipantName);
-
-            ep.release(new Continuation<>() {
-
-                @Override
-                public void onSuccess(Void result) throws Exception {
-                    log.trace("PARTICIPANT {}: Released successfully incoming EP for {}",
-                            UserSession.this.userId, remoteParticipantName);
-                }
-
-                @Override
-                public void onError(Throwable cause) throws Exception {
-                    log.warn("PARTICIPANT {}: Could not release incoming EP for {}", UserSession.this.userId,
-                            remoteParticipantName);
-                }
-            });
+            final Mono<WebRtcEndpoint> ep = this.incomingMedia.remove(remoteParticipantName);
+            if (ep != null) releaseEndpoint(ep, remoteParticipantName);
         }
 
-        outgoingMedia.release(new Continuation<>() {
-
-            @Override
-            public void onSuccess(Void result) throws Exception {
-                log.trace("PARTICIPANT {}: Released outgoing EP", UserSession.this.userId);
-            }
-
-            @Override
-            public void onError(Throwable cause) throws Exception {
-                log.warn("USER {}: Could not release outgoing EP", UserSession.this.userId);
-            }
-        });
+        log.trace("PARTICIPANT {}: Releasing outgoing EP", this.userId);
+        endpointPool.release(outgoingMedia);
     }
 }
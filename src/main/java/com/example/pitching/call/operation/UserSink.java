@@ -1,34 +1,91 @@
 package com.example.pitching.call.operation;
 
+import com.example.pitching.call.dto.OverflowPolicy;
 import com.example.pitching.call.dto.Subscription;
-import lombok.AllArgsConstructor;
-import lombok.ToString;
+import com.example.pitching.call.dto.properties.UserSinkProperties;
+import com.example.pitching.call.service.UserSinkMetrics;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Sinks;
+import reactor.core.publisher.FluxSink;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 유저별 서버 이벤트 전송 큐
+ * 용량을 넘으면 OverflowPolicy 에 따라 오래된 이벤트를 버리거나, 같은 유저의 상태 변경을 대체하거나, 연결을 끊는다
+ * 시그널링 프레임 (SDP answer, ICE candidate, ROOM_MODE) 은 별도 큐로 서버 이벤트보다 먼저 보내고, 버리거나 용량에 세지 않는다
+ */
 @Slf4j
-@ToString
-@AllArgsConstructor
 public class UserSink {
     // Server Event 수신
-    private final Sinks.Many<String> userSink;
+    private final Deque<Frame> queue = new ArrayDeque<>();
+    // 유저 자신의 협상 요청에 대한 응답이라 양이 요청 수로 제한되므로 용량을 두지 않음, queue 락으로 함께 보호
+    private final Deque<Frame> signals = new ArrayDeque<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final UserSinkMetrics metrics;
+    private final Runnable onSlowConsumer;
+    private final Flux<Frame> userSinkFlux;
+    private volatile FluxSink<Frame> emitter;
+    private volatile boolean terminated;
     private Subscription subscription;
 
-    public static UserSink of(Sinks.Many<String> userSink) {
-        return new UserSink(userSink, null);
+    private UserSink(UserSinkProperties properties, UserSinkMetrics metrics, Runnable onSlowConsumer) {
+        this.capacity = properties.capacity();
+        this.overflowPolicy = properties.overflowPolicy();
+        this.metrics = metrics;
+        this.onSlowConsumer = onSlowConsumer;
+        this.userSinkFlux = Flux.create(this::attach);
+    }
+
+    public static UserSink of(UserSinkProperties properties, UserSinkMetrics metrics, Runnable onSlowConsumer) {
+        return new UserSink(properties, metrics, onSlowConsumer);
     }
 
     public void addSubscription(Subscription subscription) {
         this.subscription = subscription;
     }
 
-    public void tryEmitNext(String message) {
-        this.userSink.tryEmitNext(message);
+    public void tryEmitNext(Frame message) {
+        if (terminated) return;
+        boolean accepted;
+        synchronized (queue) {
+            accepted = queue.size() < capacity || makeRoomFor(message);
+            if (accepted) {
+                queue.offerLast(message);
+                metrics.increaseDepth();
+            }
+        }
+        if (!accepted) {
+            disconnectSlowConsumer();
+            return;
+        }
+        drain();
     }
 
-    public Flux<String> getUserSinkAsFlux() {
-        return this.userSink.asFlux();
+    /**
+     * 시그널링 프레임 전송 (하나라도 빠지면 WebRTC 연결이 깨지므로 OverflowPolicy 를 적용하지 않음)
+     */
+    public void tryEmitSignal(Frame message) {
+        if (terminated) return;
+        synchronized (queue) {
+            signals.offerLast(message);
+        }
+        drain();
+    }
+
+    public Flux<Frame> getUserSinkAsFlux() {
+        return this.userSinkFlux;
+    }
+
+    public int size() {
+        synchronized (queue) {
+            return queue.size() + signals.size();
+        }
     }
 
     public boolean doesSubscriberExists() {
@@ -38,4 +95,90 @@ public class UserSink {
     public void dispose() {
         subscription.disposable().dispose();
     }
+
+    public void close() {
+        terminated = true;
+        clear();
+        FluxSink<Frame> currentEmitter = emitter;
+        if (currentEmitter != null) currentEmitter.complete();
+    }
+
+    private void attach(FluxSink<Frame> newEmitter) {
+        // 기존 unicast sink 와 마찬가지로 구독자는 하나만 허용
+        if (emitter != null) {
+            newEmitter.error(new IllegalStateException("UserSink allows only a single subscriber"));
+            return;
+        }
+        emitter = newEmitter;
+        if (terminated) {
+            newEmitter.complete();
+            return;
+        }
+        newEmitter.onRequest(ignored -> drain());
+        newEmitter.onDispose(this::clear);
+        drain();
+    }
+
+    // queue 락 안에서 호출
+    private boolean makeRoomFor(Frame message) {
+        boolean hasRoom = switch (overflowPolicy) {
+            case DROP_OLDEST -> queue.pollFirst() != null;
+            case COALESCE_STATE -> removeOlderStateOf(message);
+            case DISCONNECT -> false;
+        };
+        if (hasRoom) {
+            metrics.decreaseDepth(1);
+            metrics.overflow(overflowPolicy);
+        }
+        return hasRoom;
+    }
+
+    private boolean removeOlderStateOf(Frame message) {
+        if (!message.isCoalescable()) return false;
+        Iterator<Frame> iterator = queue.descendingIterator();
+        while (iterator.hasNext()) {
+            if (message.getCoalesceKey().equals(iterator.next().getCoalesceKey())) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void disconnectSlowConsumer() {
+        if (terminated) return;
+        log.warn("User sink overflow (capacity {}, policy {}) - disconnect slow consumer", capacity, overflowPolicy);
+        metrics.overflow(OverflowPolicy.DISCONNECT);
+        close();
+        onSlowConsumer.run();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) return;
+        int missed = 1;
+        do {
+            FluxSink<Frame> currentEmitter = emitter;
+            while (currentEmitter != null && currentEmitter.requestedFromDownstream() > 0) {
+                Frame message;
+                synchronized (queue) {
+                    message = signals.pollFirst();
+                    if (message == null) {
+                        message = queue.pollFirst();
+                        if (message != null) metrics.decreaseDepth(1);
+                    }
+                }
+                if (message == null) break;
+                currentEmitter.next(message);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void clear() {
+        synchronized (queue) {
+            metrics.decreaseDepth(queue.size());
+            queue.clear();
+            signals.clear();
+        }
+    }
 }
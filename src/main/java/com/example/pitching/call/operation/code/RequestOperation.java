@@ -2,30 +2,36 @@ package com.example.pitching.call.operation.code;
 
 import com.example.pitching.call.exception.ErrorCode;
 import com.example.pitching.call.exception.InvalidValueException;
+import com.example.pitching.call.operation.Data;
+import com.example.pitching.call.operation.request.*;
 import com.fasterxml.jackson.annotation.JsonValue;
 import lombok.Getter;
 
 @Getter
 public enum RequestOperation implements Operation {
 
-    INIT(0, "Send serverId to activate"),
-    HEARTBEAT(1, "Fired periodically by the client to keep the connection alive."),
-    SERVER(2, "Send serverId when user changed server."),
-    ENTER_CHANNEL(3, "Enter the voice/video channel."),
-    LEAVE_CHANNEL(4, "Leave the voice/video channel."),
-    UPDATE_STATE(5, "Change the voice/video channel state"),
-    ON_ICE_CANDIDATE(6, "Send ICE candidate for WebRTC peer connection setup"),
-    RECEIVE_VIDEO(7, "Receive video stream from remote peer"),
-    CANCEL_VIDEO(8, ""),
+    INIT(0, "Send serverId to activate", WebsocketAuthRequest.class),
+    HEARTBEAT(1, "Fired periodically by the client to keep the connection alive.", null),
+    SERVER(2, "Send serverId when user changed server.", ServerRequest.class),
+    ENTER_CHANNEL(3, "Enter the voice/video channel.", ChannelRequest.class),
+    LEAVE_CHANNEL(4, "Leave the voice/video channel.", ChannelRequest.class),
+    UPDATE_STATE(5, "Change the voice/video channel state", StateRequest.class),
+    ON_ICE_CANDIDATE(6, "Send ICE candidate for WebRTC peer connection setup", CandidateRequest.class),
+    RECEIVE_VIDEO(7, "Receive video stream from remote peer", OfferRequest.class),
+    CANCEL_VIDEO(8, "", CancelRequest.class),
+    ON_ICE_CANDIDATES(9, "Send a batch of ICE candidates collected by the client", CandidatesRequest.class),
     ;
 
     @JsonValue
     private final int code;
     private final String description;
+    // data 필드를 역직렬화할 타입 (data 가 없는 operation 은 null)
+    private final Class<? extends Data> dataType;
 
-    RequestOperation(int code, String description) {
+    RequestOperation(int code, String description, Class<? extends Data> dataType) {
         this.code = code;
         this.description = description;
+        this.dataType = dataType;
     }
 
     public static RequestOperation from(int code) {
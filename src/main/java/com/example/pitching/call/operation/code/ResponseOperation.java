@@ -16,6 +16,8 @@ public enum ResponseOperation implements Operation {
     ICE_CANDIDATE(16, "Received ICE candidate from the remote peer for WebRTC connection"),
     RECEIVE_VIDEO_ANSWER(17, "Response to video offer containing session description for WebRTC"),
     CANCEL_VIDEO_ANSWER(18, ""),
+    ICE_CANDIDATES(19, "Batch of ICE candidates received from the remote peer (sent when the client enabled batching)"),
+    ROOM_MODE(20, "Room switched to mixed audio. Negotiate only your own endpoint (RECEIVE_VIDEO with your user id)"),
     ;
     ;
 
@@ -0,0 +1,10 @@
+package com.example.pitching.call.operation.request;
+
+import com.example.pitching.call.operation.Data;
+
+import java.util.List;
+
+public record CandidatesRequest(
+        List<CandidateRequest> candidates
+) implements Data {
+}
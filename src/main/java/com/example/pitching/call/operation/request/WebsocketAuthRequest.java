@@ -1,8 +1,12 @@
 package com.example.pitching.call.operation.request;
 
 import com.example.pitching.call.operation.Data;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 public record WebsocketAuthRequest(
-        String token
+        String token,
+        // ICE_CANDIDATES 수신 지원 여부 (없으면 기존처럼 ICE_CANDIDATE 로 하나씩 전송)
+        @JsonProperty("ice_candidate_batching")
+        boolean isIceCandidateBatching
 ) implements Data {
 }
@@ -0,0 +1,15 @@
+package com.example.pitching.call.operation.response;
+
+import com.example.pitching.call.operation.Data;
+import org.kurento.client.IceCandidate;
+
+import java.util.List;
+
+public record CandidatesResponse(
+        String userId,
+        List<IceCandidate> candidates
+) implements Data {
+    public static CandidatesResponse of(String userId, List<IceCandidate> candidates) {
+        return new CandidatesResponse(userId, candidates);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.pitching.call.operation.response;
+
+import com.example.pitching.call.dto.RoomMode;
+import com.example.pitching.call.operation.Data;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record RoomModeResponse(
+        @JsonProperty("channel_id")
+        Long channelId,
+        @JsonProperty("mode")
+        RoomMode mode
+) implements Data {
+    public static RoomModeResponse of(Long channelId, RoomMode mode) {
+        return new RoomModeResponse(channelId, mode);
+    }
+}
@@ -12,11 +12,16 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * user:active:%s (유저 -> 입장한 서버) 를 Redis 에 쓰면서 이 노드에 연결된 유저의 값은 로컬에도 유지
+ * 유저의 웹소켓은 한 노드에만 연결되므로 채널/상태 요청의 접근 확인은 Redis 를 조회하지 않는다
+ */
 @Slf4j
 @Component
 public class ActiveUserManager {
     private final ReactiveValueOperations<String, String> valueOperations;
     private final Map<String, Boolean> isSubscriptionRequired = new ConcurrentHashMap<>();
+    private final Map<String, String> activeServerIds = new ConcurrentHashMap<>();
 
     public ActiveUserManager(ReactiveStringRedisTemplate redisTemplate) {
         this.valueOperations = redisTemplate.opsForValue();
@@ -30,17 +35,30 @@ public class ActiveUserManager {
         return isSubscriptionRequired.getOrDefault(userId, true);
     }
 
-    // 서버 입장
+    /**
+     * 서버 입장
+     * GETSET 한 번으로 쓰면서 이전 서버를 확인 (다른 노드에서 바꾼 값도 여기서 확인됨)
+     * 로컬 값은 GETSET 이 성공한 뒤에만 바꾸고, 실패하면 지워서 다음 접근 확인 때 Redis 에서 다시 읽는다
+     */
     public Mono<Boolean> addUserActiveToRedisIfServerIdChanged(String userId, String serverId) {
-        return isActiveUser(userId)
-                .flatMap(isActive -> {
-                    if (!isActive) return valueOperations.setIfAbsent(getActiveUserRedisKey(userId), serverId);
-                    return valueOperations.getAndSet(getActiveUserRedisKey(userId), serverId)
-                            .map(pastServerId -> isSameServerDestination(serverId, pastServerId))
-                            .filter(Boolean.FALSE::equals)
-                            .flatMap(ignored -> moveToOtherServer(userId))
-                            .thenReturn(true);
-                });
+        return valueOperations.getAndSet(getActiveUserRedisKey(userId), serverId)
+                .doOnSuccess(pastServerId -> updateLocalServerId(userId, serverId, pastServerId))
+                .doOnError(ignored -> activeServerIds.remove(userId))
+                .map(pastServerId -> isSameServerDestination(serverId, pastServerId))
+                .filter(Boolean.FALSE::equals)
+                .flatMap(ignored -> moveToOtherServer(userId))
+                .thenReturn(true);
+    }
+
+    // 이전 값이 로컬 값과 다르면 그 사이 다른 노드가 바인딩을 가져간 것이므로 로컬 값을 믿지 않고 지움
+    private void updateLocalServerId(String userId, String serverId, String pastServerId) {
+        String localServerId = activeServerIds.get(userId);
+        if (localServerId != null && !Objects.equals(localServerId, pastServerId)) {
+            log.warn("Active server of user {} was changed by another node : {} -> {}", userId, localServerId, pastServerId);
+            activeServerIds.remove(userId);
+            return;
+        }
+        activeServerIds.put(userId, serverId);
     }
 
     private Mono<Void> moveToOtherServer(String userId) {
@@ -52,12 +70,15 @@ public class ActiveUserManager {
 
     // 로그아웃
     public Mono<String> removeUserActiveFromRedis(String userId) {
+        activeServerIds.remove(userId);
         return valueOperations.getAndDelete(getActiveUserRedisKey(userId));
     }
 
-    // 채널 입장
+    // 채널 입장 (로컬에 없으면 Redis 에서 읽어서 채움)
     public Mono<String> isCorrectAccess(String userId, Long serverId) {
-        return valueOperations.get(getActiveUserRedisKey(userId))
+        return Mono.justOrEmpty(activeServerIds.get(userId))
+                .switchIfEmpty(Mono.defer(() -> valueOperations.get(getActiveUserRedisKey(userId))
+                        .doOnNext(currentServerId -> activeServerIds.putIfAbsent(userId, currentServerId))))
                 .filter(currentServerId -> Objects.equals(currentServerId, String.valueOf(serverId)))
                 .switchIfEmpty(Mono.error(new WrongAccessException(ErrorCode.WRONG_ACCESS_INACTIVE_SERVER, String.valueOf(serverId))));
     }
@@ -66,10 +87,6 @@ public class ActiveUserManager {
         return Long.parseLong(serverId) == Long.parseLong(pastServerId);
     }
 
-    private Mono<Boolean> isActiveUser(String userId) {
-        return valueOperations.get(getActiveUserRedisKey(userId)).hasElement();
-    }
-
     private String getActiveUserRedisKey(String userId) {
         return String.format("user:active:%s", userId);
     }
@@ -0,0 +1,41 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.properties.ServerProperties;
+import com.example.pitching.call.operation.Event;
+import com.example.pitching.call.operation.Frame;
+import com.example.pitching.call.operation.code.ResponseOperation;
+import com.example.pitching.call.operation.response.HelloResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 내용이 바뀌지 않는 응답(HEARTBEAT_ACK, INIT_ACK)을 시작 시점에 한 번만 직렬화해서 보관
+ */
+@Slf4j
+@Component
+public class ConstantFrameRegistry {
+    private final Map<ResponseOperation, Frame> constantFrames = new EnumMap<>(ResponseOperation.class);
+
+    public ConstantFrameRegistry(ServerProperties serverProperties, ConvertService convertService) {
+        register(convertService, Event.of(ResponseOperation.HEARTBEAT_ACK, null, null));
+        register(convertService, Event.of(ResponseOperation.INIT_ACK,
+                HelloResponse.of(serverProperties.getHeartbeatInterval()), null));
+    }
+
+    public Frame get(ResponseOperation responseOperation) {
+        Frame frame = constantFrames.get(responseOperation);
+        if (frame == null) {
+            throw new IllegalArgumentException("Not a constant frame: " + responseOperation);
+        }
+        return frame;
+    }
+
+    private void register(ConvertService convertService, Event event) {
+        Frame frame = convertService.convertObjectToFrame(event);
+        constantFrames.put((ResponseOperation) event.operation(), frame);
+        log.debug("Register constant frame : {}", frame);
+    }
+}
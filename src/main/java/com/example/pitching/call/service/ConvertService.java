@@ -1,21 +1,38 @@
 package com.example.pitching.call.service;
 
 import com.example.pitching.call.dto.VoiceState;
+import com.example.pitching.call.exception.ErrorCode;
+import com.example.pitching.call.exception.InvalidValueException;
 import com.example.pitching.call.operation.Data;
-import com.example.pitching.call.operation.Event;
+import com.example.pitching.call.operation.Frame;
+import com.example.pitching.call.operation.Request;
 import com.example.pitching.call.operation.code.RequestOperation;
 import com.example.pitching.call.operation.code.ResponseOperation;
-import com.example.pitching.call.operation.response.ChannelEnterResponse;
-import com.example.pitching.call.operation.response.ChannelLeaveResponse;
-import com.example.pitching.call.operation.response.StateResponse;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 public class ConvertService {
+    private static final byte[] OP_PREFIX = "{\"op\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DATA_PREFIX = ",\"data\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SEQUENCE_PREFIX = ",\"seq\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FRAME_SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+    private static final Set<ResponseOperation> SERVER_EVENT_OPERATIONS = EnumSet.of(
+            ResponseOperation.ENTER_CHANNEL_EVENT, ResponseOperation.LEAVE_CHANNEL_EVENT, ResponseOperation.UPDATE_STATE_EVENT);
     private final ObjectMapper objectMapper;
 
     public String convertObjectToJson(Object object) {
@@ -26,6 +43,14 @@ public class ConvertService {
         }
     }
 
+    public Frame convertObjectToFrame(Object object) {
+        try {
+            return Frame.of(objectMapper.writeValueAsBytes(object));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public <T> T convertJsonToObject(String jsonMessage, Class<T> targetClass) {
         try {
             return objectMapper.readValue(jsonMessage, targetClass);
@@ -42,50 +67,96 @@ public class ConvertService {
         }
     }
 
-    public Mono<Event> convertJsonToEventWithSequence(String sequence, String jsonMessage) {
-        return readResponseOperationFromMessage(jsonMessage)
-                .flatMap(responseOperation -> {
-                    if (responseOperation == ResponseOperation.ENTER_CHANNEL_EVENT) {
-                        return createResponseWithSequence(responseOperation, jsonMessage, ChannelEnterResponse.class, sequence);
-                    }
-                    if (responseOperation == ResponseOperation.LEAVE_CHANNEL_EVENT) {
-                        return createResponseWithSequence(responseOperation, jsonMessage, ChannelLeaveResponse.class, sequence);
-                    }
-                    if (responseOperation == ResponseOperation.UPDATE_STATE_EVENT) {
-                        return createResponseWithSequence(responseOperation, jsonMessage, StateResponse.class, sequence);
-                    } else {
-                        return Mono.error(new RuntimeException("Unsupported response operation: " + responseOperation));
-                    }
-                });
-    }
-
-    public Mono<RequestOperation> readRequestOperationFromMessage(String jsonMessage) {
-        try {
-            RequestOperation requestOperation = RequestOperation.from(objectMapper.readTree(jsonMessage).get("op").asInt());
-            return Mono.just(requestOperation);
-        } catch (Exception e) {
-            return Mono.error(e);
+    /**
+     * @param operation 스트림에 저장된 op 코드
+     * @param jsonData  스트림에 저장된 직렬화된 data
+     * @param sequence  스트림 레코드 ID
+     * @param coalesceKey 최신 이벤트로 대체 가능한 경우의 key (없으면 null)
+     * @return frame
+     * 이미 직렬화된 data 에 seq 만 이어 붙여서 Event 와 같은 형태의 프레임을 만든다 (파싱/재직렬화 없음)
+     * 서버 이벤트 하나당 한 번만 UTF-8 로 인코딩하고, 구독자들은 같은 버퍼를 공유한다
+     */
+    public Frame convertStreamMessageToFrame(String operation, String jsonData, String sequence, String coalesceKey) {
+        byte[] encodedOperation = operation.getBytes(StandardCharsets.US_ASCII);
+        byte[] encodedData = jsonData.getBytes(StandardCharsets.UTF_8);
+        byte[] encodedSequence = sequence.getBytes(StandardCharsets.US_ASCII);
+        byte[] frame = new byte[OP_PREFIX.length + encodedOperation.length + DATA_PREFIX.length + encodedData.length
+                + SEQUENCE_PREFIX.length + encodedSequence.length + FRAME_SUFFIX.length];
+        int position = 0;
+        for (byte[] part : new byte[][]{OP_PREFIX, encodedOperation, DATA_PREFIX, encodedData, SEQUENCE_PREFIX, encodedSequence, FRAME_SUFFIX}) {
+            System.arraycopy(part, 0, frame, position, part.length);
+            position += part.length;
         }
+        return Frame.of(frame, coalesceKey);
     }
 
-    public <T extends Data> T readDataFromMessage(String jsonMessage, Class<T> dataClass) {
+    /**
+     * @param legacyMessage op/data 필드로 나뉘기 전에 message 필드 하나에 저장된 Event JSON
+     * @param sequence      스트림 레코드 ID
+     * @return frame
+     * 이전 형식 레코드 전용, op 와 data 만 꺼내서 convertStreamMessageToFrame 과 같은 방식으로 seq 를 붙인다 (data 타입으로 역직렬화하지 않음)
+     */
+    public Frame convertLegacyStreamMessageToFrame(String legacyMessage, String sequence) {
         try {
-            return objectMapper.readValue(objectMapper.readTree(jsonMessage).get("data").toString(), dataClass);
-        } catch (Exception e) {
+            JsonNode message = objectMapper.readTree(legacyMessage);
+            ResponseOperation responseOperation = ResponseOperation.from(message.get("op").asInt());
+            if (!SERVER_EVENT_OPERATIONS.contains(responseOperation)) {
+                throw new IllegalArgumentException("Unsupported response operation: " + responseOperation);
+            }
+            return convertStreamMessageToFrame(String.valueOf(responseOperation.getCode()), message.get("data").toString(), sequence, null);
+        } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private Mono<ResponseOperation> readResponseOperationFromMessage(String jsonMessage) {
-        try {
-            ResponseOperation responseOperation = ResponseOperation.from(objectMapper.readTree(jsonMessage).get("op").asInt());
-            return Mono.just(responseOperation);
+    /**
+     * @param jsonMessage
+     * @return request
+     * op 와 data 를 한 번의 스트리밍 파싱으로 읽고, data 는 op 에 해당하는 Request 타입으로 바로 역직렬화
+     * data 가 op 보다 먼저 오는 경우에만 트리로 버퍼링 후 변환
+     */
+    public Mono<Request> readRequestFromMessage(String jsonMessage) {
+        try (JsonParser parser = objectMapper.createParser(jsonMessage)) {
+            return Mono.just(decodeRequest(parser));
         } catch (Exception e) {
             return Mono.error(e);
         }
     }
 
-    private <T extends Data> Mono<Event> createResponseWithSequence(ResponseOperation responseOperation, String jsonMessage, Class<T> dataClass, String sequence) {
-        return Mono.just(Event.of(responseOperation, readDataFromMessage(jsonMessage, dataClass), sequence));
+    private Request decodeRequest(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Request message must be a JSON object");
+        }
+        RequestOperation requestOperation = null;
+        Data data = null;
+        TreeNode bufferedData = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            if ("op".equals(fieldName)) {
+                requestOperation = RequestOperation.from(parser.getValueAsInt());
+            } else if ("data".equals(fieldName) && requestOperation != null) {
+                data = readData(parser, requestOperation);
+            } else if ("data".equals(fieldName)) {
+                bufferedData = parser.readValueAsTree();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (requestOperation == null) {
+            throw new InvalidValueException(ErrorCode.INVALID_REQUEST_OPERATION, "null");
+        }
+        if (bufferedData != null && requestOperation.getDataType() != null) {
+            data = objectMapper.treeToValue(bufferedData, requestOperation.getDataType());
+        }
+        return Request.of(requestOperation, data);
+    }
+
+    private Data readData(JsonParser parser, RequestOperation requestOperation) throws IOException {
+        if (requestOperation.getDataType() == null || parser.currentToken() == JsonToken.VALUE_NULL) {
+            parser.skipChildren();
+            return null;
+        }
+        return objectMapper.readValue(parser, requestOperation.getDataType());
     }
 }
@@ -0,0 +1,161 @@
+package com.example.pitching.call.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.kurento.client.KurentoClient;
+import org.kurento.client.KurentoConnectionListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * KMS 하나에 대한 연결과 부하 (살아있는 pipeline, endpoint 수)
+ * 연결이 끊기면 drained 로 표시해서 새 Room 을 배치하지 않는다
+ * 처음 연결에 실패한 KMS 는 연결되지 않은 상태로 남고, KmsPool 이 reconnect 로 다시 연결한다
+ */
+@Slf4j
+public class KmsInstance implements KurentoConnectionListener {
+    @Getter
+    private final String url;
+    private final AtomicInteger pipelines = new AtomicInteger();
+    private final AtomicInteger endpoints = new AtomicInteger();
+    // 다른 KMS 로 재연결될 때마다 증가 (이전 generation 에 만든 pipeline 은 사라짐)
+    private final AtomicInteger generation = new AtomicInteger();
+    private final Function<KurentoConnectionListener, KurentoClient> connector;
+    private volatile KurentoClient client;
+    private volatile boolean drained;
+
+    private KmsInstance(String url, Function<KurentoConnectionListener, KurentoClient> connector) {
+        this.url = url;
+        this.connector = connector;
+    }
+
+    /**
+     * @return 연결할 수 없으면 연결되지 않은 KmsInstance
+     */
+    public static KmsInstance connect(String url) {
+        return connect(url, listener -> KurentoClient.create(url, listener));
+    }
+
+    static KmsInstance connect(String url, Function<KurentoConnectionListener, KurentoClient> connector) {
+        KmsInstance kmsInstance = new KmsInstance(url, connector);
+        kmsInstance.reconnect();
+        return kmsInstance;
+    }
+
+    public static KmsInstance of(String url, KurentoClient client) {
+        KmsInstance kmsInstance = new KmsInstance(url, listener -> client);
+        kmsInstance.client = client;
+        return kmsInstance;
+    }
+
+    public KurentoClient getClient() {
+        return client;
+    }
+
+    public boolean isHealthy() {
+        return client != null && !drained;
+    }
+
+    public boolean isConnected() {
+        return client != null;
+    }
+
+    public int getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * 아직 연결되지 않은 KMS 에 연결 (한 번 연결된 뒤의 재연결은 KurentoClient 가 처리)
+     *
+     * @return 연결되어 있으면 true
+     */
+    public synchronized boolean reconnect() {
+        if (client != null) return true;
+        try {
+            client = connector.apply(this);
+            log.info("KMS connected : {}", url);
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not connect to KMS {} : {}", url, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return pipeline 도 최소 하나의 미디어 처리 단위로 계산
+     */
+    public int getLoad() {
+        return pipelines.get() + endpoints.get();
+    }
+
+    public int getPipelines() {
+        return pipelines.get();
+    }
+
+    public int getEndpoints() {
+        return endpoints.get();
+    }
+
+    public void pipelineCreated() {
+        pipelines.incrementAndGet();
+    }
+
+    /**
+     * pipeline 과 함께 해제된 endpoint 는 각 endpoint 를 해제할 때 따로 뺀다
+     */
+    public void pipelineReleased() {
+        pipelines.decrementAndGet();
+    }
+
+    public void endpointCreated() {
+        endpoints.incrementAndGet();
+    }
+
+    public void endpointReleased() {
+        endpoints.decrementAndGet();
+    }
+
+    public void drain() {
+        drained = true;
+    }
+
+    public void destroy() {
+        if (client != null) client.destroy();
+    }
+
+    @Override
+    public void connected() {
+        drained = false;
+        log.info("KMS connected : {}", url);
+    }
+
+    @Override
+    public void connectionFailed() {
+        drained = true;
+        log.error("KMS connection failed, drained : {}", url);
+    }
+
+    @Override
+    public void disconnected() {
+        drained = true;
+        log.error("KMS disconnected, drained : {}", url);
+    }
+
+    @Override
+    public void reconnected(boolean sameServer) {
+        drained = false;
+        // 다른 KMS 로 재연결되면 기존 pipeline 은 사라졌으므로 해당 Room 은 다음 입장 때 다시 만들어야 함
+        if (!sameServer) {
+            generation.incrementAndGet();
+            log.warn("KMS reconnected to a different server, existing rooms are lost : {}", url);
+        }
+        log.info("KMS reconnected : {}", url);
+    }
+
+    @Override
+    public String toString() {
+        return url + "(pipelines=" + pipelines.get() + ", endpoints=" + endpoints.get() + ", connected=" + isConnected()
+                + ", drained=" + drained + ")";
+    }
+}
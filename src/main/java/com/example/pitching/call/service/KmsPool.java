@@ -0,0 +1,86 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.properties.KmsProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 여러 KMS 연결을 관리하고 새 Room 을 부하가 가장 적은 정상 KMS 에 배치
+ * 이미 만들어진 Room 은 처음 배치된 KMS 를 계속 사용한다 (RoomManager)
+ * 시작할 때 연결할 수 없는 KMS 도 풀에 남겨두고 reconnectInterval 마다 다시 연결한다
+ */
+@Slf4j
+@Component
+public class KmsPool {
+    private final List<KmsInstance> instances;
+    private final Disposable reconnecting;
+
+    @Autowired
+    public KmsPool(KmsProperties kmsProperties) {
+        // 연결 시도는 블로킹이므로 boundedElastic 에서 실행
+        this(connectAll(kmsProperties.getUrls()), kmsProperties.reconnectInterval(), Schedulers.boundedElastic());
+    }
+
+    KmsPool(List<KmsInstance> instances) {
+        this.instances = List.copyOf(instances);
+        this.reconnecting = Disposables.disposed();
+    }
+
+    KmsPool(List<KmsInstance> instances, Duration reconnectInterval, Scheduler scheduler) {
+        this.instances = List.copyOf(instances);
+        this.reconnecting = Flux.interval(reconnectInterval, scheduler)
+                .subscribe(ignored -> reconnectUnavailable());
+    }
+
+    public static KmsPool of(List<KmsInstance> instances) {
+        return new KmsPool(instances);
+    }
+
+    /**
+     * @return 살아있는 pipeline + endpoint 수가 가장 적은 정상 KMS
+     */
+    public Mono<KmsInstance> select() {
+        return Mono.defer(() -> instances.stream()
+                .filter(KmsInstance::isHealthy)
+                .min(Comparator.comparingInt(KmsInstance::getLoad))
+                .map(Mono::just)
+                .orElseGet(() -> Mono.error(new IllegalStateException("No healthy KMS available : " + instances))));
+    }
+
+    public List<KmsInstance> getInstances() {
+        return instances;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        reconnecting.dispose();
+        instances.forEach(KmsInstance::destroy);
+    }
+
+    private void reconnectUnavailable() {
+        instances.stream()
+                .filter(kms -> !kms.isConnected())
+                .forEach(KmsInstance::reconnect);
+    }
+
+    // 연결할 수 없는 KMS 는 연결되지 않은 상태로 풀에 넣음 (모두 연결할 수 없어도 시작하고, 연결되면 Room 을 배치)
+    private static List<KmsInstance> connectAll(List<String> urls) {
+        List<KmsInstance> instances = urls.stream().map(KmsInstance::connect).toList();
+        if (instances.stream().noneMatch(KmsInstance::isConnected)) {
+            log.error("Could not connect to any KMS, will retry : {}", urls);
+        }
+        return instances;
+    }
+}
@@ -1,41 +1,228 @@
 package com.example.pitching.call.service;
 
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.dto.properties.EndpointPoolProperties;
+import com.example.pitching.call.dto.properties.IceCandidateBatchProperties;
+import com.example.pitching.call.dto.properties.RoomProperties;
+import com.example.pitching.call.operation.EndpointPool;
+import com.example.pitching.call.operation.KurentoMono;
 import com.example.pitching.call.operation.Room;
-import lombok.RequiredArgsConstructor;
+import com.example.pitching.call.operation.UserSession;
+import com.example.pitching.call.operation.UserSink;
 import lombok.extern.slf4j.Slf4j;
-import org.kurento.client.KurentoClient;
+import org.kurento.client.MediaPipeline;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+/**
+ * 채널별 Room(MediaPipeline) 의 생성과 해제
+ * 참조 수 = 참여자 수 + 진행 중인 입장 수, 모든 변경은 rooms.compute 안에서만 한다
+ * 참조가 0 이 되면 바로 해제하지 않고 grace period 뒤에 해제해서, 바로 다시 들어오면 pipeline 을 재사용한다
+ * pipeline 은 채널마다 한 번만 비동기로 생성하고, 동시에 입장한 요청은 같은 Mono 를 기다린다
+ * 새 Room 은 KmsPool 이 고른 KMS 에 만들고, Room 이 해제될 때까지 그 KMS 를 사용한다
+ * 그 KMS 가 끊겼거나 drain 중이거나 다른 서버로 재연결되었으면 다음 입장 때 Room 을 닫고 다른 KMS 에 다시 만든다
+ * 닫은 Room 의 참여자는 미디어가 끊겼으므로 웹소켓을 SERVICE_RESTARTED 로 닫아서 다시 연결하고 입장하도록 한다
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class RoomManager {
-    private final KurentoClient kurento;
-    private final ConcurrentMap<Long, Room> rooms = new ConcurrentHashMap<>();
-
-    public Room getRoom(Long channelId) {
-        Room room = rooms.get(channelId);
-
-        if (room == null) {
-            room = Room.of(channelId, kurento.createMediaPipeline());
-            log.info("Room {} not existent. Will create now! : {}", channelId, room.getPipeline().getId());
-            rooms.put(channelId, room);
-        } else {
-            log.info("Room {} found! : {}", channelId, room.getPipeline().getId());
+    private final ConcurrentMap<Long, RoomEntry> rooms = new ConcurrentHashMap<>();
+    private final KmsPool kmsPool;
+    private final RoomProperties roomProperties;
+    private final EndpointPoolProperties endpointPoolProperties;
+    private final Scheduler scheduler;
+
+    @Autowired
+    public RoomManager(KmsPool kmsPool, RoomProperties roomProperties, EndpointPoolProperties endpointPoolProperties) {
+        this(kmsPool, roomProperties, endpointPoolProperties, Schedulers.parallel());
+    }
+
+    RoomManager(KmsPool kmsPool, RoomProperties roomProperties, EndpointPoolProperties endpointPoolProperties,
+                Scheduler scheduler) {
+        this.kmsPool = kmsPool;
+        this.roomProperties = roomProperties;
+        this.endpointPoolProperties = endpointPoolProperties;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param channelType Room 을 새로 만들 때 COMPOSITE 모드로 전환할 수 있는지 판단하는 데 사용
+     */
+    public Mono<UserSession> join(Long channelId, ChannelType channelType, String userId, WebSocketSession session,
+                                  UserSink outbound, IceCandidateBatchProperties candidateBatch, ConvertService convertService) {
+        return Mono.defer(() -> {
+            List<UserSession> evicted = new ArrayList<>();
+            RoomEntry roomEntry = acquire(channelId, channelType, evicted);
+            // 세션 종료 처리가 leave 로 rooms 를 다시 변경하므로 compute 밖에서 닫음
+            evicted.forEach(this::disconnectEvicted);
+            return roomEntry.room
+                    .flatMap(room -> room.join(userId, session, outbound, candidateBatch, convertService))
+                    .doFinally(ignored -> release(roomEntry));
+        });
+    }
+
+    public void leave(UserSession user) {
+        RoomEntry roomEntry = rooms.get(user.getChannelId());
+        if (roomEntry == null || roomEntry.resolved == null) {
+            log.warn("Room {} not found, maybe already released : {}", user.getChannelId(), user.getUserId());
+            return;
         }
-        return room;
+        roomEntry.resolved.leave(user);
+        rooms.computeIfPresent(roomEntry.channelId, (channelId, current) -> {
+            if (current == roomEntry) scheduleReleaseIfIdle(current);
+            return current;
+        });
     }
 
-    public void removeRoom(Room room) {
-        this.rooms.remove(room.getChannelId());
-        room.close();
-        log.info("Room {} removed and closed : {}", room.getChannelId(), room.getPipeline().getId());
+    /**
+     * @return 채널의 Room (없거나 아직 생성 중이면 null, 새로 만들지 않음)
+     */
+    public Room findRoom(Long channelId) {
+        RoomEntry roomEntry = rooms.get(channelId);
+        return roomEntry == null ? null : roomEntry.resolved;
     }
 
     public boolean doesRoomExists(Long channelId) {
         return rooms.containsKey(channelId);
     }
+
+    int size() {
+        return rooms.size();
+    }
+
+    private RoomEntry acquire(Long channelId, ChannelType channelType, List<UserSession> evicted) {
+        return rooms.compute(channelId, (id, roomEntry) -> {
+            if (roomEntry != null && roomEntry.isOnUnavailableKms()) {
+                log.warn("Room {} is on unavailable KMS {}, will rebuild", id, roomEntry.kms);
+                evicted.addAll(evict(roomEntry));
+                roomEntry = null;
+            }
+            if (roomEntry == null) {
+                log.info("Room {} not existent. Will create now!", id);
+                roomEntry = new RoomEntry(id, channelType);
+                roomEntry.room = createRoom(roomEntry);
+            }
+            roomEntry.pendingJoins++;
+            roomEntry.cancelScheduledRelease();
+            return roomEntry;
+        });
+    }
+
+    private Mono<Room> createRoom(RoomEntry roomEntry) {
+        return kmsPool.select()
+                .flatMap(kms -> KurentoMono.<MediaPipeline>from(kms.getClient()::createMediaPipeline)
+                        .map(pipeline -> {
+                            kms.pipelineCreated();
+                            roomEntry.kmsGeneration = kms.getGeneration();
+                            roomEntry.kms = kms;
+                            log.info("Room {} placed on KMS {}", roomEntry.channelId, kms);
+                            return Room.of(roomEntry.channelId, roomEntry.channelType, pipeline,
+                                    EndpointPool.of(pipeline, endpointPoolProperties, kms), roomProperties.compositeThreshold(), kms);
+                        }))
+                .doOnNext(room -> {
+                    // 첫 입장자의 endpoint 생성과 함께 다음 입장자의 endpoint 를 미리 만듦
+                    room.getEndpointPool().warmUp();
+                    roomEntry.resolved = room;
+                    log.info("Room {} created : {}", roomEntry.channelId, room.getPipeline().getId());
+                })
+                .doOnError(e -> {
+                    // 다음 입장에서 다시 생성하도록 제거
+                    log.error("Room {} could not create pipeline : ", roomEntry.channelId, e);
+                    rooms.remove(roomEntry.channelId, roomEntry);
+                })
+                .cache();
+    }
+
+    private void release(RoomEntry roomEntry) {
+        rooms.computeIfPresent(roomEntry.channelId, (channelId, current) -> {
+            if (current != roomEntry) return current;
+            current.pendingJoins--;
+            scheduleReleaseIfIdle(current);
+            return current;
+        });
+    }
+
+    // rooms.compute 안에서만 호출
+    private void scheduleReleaseIfIdle(RoomEntry roomEntry) {
+        if (!roomEntry.isIdle() || roomEntry.scheduledRelease != null) return;
+        roomEntry.scheduledRelease = Mono.delay(roomProperties.releaseGracePeriod(), scheduler)
+                .subscribe(ignored -> closeIfIdle(roomEntry));
+        log.debug("Room {} is empty, release after {}", roomEntry.channelId, roomProperties.releaseGracePeriod());
+    }
+
+    /**
+     * rooms.compute 안에서만 호출, 남아있는 참여자의 미디어는 이미 끊겼으므로 함께 닫음
+     *
+     * @return 닫힌 참여자
+     */
+    private List<UserSession> evict(RoomEntry roomEntry) {
+        roomEntry.cancelScheduledRelease();
+        List<UserSession> participants = List.copyOf(roomEntry.resolved.getParticipants());
+        roomEntry.resolved.close();
+        log.info("Room {} evicted from KMS {} : {}", roomEntry.channelId, roomEntry.kms, roomEntry.resolved.getPipeline().getId());
+        return participants;
+    }
+
+    private void disconnectEvicted(UserSession user) {
+        log.info("USER [{}]: media of room {} is lost, close session to rejoin : {}", user.getUserId(), user.getChannelId(), user.getSession().getId());
+        user.getSession().close(CloseStatus.SERVICE_RESTARTED)
+                .subscribe(null, e -> log.warn("USER [{}]: Could not close session", user.getUserId(), e));
+    }
+
+    private void closeIfIdle(RoomEntry roomEntry) {
+        rooms.computeIfPresent(roomEntry.channelId, (channelId, current) -> {
+            if (current != roomEntry) return current;
+            current.scheduledRelease = null;
+            if (!current.isIdle()) return current;
+            // 입장이 취소되어 pipeline 이 아직 생성 중이면 생성된 뒤에 해제
+            current.room.subscribe(room -> {
+                room.close();
+                log.info("Room {} removed and closed : {}", channelId, room.getPipeline().getId());
+            }, ignored -> {
+            });
+            return null;
+        });
+    }
+
+    private static final class RoomEntry {
+        private final Long channelId;
+        private final ChannelType channelType;
+        private Mono<Room> room;
+        private volatile Room resolved;
+        // resolved 보다 먼저 설정됨
+        private volatile KmsInstance kms;
+        private volatile int kmsGeneration;
+        private int pendingJoins;
+        private Disposable scheduledRelease;
+
+        private RoomEntry(Long channelId, ChannelType channelType) {
+            this.channelId = channelId;
+            this.channelType = channelType;
+        }
+
+        private boolean isIdle() {
+            return pendingJoins == 0 && (resolved == null || resolved.getParticipants().isEmpty());
+        }
+
+        private boolean isOnUnavailableKms() {
+            return resolved != null && (!kms.isHealthy() || kms.getGeneration() != kmsGeneration);
+        }
+
+        private void cancelScheduledRelease() {
+            if (scheduledRelease == null) return;
+            scheduledRelease.dispose();
+            scheduledRelease = null;
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.StreamRecord;
+import com.example.pitching.call.dto.properties.StateCoalescingProperties;
+import com.example.pitching.call.operation.Data;
+import com.example.pitching.call.operation.code.ResponseOperation;
+import com.example.pitching.call.operation.response.StateResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 서버 이벤트를 server:%d:events 스트림에 올리기 전 단계
+ * window 안에 들어온 같은 유저의 UPDATE_STATE 는 마지막 상태 하나만 스트림에 올린다
+ * ENTER/LEAVE 는 해당 유저의 대기 중인 상태 변경을 먼저 올린 뒤에 올려서 순서를 보장한다
+ */
+@Slf4j
+@Component
+public class ServerEventPublisher {
+    private final Map<StateKey, PendingState> pendingStates = new ConcurrentHashMap<>();
+    private final ServerStreamManager serverStreamManager;
+    private final StateCoalescingProperties stateCoalescingProperties;
+    private final Scheduler scheduler;
+
+    @Autowired
+    public ServerEventPublisher(ServerStreamManager serverStreamManager, StateCoalescingProperties stateCoalescingProperties) {
+        this(serverStreamManager, stateCoalescingProperties, Schedulers.parallel());
+    }
+
+    ServerEventPublisher(ServerStreamManager serverStreamManager, StateCoalescingProperties stateCoalescingProperties, Scheduler scheduler) {
+        this.serverStreamManager = serverStreamManager;
+        this.stateCoalescingProperties = stateCoalescingProperties;
+        this.scheduler = scheduler;
+    }
+
+    public Mono<Void> publish(Long serverId, String userId, ResponseOperation responseOperation, Data data) {
+        if (stateCoalescingProperties.isEnabled() && data instanceof StateResponse stateResponse) {
+            return Mono.fromRunnable(() -> coalesce(new StateKey(serverId, userId), stateResponse));
+        }
+        return publish(serverId, userId, responseOperation, data, serverStreamManager::addToStream).then();
+    }
+
+    /**
+     * @param streamWriter 스트림 레코드를 받아서 XADD 하는 쓰기 작업 (voice state 변경과 XADD 를 한 스크립트로 묶을 때 사용)
+     * @return streamWriter 의 결과
+     * 해당 유저의 대기 중인 상태 변경을 먼저 올린 뒤에 streamWriter 를 실행
+     */
+    public <T> Mono<T> publish(Long serverId, String userId, ResponseOperation responseOperation, Data data,
+                               Function<StreamRecord, Mono<T>> streamWriter) {
+        StreamRecord streamRecord = serverStreamManager.createStreamRecord(serverId, responseOperation, data);
+        if (!stateCoalescingProperties.isEnabled()) {
+            return streamWriter.apply(streamRecord);
+        }
+        return flush(new StateKey(serverId, userId))
+                .then(Mono.defer(() -> streamWriter.apply(streamRecord)));
+    }
+
+    private void coalesce(StateKey stateKey, StateResponse stateResponse) {
+        pendingStates.compute(stateKey, (key, pendingState) -> {
+            if (pendingState != null && !pendingState.isFlushing()) {
+                pendingState.latest = stateResponse;
+                return pendingState;
+            }
+            // 이미 스트림에 올리는 중인 상태가 있으면 그 뒤에 이어서 올림
+            PendingState newPendingState = new PendingState(stateResponse,
+                    pendingState == null ? Mono.empty() : pendingState.published);
+            Mono.delay(stateCoalescingProperties.window(), scheduler)
+                    .then(flush(key))
+                    .subscribe(null, e -> log.error("Failed to publish coalesced state of {} : ", key, e));
+            return newPendingState;
+        });
+    }
+
+    private Mono<Void> flush(StateKey stateKey) {
+        return Mono.defer(() -> {
+            PendingState pendingState = pendingStates.computeIfPresent(stateKey, (key, state) -> state.startFlush(this, key));
+            if (pendingState == null) return Mono.empty();
+            return pendingState.published
+                    .doFinally(ignored -> pendingStates.remove(stateKey, pendingState));
+        });
+    }
+
+    private Mono<Void> addStateToStream(StateKey stateKey, StateResponse stateResponse) {
+        return serverStreamManager.addVoiceMessageToStream(stateKey.serverId(), ResponseOperation.UPDATE_STATE_EVENT, stateResponse)
+                .doOnNext(sequence -> log.debug("Publish coalesced state of {} : {}", stateKey, sequence))
+                .then();
+    }
+
+    private record StateKey(Long serverId, String userId) {
+    }
+
+    private static final class PendingState {
+        private final Mono<Void> previous;
+        private StateResponse latest;
+        private Mono<Void> published;
+
+        private PendingState(StateResponse latest, Mono<Void> previous) {
+            this.latest = latest;
+            this.previous = previous;
+        }
+
+        private boolean isFlushing() {
+            return published != null;
+        }
+
+        // pendingStates.compute 안에서만 호출
+        private PendingState startFlush(ServerEventPublisher publisher, StateKey stateKey) {
+            if (published == null) {
+                StateResponse stateResponse = latest;
+                published = previous
+                        .onErrorResume(ignored -> Mono.empty())
+                        .then(Mono.defer(() -> publisher.addStateToStream(stateKey, stateResponse)))
+                        .cache();
+            }
+            return this;
+        }
+    }
+}
@@ -1,109 +1,139 @@
 package com.example.pitching.call.service;
 
 import com.example.pitching.call.config.RedisConfig;
+import com.example.pitching.call.dto.StreamRecord;
+import com.example.pitching.call.operation.Data;
+import com.example.pitching.call.operation.Frame;
+import com.example.pitching.call.operation.code.ResponseOperation;
+import com.example.pitching.call.operation.response.StateResponse;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.StreamMessage;
 import io.lettuce.core.XAddArgs;
 import io.lettuce.core.api.reactive.RedisReactiveCommands;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
-import org.springframework.data.redis.connection.stream.MapRecord;
-import org.springframework.data.redis.connection.stream.ReadOffset;
-import org.springframework.data.redis.connection.stream.StreamOffset;
-import org.springframework.data.redis.stream.StreamReceiver;
 import org.springframework.stereotype.Component;
-import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
 
-import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 @Slf4j
 @Component
 public class ServerStreamManager {
-    private final Map<Long, Sinks.Many<String>> serverSinkMap = new ConcurrentHashMap<>();
-    private final Map<Long, Disposable> serverStream = new ConcurrentHashMap<>();
-    private final StreamReceiver<String, MapRecord<String, String, String>> streamReceiver;
+    private static final int STREAM_READ_BATCH_SIZE = 100;
+    private static final String OPERATION_FIELD = "op";
+    private static final String DATA_FIELD = "data";
+    private static final String COALESCE_KEY_FIELD = "coalesce_key";
+    private static final String LEGACY_MESSAGE_FIELD = "message";
+    private final Map<Long, ServerSink> serverSinkMap = new ConcurrentHashMap<>();
+    private final List<ServerStreamShard> shards;
     private final ConvertService convertService;
     private final RedisReactiveCommands<String, String> redisCommands;
     private final RedisConfig.RedisProperties redisProperties;
 
     public ServerStreamManager(ConvertService convertService,
-                               ReactiveRedisConnectionFactory redisConnectionFactory,
+                               RedisClient redisClient,
                                RedisReactiveCommands<String, String> redisCommands,
                                RedisConfig.RedisProperties redisProperties) {
         this.convertService = convertService;
         this.redisCommands = redisCommands;
         this.redisProperties = redisProperties;
+        this.shards = IntStream.range(0, redisProperties.streamShards())
+                .mapToObj(shardId -> new ServerStreamShard(
+                        shardId,
+                        redisClient.connect(),
+                        redisCommands,
+                        redisProperties.streamPollTimeout(),
+                        STREAM_READ_BATCH_SIZE,
+                        this::getServerStreamRedisKey,
+                        this::onStreamMessage))
+                .toList();
+        log.info("Server stream shards : {}", shards.size());
+    }
 
-        var options = StreamReceiver.StreamReceiverOptions.builder()
-                .pollTimeout(Duration.ofMillis(100L))
-                .build();
-
-        streamReceiver = StreamReceiver.create(redisConnectionFactory, options);
+    public Mono<String> addVoiceMessageToStream(Long serverId, ResponseOperation responseOperation, Data data) {
+        return addToStream(createStreamRecord(serverId, responseOperation, data));
     }
 
-    public Mono<String> addVoiceMessageToStream(Long serverId, String message) {
-        XAddArgs xAddArgs = new XAddArgs().maxlen(redisProperties.maxlen()).approximateTrimming(true);
+    public Mono<String> addToStream(StreamRecord streamRecord) {
+        XAddArgs xAddArgs = new XAddArgs().maxlen(streamRecord.maxlen()).approximateTrimming(true);
         return redisCommands
-                .xadd(getServerStreamRedisKey(serverId), xAddArgs, Map.of("message", message));
+                .xadd(streamRecord.key(), xAddArgs, streamRecord.fields());
+    }
+
+    /**
+     * op 와 직렬화된 data 를 별도 필드로 저장해서, 읽을 때 다시 파싱하지 않고 seq 만 붙여서 내보낸다
+     * UPDATE_STATE 는 user_id 를 coalesce key 로 함께 저장 (느린 구독자의 큐에서 최신 상태로 대체)
+     */
+    public StreamRecord createStreamRecord(Long serverId, ResponseOperation responseOperation, Data data) {
+        Map<String, String> fields = new LinkedHashMap<>(4);
+        fields.put(OPERATION_FIELD, String.valueOf(responseOperation.getCode()));
+        fields.put(DATA_FIELD, convertService.convertObjectToJson(data));
+        if (data instanceof StateResponse stateResponse) {
+            fields.put(COALESCE_KEY_FIELD, stateResponse.userId());
+        }
+        return StreamRecord.of(getServerStreamRedisKey(serverId), redisProperties.maxlen(), fields);
+    }
+
+    /**
+     * 노드에 해당 서버의 첫 구독자가 생기면 shard 에 스트림을 등록하고, 마지막 구독자가 나가면 해제
+     * 구독자 수는 서버 단위로 ConcurrentHashMap.compute 안에서만 변경하므로 전역 락이 필요 없다
+     */
+    public Flux<Frame> getMessageFromServerSink(Long serverId) {
+        return Flux.defer(() -> acquireServerSink(serverId).asFlux())
+                .doFinally(ignored -> releaseServerSink(serverId));
     }
 
-    public Flux<String> getMessageFromServerSink(Long serverId) {
-        return Flux.defer(() -> {
-            synchronized (this) {
-                Sinks.Many<String> sink = serverSinkMap.get(serverId);
-                if (sink == null || sink.currentSubscriberCount() == 0) {
-                    registerServerStream(serverId);
-                    sink = serverSinkMap.get(serverId);
-                }
-                return sink.asFlux();
+    private Sinks.Many<Frame> acquireServerSink(Long serverId) {
+        return serverSinkMap.compute(serverId, (id, serverSink) -> {
+            if (serverSink == null) {
+                // autoCancel 을 끄지 않으면 구독자가 모두 없어질 때 sink 가 complete 됨
+                serverSink = new ServerSink(Sinks.many().multicast().onBackpressureBuffer(Queues.SMALL_BUFFER_SIZE, false));
+                getShard(id).add(id);
+                log.debug("Register server stream: {}", id);
             }
+            serverSink.subscribers++;
+            return serverSink;
+        }).sink;
+    }
+
+    private void releaseServerSink(Long serverId) {
+        serverSinkMap.computeIfPresent(serverId, (id, serverSink) -> {
+            if (--serverSink.subscribers > 0) return serverSink;
+            getShard(id).remove(id);
+            serverSink.sink.tryEmitComplete();
+            log.debug("Unregister server stream: {}", id);
+            return null;
         });
     }
 
-    private void registerServerStream(Long serverId) {
-        // 1. onBackpressureBuffer 로 설정했더니 구독자가 모두 없어지면 스트림이 complete 됨
-        // 2. directAllOrNothing 으로 설정했더니 구독자가 놓치는 경우가 생김
-        // 3. 다시 onBackpressureBuffer로 설정하고, complete 되면 다시 생성하도록 함
-
-        cleanupExistingResources(serverId);
-        Sinks.Many<String> sink = Sinks.many().multicast().onBackpressureBuffer();
-        serverSinkMap.put(serverId, sink);
-
-        var streamOffsetForVoice = StreamOffset.create(getServerStreamRedisKey(serverId), ReadOffset.lastConsumed());
-        Disposable subscription = streamReceiver.receive(streamOffsetForVoice)
-                .subscribe(record -> {
-                    String sequence = record.getId().getValue();
-                    String message = record.getValue().get("message");
-                    addSequenceBeforeEmit(serverId, sequence, message);
-                });
-        serverStream.put(serverId, subscription);
-        log.debug("Register server stream: {}", serverId);
+    private ServerStreamShard getShard(Long serverId) {
+        return shards.get(Math.floorMod(serverId.hashCode(), shards.size()));
     }
 
-    private void cleanupExistingResources(Long serverId) {
-        Disposable oldSubscription = serverStream.remove(serverId);
-        if (oldSubscription != null) {
-            oldSubscription.dispose();
-        }
-        Sinks.Many<String> oldSink = serverSinkMap.remove(serverId);
-        if (oldSink != null) {
-            oldSink.tryEmitComplete();
-        }
+    private void onStreamMessage(Long serverId, StreamMessage<String, String> streamMessage) {
+        Map<String, String> body = streamMessage.getBody();
+        // op/data 필드로 나뉘기 전에 message 필드 하나로 저장된 레코드
+        Frame serverEvent = body.containsKey(LEGACY_MESSAGE_FIELD)
+                ? convertService.convertLegacyStreamMessageToFrame(body.get(LEGACY_MESSAGE_FIELD), streamMessage.getId())
+                : convertService.convertStreamMessageToFrame(
+                        body.get(OPERATION_FIELD), body.get(DATA_FIELD), streamMessage.getId(), body.get(COALESCE_KEY_FIELD));
+        emitServerEvent(serverId, serverEvent);
     }
 
-    private void addSequenceBeforeEmit(Long serverId, String sequence, String jsonMessage) {
-        convertService.convertJsonToEventWithSequence(sequence, jsonMessage)
-                .doOnError(throwable -> log.error("Error occurred while converting json to event: ", throwable))
-                .subscribe(serverEvent -> {
-                    Sinks.Many<String> serverSink = serverSinkMap.get(serverId);
-                    serverSink.tryEmitNext(convertService.convertObjectToJson(serverEvent));
-                    log.debug("ServerEvent emitted to {}: {}", serverId, jsonMessage);
-                });
+    private void emitServerEvent(Long serverId, Frame serverEvent) {
+        ServerSink serverSink = serverSinkMap.get(serverId);
+        if (serverSink == null) return;
+        serverSink.sink.tryEmitNext(serverEvent);
+        log.debug("ServerEvent emitted to {}: {}", serverId, serverEvent);
     }
 
     private String getServerStreamRedisKey(Long serverId) {
@@ -113,12 +143,21 @@ public class ServerStreamManager {
     @EventListener(ContextClosedEvent.class)
     private void onShutdown() {
         log.info("Clean up server stream resources...");
-        serverStream.forEach((serverId, disposable) -> {
-            if (disposable != null && !disposable.isDisposed()) {
-                disposable.dispose();
-                log.info("Unregister server stream: {}", serverId);
-            }
+        shards.forEach(ServerStreamShard::dispose);
+        serverSinkMap.forEach((serverId, serverSink) -> {
+            serverSink.sink.tryEmitComplete();
+            log.info("Unregister server stream: {}", serverId);
         });
+        serverSinkMap.clear();
         log.info("Clean up server stream resources... Done");
     }
+
+    private static final class ServerSink {
+        private final Sinks.Many<Frame> sink;
+        private int subscribers;
+
+        private ServerSink(Sinks.Many<Frame> sink) {
+            this.sink = sink;
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.pitching.call.service;
+
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 여러 server:%d:events 스트림을 하나의 XREAD 로 읽는 reader loop
+ * XREAD BLOCK 은 커넥션을 점유하므로 shard 마다 전용 커넥션을 사용한다
+ */
+@Slf4j
+class ServerStreamShard {
+    // 마지막 ID 를 조회하는 중인 스트림 (XREAD 대상에서 제외)
+    private static final String PENDING_OFFSET = "";
+    private static final String EMPTY_STREAM_OFFSET = "0-0";
+
+    private final int shardId;
+    private final StatefulRedisConnection<String, String> connection;
+    private final RedisReactiveCommands<String, String> redisCommands;
+    private final Duration pollTimeout;
+    private final int batchSize;
+    private final Function<Long, String> streamKeyResolver;
+    private final BiConsumer<Long, StreamMessage<String, String>> messageConsumer;
+    private final Map<Long, String> offsets = new ConcurrentHashMap<>();
+    private final Map<String, Long> serverIdByStreamKey = new ConcurrentHashMap<>();
+    private final Disposable readLoop;
+
+    ServerStreamShard(int shardId,
+                      StatefulRedisConnection<String, String> connection,
+                      RedisReactiveCommands<String, String> redisCommands,
+                      Duration pollTimeout,
+                      int batchSize,
+                      Function<Long, String> streamKeyResolver,
+                      BiConsumer<Long, StreamMessage<String, String>> messageConsumer) {
+        this.shardId = shardId;
+        this.connection = connection;
+        this.redisCommands = redisCommands;
+        this.pollTimeout = pollTimeout;
+        this.batchSize = batchSize;
+        this.streamKeyResolver = streamKeyResolver;
+        this.messageConsumer = messageConsumer;
+        this.readLoop = Flux.defer(this::readStreams)
+                .repeat()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, pollTimeout).maxBackoff(Duration.ofSeconds(5))
+                        .doBeforeRetry(signal -> log.error("Shard {} read failed, retrying : ", shardId, signal.failure())))
+                .subscribe(this::dispatch, e -> log.error("Shard {} read loop terminated : ", shardId, e));
+    }
+
+    /**
+     * 스트림의 현재 마지막 ID 를 조회한 뒤부터 XREAD 대상에 포함한다
+     * "$" 를 쓰면 다른 스트림 때문에 XREAD 가 반환된 사이에 들어온 메시지를 놓칠 수 있다
+     */
+    void add(Long serverId) {
+        String streamKey = streamKeyResolver.apply(serverId);
+        if (offsets.putIfAbsent(serverId, PENDING_OFFSET) != null) return;
+        serverIdByStreamKey.put(streamKey, serverId);
+        redisCommands.xrevrange(streamKey, Range.create("-", "+"), Limit.from(1))
+                .next()
+                .map(StreamMessage::getId)
+                .defaultIfEmpty(EMPTY_STREAM_OFFSET)
+                .subscribe(lastId -> {
+                    offsets.replace(serverId, PENDING_OFFSET, lastId);
+                    log.debug("Shard {} registers server stream {} from {}", shardId, serverId, lastId);
+                }, e -> {
+                    log.error("Shard {} failed to resolve offset of server stream {} : ", shardId, serverId, e);
+                    remove(serverId);
+                });
+    }
+
+    void remove(Long serverId) {
+        offsets.remove(serverId);
+        serverIdByStreamKey.remove(streamKeyResolver.apply(serverId));
+        log.debug("Shard {} unregisters server stream {}", shardId, serverId);
+    }
+
+    int size() {
+        return offsets.size();
+    }
+
+    void dispose() {
+        readLoop.dispose();
+        connection.closeAsync();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Flux<StreamMessage<String, String>> readStreams() {
+        XReadArgs.StreamOffset<String>[] streamOffsets = offsets.entrySet().stream()
+                .filter(offset -> !PENDING_OFFSET.equals(offset.getValue()))
+                .map(offset -> XReadArgs.StreamOffset.from(streamKeyResolver.apply(offset.getKey()), offset.getValue()))
+                .toArray(XReadArgs.StreamOffset[]::new);
+        if (streamOffsets.length == 0) {
+            return Mono.delay(pollTimeout).thenMany(Flux.empty());
+        }
+        return connection.reactive()
+                .xread(XReadArgs.Builder.block(pollTimeout).count(batchSize), streamOffsets);
+    }
+
+    private void dispatch(StreamMessage<String, String> message) {
+        Long serverId = serverIdByStreamKey.get(message.getStream());
+        if (serverId == null) return;
+        // 등록이 해제된 스트림의 offset 은 다시 만들지 않음
+        if (offsets.computeIfPresent(serverId, (ignored, lastId) -> message.getId()) == null) return;
+        // 잘못된 레코드나 구독자 쪽 예외가 read loop 를 끝내지 않도록 레코드 단위로 처리 (offset 은 이미 넘어가서 다시 읽지 않음)
+        try {
+            messageConsumer.accept(serverId, message);
+        } catch (RuntimeException e) {
+            log.error("Shard {} failed to dispatch {} of server stream {} : ", shardId, message.getId(), serverId, e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.OverflowPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 노드 단위 UserSink 지표 (call.user-sink.*)
+ * queue.depth : 전송 대기 중인 서버 이벤트 수 / overflow : 정책별로 버리거나 대체한 이벤트 수
+ */
+@Component
+public class UserSinkMetrics {
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Map<OverflowPolicy, Counter> overflowCounters = new EnumMap<>(OverflowPolicy.class);
+
+    public UserSinkMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("call.user-sink.queue.depth", queueDepth, AtomicLong::get)
+                .description("Server events waiting to be sent to users connected to this node")
+                .register(meterRegistry);
+        for (OverflowPolicy overflowPolicy : OverflowPolicy.values()) {
+            overflowCounters.put(overflowPolicy, Counter.builder("call.user-sink.overflow")
+                    .description("Server events dropped, coalesced or disconnected because a user sink was full")
+                    .tag("policy", overflowPolicy.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void increaseDepth() {
+        queueDepth.incrementAndGet();
+    }
+
+    public void decreaseDepth(int count) {
+        queueDepth.addAndGet(-count);
+    }
+
+    public void overflow(OverflowPolicy overflowPolicy) {
+        overflowCounters.get(overflowPolicy).increment();
+    }
+
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public double getOverflowCount(OverflowPolicy overflowPolicy) {
+        return overflowCounters.get(overflowPolicy).count();
+    }
+}
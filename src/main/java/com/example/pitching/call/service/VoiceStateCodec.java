@@ -0,0 +1,68 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.dto.VoiceState;
+import com.example.pitching.call.operation.request.StateRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * server:%d:call 해시에 저장하는 voice state 인코딩
+ * 값은 "flags:channel_id:channel_type" 형태 (user_id 는 해시 필드, server_id 는 키에 이미 있음)
+ * username, profile_image 는 저장하지 않고 응답을 만들 때 채운다
+ */
+@Component
+@RequiredArgsConstructor
+public class VoiceStateCodec {
+    static final int MUTED = 1;
+    static final int DEAFENED = 1 << 1;
+    static final int CAMERA_ON = 1 << 2;
+    static final int SCREEN_SHARING = 1 << 3;
+    private static final char SEPARATOR = ':';
+    private final ConvertService convertService;
+
+    public String encode(VoiceState voiceState) {
+        return encode(
+                flagsOf(voiceState.isMuted(), voiceState.isDeafened(), voiceState.isCameraOn(), voiceState.isScreenSharing()),
+                voiceState.channelId(),
+                voiceState.channelType());
+    }
+
+    public String encode(int flags, Long channelId, ChannelType channelType) {
+        return String.valueOf(flags) + SEPARATOR + channelId + SEPARATOR + channelType.name();
+    }
+
+    /**
+     * @return username 이 비어있는 voice state
+     * 압축 형식 이전에 저장된 JSON 도 읽는다
+     */
+    public VoiceState decode(Long serverId, String userId, String value) {
+        if (value.charAt(0) == '{') {
+            return convertService.convertJsonToObject(value, VoiceState.class).changeUsername(null);
+        }
+        int channelIdStart = value.indexOf(SEPARATOR) + 1;
+        int channelTypeStart = value.indexOf(SEPARATOR, channelIdStart) + 1;
+        int flags = Integer.parseInt(value, 0, channelIdStart - 1, 10);
+        return new VoiceState(
+                userId,
+                null,
+                serverId,
+                Long.parseLong(value, channelIdStart, channelTypeStart - 1, 10),
+                ChannelType.valueOf(value.substring(channelTypeStart)),
+                (flags & MUTED) != 0,
+                (flags & DEAFENED) != 0,
+                (flags & CAMERA_ON) != 0,
+                (flags & SCREEN_SHARING) != 0);
+    }
+
+    public int flagsOf(StateRequest stateRequest) {
+        return flagsOf(stateRequest.isMuted(), stateRequest.isDeafened(), stateRequest.isCameraOn(), stateRequest.isScreenSharing());
+    }
+
+    private int flagsOf(boolean isMuted, boolean isDeafened, boolean isCameraOn, boolean isScreenSharing) {
+        return (isMuted ? MUTED : 0)
+                | (isDeafened ? DEAFENED : 0)
+                | (isCameraOn ? CAMERA_ON : 0)
+                | (isScreenSharing ? SCREEN_SHARING : 0);
+    }
+}
@@ -1,87 +1,106 @@
 package com.example.pitching.call.service;
 
+import com.example.pitching.call.dto.StreamRecord;
 import com.example.pitching.call.dto.VoiceState;
 import com.example.pitching.call.exception.ErrorCode;
 import com.example.pitching.call.exception.WrongAccessException;
 import com.example.pitching.call.operation.request.ChannelRequest;
 import com.example.pitching.call.operation.request.StateRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * 상태 변경, 채널 입장/퇴장은 Lua 스크립트로 한 번의 왕복에 원자적으로 처리
+ * 입장/퇴장은 voice state 변경과 server:%d:events 스트림 XADD 를 같은 스크립트에서 처리한다
+ */
 @Slf4j
 @Component
 public class VoiceStateManager {
+    private static final RedisScript<String> UPDATE_VOICE_STATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/update_voice_state.lua"), String.class);
+    private static final RedisScript<String> ENTER_VOICE_CHANNEL_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/enter_voice_channel.lua"), String.class);
+    private static final RedisScript<String> LEAVE_VOICE_CHANNEL_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/leave_voice_channel.lua"), String.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
     private final ReactiveHashOperations<String, String, String> hashOperations;
-    private final ConvertService convertService;
+    private final VoiceStateCodec voiceStateCodec;
 
-    public VoiceStateManager(ReactiveStringRedisTemplate redisTemplate, ConvertService convertService) {
-        hashOperations = redisTemplate.opsForHash();
-        this.convertService = convertService;
+    public VoiceStateManager(ReactiveStringRedisTemplate redisTemplate, VoiceStateCodec voiceStateCodec) {
+        this.redisTemplate = redisTemplate;
+        this.hashOperations = redisTemplate.opsForHash();
+        this.voiceStateCodec = voiceStateCodec;
     }
 
-    public Mono<String> getVoiceState(Long serverId, String userId) {
-        return hashOperations.get(getVoiceStateRedisKey(serverId), userId);
+    /**
+     * @return username 이 비어있는 voice state
+     */
+    public Mono<VoiceState> getVoiceState(Long serverId, String userId) {
+        return hashOperations.get(getVoiceStateRedisKey(serverId), userId)
+                .map(value -> voiceStateCodec.decode(serverId, userId, value));
     }
 
     public Mono<Long> removeVoiceState(Long serverId, String userId) {
         return hashOperations.remove(getVoiceStateRedisKey(serverId), userId);
     }
 
-    public Flux<Map.Entry<String, String>> getAllVoiceState(Long serverId) {
-        return hashOperations.entries(getVoiceStateRedisKey(serverId));
+    /**
+     * @return username 이 비어있는 voice state
+     */
+    public Flux<VoiceState> getAllVoiceState(Long serverId) {
+        return hashOperations.entries(getVoiceStateRedisKey(serverId))
+                .map(entry -> voiceStateCodec.decode(serverId, entry.getKey(), entry.getValue()));
     }
 
-    public Mono<Boolean> addIfAbsentOrChangeChannel(ChannelRequest channelRequest, String userId, String jsonVoiceState) {
-        return existsVoiceState(channelRequest.serverId(), userId)
-                .flatMap(exist -> {
-                    if (!exist) return addVoiceState(userId, channelRequest.serverId(), jsonVoiceState);
-                    return changeChannelAndSave(channelRequest, userId);
-                });
+    /**
+     * @return username 이 비어있는 저장된 voice state (이미 같은 채널에 있으면 기존 상태 유지)
+     */
+    public Mono<VoiceState> addIfAbsentOrChangeChannel(ChannelRequest channelRequest, String userId, VoiceState voiceState,
+                                                       StreamRecord channelEnterRecord) {
+        List<String> args = new ArrayList<>(List.of(
+                userId,
+                voiceStateCodec.encode(voiceState),
+                String.valueOf(channelRequest.channelId()),
+                channelRequest.channelType().name(),
+                String.valueOf(channelEnterRecord.maxlen())));
+        args.addAll(channelEnterRecord.flattenFields());
+        return redisTemplate.execute(ENTER_VOICE_CHANNEL_SCRIPT,
+                        List.of(getVoiceStateRedisKey(channelRequest.serverId()), channelEnterRecord.key()), args)
+                .next()
+                .map(value -> voiceStateCodec.decode(channelRequest.serverId(), userId, value));
     }
 
-    public Mono<Boolean> updateState(StateRequest stateRequest, String userId) {
-        return existsVoiceState(stateRequest.serverId(), userId)
-                .filter(Boolean.TRUE::equals)
-                .then(updateAndGetVoiceState(stateRequest, userId))
-                .switchIfEmpty(Mono.error(new WrongAccessException(ErrorCode.WRONG_ACCESS_INACTIVE_CHANNEL, String.valueOf(stateRequest.channelId()))));
-    }
-
-    private Mono<Boolean> changeChannelAndSave(ChannelRequest channelRequest, String userId) {
-        return getVoiceState(channelRequest.serverId(), userId)
-                .flatMap(convertService::convertJsonToVoiceState)
-                .flatMap(oldVoiceState -> changeChannelId(channelRequest, userId, oldVoiceState));
-    }
-
-    private Mono<Boolean> updateAndGetVoiceState(StateRequest stateRequest, String userId) {
-        return getVoiceState(stateRequest.serverId(), userId)
-                .flatMap(convertService::convertJsonToVoiceState)
-                .flatMap(oldVoiceState -> updateVoiceState(stateRequest, userId, oldVoiceState));
-    }
-
-    private Mono<Boolean> updateVoiceState(StateRequest stateRequest, String userId, VoiceState oldVoiceState) {
-        return addVoiceState(userId, stateRequest.serverId(), convertService.convertObjectToJson(oldVoiceState.updateState(stateRequest)));
-    }
-
-    private Mono<Boolean> changeChannelId(ChannelRequest channelRequest, String userId, VoiceState oldVoiceState) {
-        if (Objects.equals(oldVoiceState.channelId(), channelRequest.channelId())) return Mono.just(true);
-//            return Mono.error(new DuplicateOperationException(ErrorCode.DUPLICATE_CHANNEL_ENTRY, String.valueOf(channelRequest.channelId())));
-        VoiceState newVoiceState = oldVoiceState.changeChannelId(channelRequest.channelId(), channelRequest.channelType());
-        return addVoiceState(userId, channelRequest.serverId(), convertService.convertObjectToJson(newVoiceState));
+    /**
+     * @return 스트림 레코드 ID
+     */
+    public Mono<String> removeVoiceStateAndPublish(Long serverId, String userId, StreamRecord channelLeaveRecord) {
+        List<String> args = new ArrayList<>(List.of(userId, String.valueOf(channelLeaveRecord.maxlen())));
+        args.addAll(channelLeaveRecord.flattenFields());
+        return redisTemplate.execute(LEAVE_VOICE_CHANNEL_SCRIPT,
+                        List.of(getVoiceStateRedisKey(serverId), channelLeaveRecord.key()), args)
+                .next();
     }
 
-    private Mono<Boolean> addVoiceState(String userId, Long serverId, String jsonVoiceState) {
-        return hashOperations.put(getVoiceStateRedisKey(serverId), userId, jsonVoiceState);
-    }
-
-    private Mono<Boolean> existsVoiceState(Long serverId, String userId) {
-        return hashOperations.hasKey(getVoiceStateRedisKey(serverId), userId);
+    /**
+     * @return username 이 비어있는 변경된 voice state
+     */
+    public Mono<VoiceState> updateState(StateRequest stateRequest, String userId) {
+        return redisTemplate.execute(UPDATE_VOICE_STATE_SCRIPT,
+                        List.of(getVoiceStateRedisKey(stateRequest.serverId())),
+                        List.of(userId, String.valueOf(voiceStateCodec.flagsOf(stateRequest))))
+                .next()
+                .map(value -> voiceStateCodec.decode(stateRequest.serverId(), userId, value))
+                .switchIfEmpty(Mono.error(new WrongAccessException(ErrorCode.WRONG_ACCESS_INACTIVE_CHANNEL, String.valueOf(stateRequest.channelId()))));
     }
 
     private String getVoiceStateRedisKey(Long serverId) {
@@ -10,9 +10,14 @@ import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RabbitMQConfig {
-    public static final String CHAT_QUEUE = "chat.queue.v2";
-    public static final String CHAT_EXCHANGE = "chat.exchange.v2";
+    // 이미 선언된 큐의 argument 는 바꿀 수 없으므로 dead letter 설정을 추가하면서 버전을 올림
+    public static final String CHAT_QUEUE = "chat.queue.v3";
+    public static final String CHAT_EXCHANGE = "chat.exchange.v3";
     public static final String CHAT_ROUTING_KEY = "chat.routing.#";
+    // DynamoDB 저장 재시도가 모두 실패한 메시지 (다시 큐에 넣지 않고 보관)
+    public static final String CHAT_DEAD_LETTER_QUEUE = "chat.queue.v3.dlq";
+    public static final String CHAT_DEAD_LETTER_EXCHANGE = "chat.dlx.v3";
+    public static final String CHAT_DEAD_LETTER_ROUTING_KEY = "chat.dead";
 
     @Bean
     public Queue chatQueue() {
@@ -20,9 +25,30 @@ public class RabbitMQConfig {
                 .withArgument("x-max-length", 100)
                 .withArgument("x-overflow", "drop-head")
                 .withArgument("x-message-ttl", 86400000)
+                .deadLetterExchange(CHAT_DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(CHAT_DEAD_LETTER_ROUTING_KEY)
                 .build();
     }
 
+    @Bean
+    public Queue chatDeadLetterQueue() {
+        return QueueBuilder.durable(CHAT_DEAD_LETTER_QUEUE)
+                .withArgument("x-message-ttl", 604800000)
+                .build();
+    }
+
+    @Bean
+    public DirectExchange chatDeadLetterExchange() {
+        return new DirectExchange(CHAT_DEAD_LETTER_EXCHANGE);
+    }
+
+    @Bean
+    public Binding chatDeadLetterBinding(Queue chatDeadLetterQueue, DirectExchange chatDeadLetterExchange) {
+        return BindingBuilder.bind(chatDeadLetterQueue)
+                .to(chatDeadLetterExchange)
+                .with(CHAT_DEAD_LETTER_ROUTING_KEY);
+    }
+
     @Bean
     public TopicExchange chatExchange() {
         return new TopicExchange(CHAT_EXCHANGE);
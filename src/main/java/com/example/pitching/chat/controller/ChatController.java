@@ -1,5 +1,6 @@
 package com.example.pitching.chat.controller;
 
+import com.example.pitching.chat.dto.ChatHistoryCursor;
 import com.example.pitching.chat.dto.ChatMessageDTO;
 import com.example.pitching.chat.service.ChatService;
 import com.example.pitching.common.error.ApiError;
@@ -13,6 +14,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -25,6 +27,8 @@ import reactor.core.publisher.Mono;
 @RequestMapping("/ws/v1/channels")
 @Slf4j
 public class ChatController {
+    public static final String NEXT_CURSOR_HEADER = "Next-Cursor";
+    private static final int MAX_HISTORY_LIMIT = 100;
     private final ChatService chatService;
 
     @SecurityRequirement(name = "Bearer Authentication")
@@ -91,6 +95,68 @@ public class ChatController {
         }
     }
 
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(
+            summary = "채널 메시지 기록 조회",
+            description = "before, after 범위의 메시지를 최신 메시지부터 limit 개 NDJSON 으로 스트리밍합니다. "
+                    + "다음 페이지가 있으면 Next-Cursor 헤더의 토큰을 cursor 로 전달합니다 (cursor 를 주면 before, after 는 무시).",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "메시지 조회 성공",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = ChatMessageDTO.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "잘못된 요청 파라미터",
+                            content = @Content(schema = @Schema(implementation = ApiError.BadRequest.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "서버 오류",
+                            content = @Content(schema = @Schema(implementation = ApiError.ServerError.class))
+                    )
+            }
+    )
+    @GetMapping(value = "/{channel_id}/messages/history", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<ChatMessageDTO>>> getChannelMessageHistory(
+            @Parameter(description = "채널 ID", required = true)
+            @PathVariable(name = "channel_id") Long channelId,
+            @Parameter(description = "이 타임스탬프 이전의 메시지만 조회 (제외)")
+            @RequestParam(name = "before", required = false) Long before,
+            @Parameter(description = "이 타임스탬프 이후의 메시지만 조회 (제외)")
+            @RequestParam(name = "after", required = false) Long after,
+            @Parameter(description = "조회할 최대 메시지 수 (1 ~ 100)")
+            @RequestParam(name = "limit", defaultValue = "50") int limit,
+            @Parameter(description = "이전 응답의 Next-Cursor 헤더 값")
+            @RequestParam(name = "cursor", required = false) String cursor
+    ) {
+        if (channelId == null || channelId <= 0) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid channel ID"));
+        }
+        if (limit <= 0 || limit > MAX_HISTORY_LIMIT) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid limit"));
+        }
+
+        ChatHistoryCursor historyCursor;
+        try {
+            historyCursor = cursor == null ? ChatHistoryCursor.of(before, after) : ChatHistoryCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor"));
+        }
+
+        return chatService.getChannelMessageHistory(channelId, historyCursor, limit)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.nextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                    return response.body(page.messages());
+                })
+                .doOnError(e -> log.error("Error fetching message history for channel {}: {}", channelId, e.getMessage()));
+    }
+
     @SecurityRequirement(name = "Bearer Authentication")
     @Operation(
             summary = "채널 메시지 삭제",
@@ -0,0 +1,47 @@
+package com.example.pitching.chat.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 채팅 기록 페이지 조회 범위 (before, after 는 둘 다 제외, null 이면 제한 없음)
+ * 최신 메시지부터 읽으므로 다음 페이지는 마지막으로 읽은 메시지의 timestamp 를 before 로 한 같은 범위
+ * 클라이언트에는 "before:after" 를 base64url 로 인코딩한 토큰으로 전달
+ */
+public record ChatHistoryCursor(Long before, Long after) {
+    private static final char SEPARATOR = ':';
+
+    public static ChatHistoryCursor of(Long before, Long after) {
+        return new ChatHistoryCursor(before, after);
+    }
+
+    /**
+     * @throws IllegalArgumentException 잘못된 토큰
+     */
+    public static ChatHistoryCursor decode(String token) {
+        String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = value.indexOf(SEPARATOR);
+        if (separator < 0) throw new IllegalArgumentException("Invalid cursor : " + token);
+        return new ChatHistoryCursor(parse(value.substring(0, separator)), parse(value.substring(separator + 1)));
+    }
+
+    /**
+     * @return 범위 안에 메시지가 있을 수 없음 (before, after 사이에 timestamp 가 없음)
+     */
+    public boolean isEmptyRange() {
+        return before != null && after != null && before - after <= 1;
+    }
+
+    public ChatHistoryCursor next(Long lastTimestamp) {
+        return new ChatHistoryCursor(lastTimestamp, after);
+    }
+
+    public String encode() {
+        String value = (before == null ? "" : before.toString()) + SEPARATOR + (after == null ? "" : after.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long parse(String value) {
+        return value.isEmpty() ? null : Long.valueOf(value);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.pitching.chat.dto;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * @param messages   최신 메시지부터 정렬된 한 페이지 (발신자 정보는 스트리밍하면서 채움)
+ * @param nextCursor 다음 페이지 토큰 (마지막 페이지면 null)
+ */
+public record ChatHistoryPage(Flux<ChatMessageDTO> messages, String nextCursor) {
+    public static ChatHistoryPage of(Flux<ChatMessageDTO> messages, ChatHistoryCursor nextCursor) {
+        return new ChatHistoryPage(messages, nextCursor == null ? null : nextCursor.encode());
+    }
+}
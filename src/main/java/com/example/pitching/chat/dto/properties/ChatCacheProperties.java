@@ -0,0 +1,17 @@
+package com.example.pitching.chat.dto.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param maxMessages 채널마다 Redis 에 캐시하는 최근 메시지 수
+ * @param idleTtl     메시지가 추가되지 않으면 채널 캐시를 지우는 시간 (추가할 때마다 갱신)
+ */
+@ConfigurationProperties("chat.cache")
+public record ChatCacheProperties(int maxMessages, Duration idleTtl) {
+    public ChatCacheProperties {
+        if (maxMessages <= 0) maxMessages = 100;
+        if (idleTtl == null || idleTtl.isNegative() || idleTtl.isZero()) idleTtl = Duration.ofDays(1);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.pitching.chat.dto.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param batchSize  한 번에 발행하고 confirm 을 기다리는 최대 메시지 수
+ * @param window     batchSize 가 차지 않아도 발행하는 최대 대기 시간
+ * @param bufferSize 발행을 기다릴 수 있는 최대 메시지 수 (넘으면 발행 요청이 실패)
+ * @param confirmTimeout batch 의 publisher confirm 을 기다리는 최대 시간 (넘으면 confirm 되지 않은 메시지가 실패)
+ */
+@ConfigurationProperties("chat.publish")
+public record ChatPublishProperties(int batchSize, Duration window, int bufferSize, Duration confirmTimeout) {
+    public ChatPublishProperties {
+        if (batchSize <= 0) batchSize = 64;
+        if (window == null || window.isNegative() || window.isZero()) window = Duration.ofMillis(5);
+        if (bufferSize <= 0) bufferSize = 1024;
+        if (confirmTimeout == null || confirmTimeout.isNegative() || confirmTimeout.isZero()) confirmTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pitching.chat.dto.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param batchSize  한 번의 BatchWriteItem 에 담을 최대 메시지 수 (DynamoDB 제한 25)
+ * @param window     batchSize 가 차지 않아도 저장하는 최대 대기 시간
+ * @param bufferSize 저장을 기다릴 수 있는 최대 메시지 수 (넘으면 저장 요청이 실패)
+ * @param maxRetries 처리되지 않은 항목(UnprocessedItems)이나 throttling 을 재시도하는 최대 횟수
+ * @param minBackoff 첫 재시도 대기 시간 (재시도마다 두 배, maxBackoff 까지)
+ */
+@ConfigurationProperties("chat.write")
+public record ChatWriteProperties(int batchSize, Duration window, int bufferSize, int maxRetries,
+                                  Duration minBackoff, Duration maxBackoff) {
+    public static final int MAX_BATCH_SIZE = 25;
+
+    public ChatWriteProperties {
+        if (batchSize <= 0 || batchSize > MAX_BATCH_SIZE) batchSize = MAX_BATCH_SIZE;
+        if (window == null || window.isNegative() || window.isZero()) window = Duration.ofMillis(50);
+        if (bufferSize <= 0) bufferSize = 1024;
+        if (maxRetries < 0) maxRetries = 0;
+        if (minBackoff == null || minBackoff.isNegative()) minBackoff = Duration.ofMillis(50);
+        if (maxBackoff == null || maxBackoff.compareTo(minBackoff) < 0) maxBackoff = Duration.ofSeconds(2);
+    }
+}
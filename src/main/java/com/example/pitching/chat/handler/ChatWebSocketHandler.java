@@ -12,31 +12,51 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.socket.WebSocketHandler;
 import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+/**
+ * 세션마다 하나의 outbound 스트림을 열어두고, 구독한 채널의 multicast sink 를 이어 붙인다
+ * 채널 브로드캐스트는 JSON 을 한 번만 인코딩해서 채널 sink 에 한 번 emit 하고, 모든 구독 세션이 같은 바이트를 공유한다
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ChatWebSocketHandler implements WebSocketHandler {
+    // 느린 세션은 오래된 메시지부터 버려서 같은 채널의 다른 세션을 막지 않음
+    private static final int OUTBOUND_BUFFER_SIZE = 256;
+    private static final Sinks.EmitFailureHandler RETRY_ON_CONCURRENT_EMIT = Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
 
     private final ObjectMapper objectMapper;
     private final ChatService chatService;
 
-    private final Map<Long, Map<String, WebSocketSession>> channelSubscriptions = new ConcurrentHashMap<>();
+    private final Map<Long, ChannelFanOut> channelSubscriptions = new ConcurrentHashMap<>();
     private final Map<String, Long> sessionSubscriptions = new ConcurrentHashMap<>();
+    private final Map<String, SessionOutbound> sessionOutbounds = new ConcurrentHashMap<>();
 
     @Override
     public Mono<Void> handle(WebSocketSession session) {
-        return session.receive()
+        SessionOutbound outbound = new SessionOutbound();
+        sessionOutbounds.put(session.getId(), outbound);
+
+        Mono<Void> input = session.receive()
                 .doOnSubscribe(sub -> log.info("New WebSocket connection: {}", session.getId()))
-                .flatMap(message -> handleMessage(session, message))
+                // 발행 confirm 을 받을 때까지 다음 메시지를 읽지 않음 (broker 가 느리면 클라이언트 전송이 밀림)
+                .concatMap(message -> handleMessage(session, message))
                 .doOnError(e -> log.error("WebSocket error: {}", e.getMessage()))
                 .doFinally(signalType -> handleDisconnect(session))
                 .then();
+        Mono<Void> output = session.send(outbound.asFlux()
+                .map(payload -> new WebSocketMessage(WebSocketMessage.Type.TEXT, session.bufferFactory().wrap(payload))));
+        return Mono.when(input, output);
     }
 
     private Mono<Void> handleMessage(WebSocketSession session, WebSocketMessage message) {
@@ -58,34 +78,31 @@ public class ChatWebSocketHandler implements WebSocketHandler {
     }
 
     public Mono<Void> broadcastUserUpdate(UserUpdateMessage updateMessage) {
-        try {
-            String payload = objectMapper.writeValueAsString(updateMessage);
-
-            return Flux.fromIterable(channelSubscriptions.values())
-                    .flatMap(channelSessions ->
-                            Flux.fromIterable(channelSessions.values())
-                                    .flatMap(session ->
-                                            session.send(Mono.just(session.textMessage(payload)))
-                                                    .onErrorResume(e -> {
-                                                        log.error("Error sending user update to session: {}", e.getMessage());
-                                                        return Mono.empty();
-                                                    })
-                                    )
-                    )
-                    .then();
-        } catch (JsonProcessingException e) {
-            log.error("Error serializing user update message: {}", e.getMessage());
-            return Mono.empty();
-        }
+        return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(updateMessage))
+                .doOnNext(payload -> channelSubscriptions.values().forEach(fanOut -> fanOut.emit(payload)))
+                .onErrorResume(JsonProcessingException.class, e -> {
+                    log.error("Error serializing user update message: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
     }
 
     private Mono<Void> handleSubscribe(WebSocketSession session, WebSocketCommand command) {
         Long channelId = command.getChannelId();
         String sessionId = session.getId();
 
-        channelSubscriptions.computeIfAbsent(channelId, k -> new ConcurrentHashMap<>())
-                .put(sessionId, session);
+        // 다른 채널을 구독 중이면 먼저 해제
+        removeSession(sessionId);
+        ChannelFanOut fanOut = channelSubscriptions.compute(channelId, (id, current) -> {
+            ChannelFanOut channelFanOut = current == null ? new ChannelFanOut() : current;
+            channelFanOut.sessions.put(sessionId, session);
+            return channelFanOut;
+        });
         sessionSubscriptions.put(sessionId, channelId);
+        SessionOutbound outbound = sessionOutbounds.get(sessionId);
+        if (outbound != null) {
+            outbound.switchTo(fanOut.asFlux());
+        }
 
         log.info("Session {} subscribed to channel {}", sessionId, channelId);
         return Mono.empty();
@@ -111,13 +128,18 @@ public class ChatWebSocketHandler implements WebSocketHandler {
         String sessionId = session.getId();
         log.info("WebSocket disconnected: {}", sessionId);
         removeSession(sessionId);
+        SessionOutbound outbound = sessionOutbounds.remove(sessionId);
+        if (outbound != null) {
+            outbound.complete();
+        }
     }
 
     public Mono<Void> closeChannelConnections(Long channelId) {
-        Map<String, WebSocketSession> sessions = channelSubscriptions.get(channelId);
-        if (sessions == null || sessions.isEmpty()) {
+        ChannelFanOut fanOut = channelSubscriptions.get(channelId);
+        if (fanOut == null || fanOut.sessions.isEmpty()) {
             return Mono.empty();
         }
+        Map<String, WebSocketSession> sessions = fanOut.sessions;
 
         return Flux.fromIterable(sessions.values())
                 .flatMap(session -> session.close()
@@ -135,36 +157,39 @@ public class ChatWebSocketHandler implements WebSocketHandler {
     private void removeSession(String sessionId) {
         Long channelId = sessionSubscriptions.remove(sessionId);
         if (channelId != null) {
-            Map<String, WebSocketSession> channelSessions = channelSubscriptions.get(channelId);
-            if (channelSessions != null) {
-                channelSessions.remove(sessionId);
-                if (channelSessions.isEmpty()) {
-                    channelSubscriptions.remove(channelId);
-                }
+            channelSubscriptions.computeIfPresent(channelId, (id, fanOut) -> {
+                fanOut.sessions.remove(sessionId);
+                return fanOut.sessions.isEmpty() ? null : fanOut;
+            });
+            SessionOutbound outbound = sessionOutbounds.get(sessionId);
+            if (outbound != null) {
+                outbound.switchTo(Flux.empty());
             }
         }
     }
 
+    /**
+     * 구독 중인 세션이 없으면 인코딩하지 않는다
+     */
     public Mono<Void> broadcastToChannel(Long channelId, ChatMessageDTO messageDTO) {
-        Map<String, WebSocketSession> sessions = channelSubscriptions.get(channelId);
-        if (sessions == null || sessions.isEmpty()) {
-            return Mono.empty();
-        }
-
-        try {
-            String payload = objectMapper.writeValueAsString(messageDTO);
-            return Flux.fromIterable(sessions.values())
-                    .flatMap(session -> session.send(Mono.just(session.textMessage(payload))))
-                    .onErrorContinue((e, obj) -> log.error("Failed to send message: {}", e.getMessage()))
+        return Mono.defer(() -> {
+            ChannelFanOut fanOut = channelSubscriptions.get(channelId);
+            if (fanOut == null) {
+                return Mono.empty();
+            }
+            return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(messageDTO))
+                    .doOnNext(fanOut::emit)
                     .then();
-        } catch (JsonProcessingException e) {
-            return Mono.error(e);
-        }
+        });
     }
 
     private Mono<Void> handleError(WebSocketSession session, Throwable e) {
         log.error("Error: {}", e.getMessage());
-        return session.send(Mono.just(session.textMessage("Error: " + e.getMessage())));
+        SessionOutbound outbound = sessionOutbounds.get(session.getId());
+        if (outbound != null) {
+            outbound.send(("Error: " + e.getMessage()).getBytes(StandardCharsets.UTF_8));
+        }
+        return Mono.empty();
     }
 
     private boolean isValidCommand(WebSocketCommand command) {
@@ -174,4 +199,47 @@ public class ChatWebSocketHandler implements WebSocketHandler {
                         command.getType().equals("SEND") ||
                         command.getType().equals("UNSUBSCRIBE"));
     }
-}
\ No newline at end of file
+
+    private static final class ChannelFanOut {
+        private final Sinks.Many<byte[]> sink = Sinks.many().multicast().directBestEffort();
+        private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+        private void emit(byte[] payload) {
+            sink.emitNext(payload, RETRY_ON_CONCURRENT_EMIT);
+        }
+
+        private Flux<byte[]> asFlux() {
+            return sink.asFlux()
+                    .onBackpressureBuffer(OUTBOUND_BUFFER_SIZE,
+                            dropped -> log.warn("Outbound buffer full, dropped oldest chat message"),
+                            BufferOverflowStrategy.DROP_OLDEST);
+        }
+    }
+
+    /**
+     * 세션의 유일한 outbound 스트림
+     * 채널 메시지는 구독한 채널의 sink 로 바꿔 끼우고, 에러 메시지는 세션에만 보낸다
+     */
+    private static final class SessionOutbound {
+        private final Sinks.Many<byte[]> direct = Sinks.many().unicast().onBackpressureBuffer();
+        private final Sinks.Many<Flux<byte[]>> channel = Sinks.many().unicast().onBackpressureBuffer();
+
+        private Flux<byte[]> asFlux() {
+            return Flux.merge(direct.asFlux(), channel.asFlux().switchMap(Function.identity()));
+        }
+
+        private void send(byte[] payload) {
+            direct.emitNext(payload, RETRY_ON_CONCURRENT_EMIT);
+        }
+
+        private void switchTo(Flux<byte[]> channelMessages) {
+            channel.emitNext(channelMessages, RETRY_ON_CONCURRENT_EMIT);
+        }
+
+        private void complete() {
+            switchTo(Flux.empty());
+            channel.emitComplete(RETRY_ON_CONCURRENT_EMIT);
+            direct.emitComplete(RETRY_ON_CONCURRENT_EMIT);
+        }
+    }
+}
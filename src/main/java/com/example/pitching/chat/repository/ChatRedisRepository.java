@@ -1,40 +1,61 @@
 package com.example.pitching.chat.repository;
 
 import com.example.pitching.chat.dto.ChatMessageDTO;
+import com.example.pitching.chat.dto.properties.ChatCacheProperties;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 채널마다 최근 maxMessages 개의 메시지를 chat:messages:%d 리스트에 캐시
+ * 추가는 Lua 스크립트 한 번으로 RPUSH, LTRIM, PEXPIRE 를 원자적으로 처리하고, 메시지가 추가되지 않는 채널은 idleTtl 뒤에 지워진다
+ */
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class ChatRedisRepository {
+    private static final RedisScript<Long> APPEND_CHAT_MESSAGES_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/append_chat_messages.lua"), Long.class);
+    private static final String KEY_PREFIX = "chat:messages:";
     private final ReactiveStringRedisTemplate redisTemplate;
     private final ObjectMapper objectMapper;
-    private static final String KEY_PREFIX = "chat:messages:";
-    private static final long MAX_MESSAGES = 100;
+    private final ChatCacheProperties chatCacheProperties;
 
     public Mono<ChatMessageDTO> saveMessage(ChatMessageDTO message) {
+        return saveMessages(message.getChannelId(), List.of(message))
+                .thenReturn(message);
+    }
+
+    /**
+     * 메시지를 순서대로 추가하고 최근 maxMessages 개만 남김
+     */
+    public Mono<Void> saveMessages(Long channelId, List<ChatMessageDTO> messages) {
+        if (messages.isEmpty()) {
+            return Mono.empty();
+        }
+        List<String> args = new ArrayList<>(messages.size() + 2);
+        args.add(String.valueOf(chatCacheProperties.maxMessages()));
+        args.add(String.valueOf(chatCacheProperties.idleTtl().toMillis()));
         try {
-            String key = KEY_PREFIX + message.getChannelId();
-            String value = objectMapper.writeValueAsString(message);
-            return redisTemplate.opsForList().rightPush(key, value)
-                    .flatMap(length -> {
-                        if (length > MAX_MESSAGES) {
-                            return redisTemplate.opsForList().leftPop(key)
-                                    .thenReturn(message);
-                        }
-                        return Mono.just(message);
-                    })
-                    .doOnError(e -> log.error("Error saving message to Redis: {}", e.getMessage()));
+            for (ChatMessageDTO message : messages) {
+                args.add(objectMapper.writeValueAsString(message));
+            }
         } catch (JsonProcessingException e) {
             return Mono.error(e);
         }
+        return redisTemplate.execute(APPEND_CHAT_MESSAGES_SCRIPT, List.of(KEY_PREFIX + channelId), args)
+                .then()
+                .doOnError(e -> log.error("Error saving messages to Redis: {}", e.getMessage()));
     }
 
     public Flux<ChatMessageDTO> getRecentMessages(Long channelId) {
@@ -76,20 +97,9 @@ public class ChatRedisRepository {
                 })
                 .collectList()
                 .flatMap(messages -> {
-                    // 기존 메시지 삭제 후 업데이트된 메시지 저장
+                    // 기존 메시지 삭제 후 업데이트된 메시지를 순서대로 저장
                     return redisTemplate.delete(key)
-                            .then(Mono.defer(() ->
-                                    Flux.fromIterable(messages)
-                                            .flatMap(message -> Mono.fromCallable(() -> {
-                                                try {
-                                                    return objectMapper.writeValueAsString(message);
-                                                } catch (JsonProcessingException e) {
-                                                    throw new RuntimeException(e);
-                                                }
-                                            }))
-                                            .flatMap(value -> redisTemplate.opsForList().rightPush(key, value))
-                                            .then()
-                            ));
+                            .then(saveMessages(channelId, messages));
                 })
                 .doOnError(e -> log.error("Error updating user messages in Redis: {}", e.getMessage()))
                 .then();
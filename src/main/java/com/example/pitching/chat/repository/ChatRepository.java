@@ -1,19 +1,26 @@
 package com.example.pitching.chat.repository;
 
 import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.ChatHistoryCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Repository
@@ -21,6 +28,7 @@ import java.util.Map;
 @Slf4j
 public class ChatRepository {
     private final DynamoDbAsyncTable<ChatMessage> chatMessageTable;
+    private final DynamoDbEnhancedAsyncClient enhancedAsyncClient;
 
     public Mono<ChatMessage> save(ChatMessage message) {
         return Mono.fromFuture(chatMessageTable.putItem(message))
@@ -28,6 +36,22 @@ public class ChatRepository {
                 .thenReturn(message);
     }
 
+    /**
+     * 최대 25개를 BatchWriteItem 한 번으로 저장 (같은 키가 중복되면 안 됨)
+     * @return 처리되지 않아 다시 저장해야 하는 메시지
+     */
+    public Mono<List<ChatMessage>> saveAll(List<ChatMessage> messages) {
+        WriteBatch.Builder<ChatMessage> writeBatch = WriteBatch.builder(ChatMessage.class)
+                .mappedTableResource(chatMessageTable);
+        messages.forEach(writeBatch::addPutItem);
+        BatchWriteItemEnhancedRequest request = BatchWriteItemEnhancedRequest.builder()
+                .writeBatches(writeBatch.build())
+                .build();
+        return Mono.fromFuture(() -> enhancedAsyncClient.batchWriteItem(request))
+                .map(result -> result.unprocessedPutItemsForTable(chatMessageTable))
+                .doOnError(e -> log.error("Error saving {} messages: {}", messages.size(), e.getMessage()));
+    }
+
     public Flux<ChatMessage> findByChannelIdOrderByTimestampAsc(Long channelId) {
         QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
                 .queryConditional(
@@ -41,6 +65,21 @@ public class ChatRepository {
                 .flatMap(page -> Flux.fromIterable(page.items()));
     }
 
+    /**
+     * cursor 범위에서 최신 메시지부터 최대 limit 개를 Query 한 번으로 조회
+     * @return lastEvaluatedKey 가 있으면 다음 페이지가 있을 수 있음
+     */
+    public Mono<Page<ChatMessage>> findPage(Long channelId, ChatHistoryCursor cursor, int limit) {
+        QueryEnhancedRequest queryRequest = QueryEnhancedRequest.builder()
+                .queryConditional(queryConditionalOf(channelId, cursor))
+                .scanIndexForward(false) // descending order
+                .limit(limit)
+                .build();
+
+        return Mono.from(chatMessageTable.query(queryRequest).limit(1))
+                .doOnError(e -> log.error("Error querying message page: {}", e.getMessage()));
+    }
+
     public Flux<ChatMessage> findBySender(String sender) {
         // DynamoDB에서 sender로 필터링하는 식 생성
         Map<String, AttributeValue> expressionValues = new HashMap<>();
@@ -112,4 +151,24 @@ public class ChatRepository {
                 .next()
                 .switchIfEmpty(Mono.error(new RuntimeException("Message not found")));
     }
-}
\ No newline at end of file
+
+    // before, after 는 둘 다 제외 (timestamp 는 밀리초 정수이므로 between 은 after + 1 ~ before - 1)
+    private QueryConditional queryConditionalOf(Long channelId, ChatHistoryCursor cursor) {
+        if (cursor.before() != null && cursor.after() != null) {
+            return QueryConditional.sortBetween(
+                    keyOf(channelId, cursor.after() + 1),
+                    keyOf(channelId, cursor.before() - 1));
+        }
+        if (cursor.before() != null) {
+            return QueryConditional.sortLessThan(keyOf(channelId, cursor.before()));
+        }
+        if (cursor.after() != null) {
+            return QueryConditional.sortGreaterThan(keyOf(channelId, cursor.after()));
+        }
+        return QueryConditional.keyEqualTo(kb -> kb.partitionValue(channelId));
+    }
+
+    private Key keyOf(Long channelId, long timestamp) {
+        return Key.builder().partitionValue(channelId).sortValue(timestamp).build();
+    }
+}
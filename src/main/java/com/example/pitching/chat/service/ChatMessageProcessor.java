@@ -6,6 +6,7 @@ import com.example.pitching.chat.handler.ChatWebSocketHandler;
 import com.example.pitching.chat.repository.ChatRedisRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
@@ -18,11 +19,15 @@ public class ChatMessageProcessor {
     private final ChatRedisRepository chatRedisRepository;
     private final ChatWebSocketHandler webSocketHandler;
 
-    @RabbitListener(queues = RabbitMQConfig.CHAT_QUEUE)
-    public void processMessage(ChatMessageDTO message) {
+    /**
+     * 반환한 Mono 가 완료되면 ack, 실패하면 requeue 없이 reject 해서 dead letter 큐로 보냄 (DynamoDB 에 저장된 뒤에만 ack)
+     * ChatMessageWriter 가 이미 backoff 로 재시도했으므로 다시 큐에 넣으면 throttling 중에 같은 쓰기가 반복됨
+     */
+    @RabbitListener(queues = RabbitMQConfig.CHAT_QUEUE, ackMode = "MANUAL")
+    public Mono<Void> processMessage(ChatMessageDTO message) {
         log.info("Received message from queue: {}", message.getMessageId());
 
-        Mono.just(message)
+        return Mono.just(message)
                 .flatMap(msg -> chatService.saveMessageToDynamoDB(msg))
                 .flatMap(savedMsg ->
                         // 각 작업을 독립적으로 처리
@@ -44,6 +49,7 @@ public class ChatMessageProcessor {
                             e
                     );
                 })
-                .subscribe();
+                .onErrorMap(e -> new AmqpRejectAndDontRequeueException("Failed to save chat message " + message.getMessageId(), e))
+                .then();
     }
 }
\ No newline at end of file
@@ -0,0 +1,180 @@
+package com.example.pitching.chat.service;
+
+import com.example.pitching.chat.config.RabbitMQConfig;
+import com.example.pitching.chat.dto.ChatMessageDTO;
+import com.example.pitching.chat.dto.properties.ChatPublishProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.rabbitmq.ChannelPoolFactory;
+import reactor.rabbitmq.ChannelPoolOptions;
+import reactor.rabbitmq.CorrelableOutboundMessage;
+import reactor.rabbitmq.OutboundMessageResult;
+import reactor.rabbitmq.RabbitFlux;
+import reactor.rabbitmq.SendOptions;
+import reactor.rabbitmq.Sender;
+import reactor.rabbitmq.SenderOptions;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 채팅 메시지를 reactor-rabbitmq 로 논블로킹 발행
+ * 메시지를 batchSize 개 또는 window 동안 모아서 한 채널로 발행하고, publisher confirm 을 받으면 호출자의 Mono 를 완료한다
+ * 대기 중인 메시지가 bufferSize 를 넘으면 발행 요청이 바로 실패한다
+ */
+@Slf4j
+@Component
+public class ChatMessagePublisher {
+    private static final Duration EMIT_RETRY_TIMEOUT = Duration.ofMillis(100);
+    // RabbitTemplate + Jackson2JsonMessageConverter 가 보내던 메시지와 같은 속성 (ChatMessageProcessor 가 그대로 읽음)
+    private static final AMQP.BasicProperties MESSAGE_PROPERTIES = new AMQP.BasicProperties.Builder()
+            .contentType("application/json")
+            .contentEncoding("UTF-8")
+            .deliveryMode(2)
+            .headers(Map.of("__TypeId__", ChatMessageDTO.class.getName()))
+            .build();
+
+    private final Sender sender;
+    private final SendOptions sendOptions;
+    private final ObjectMapper objectMapper;
+    private final ChatPublishProperties chatPublishProperties;
+    private volatile Sinks.Many<PendingMessage> pendingMessages;
+    private volatile Disposable publishing;
+
+    @Autowired
+    public ChatMessagePublisher(CachingConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                ChatPublishProperties chatPublishProperties) {
+        this(connect(connectionFactory.getRabbitConnectionFactory()), objectMapper, chatPublishProperties);
+    }
+
+    ChatMessagePublisher(Mono<Connection> connection, ObjectMapper objectMapper, ChatPublishProperties chatPublishProperties) {
+        this(RabbitFlux.createSender(new SenderOptions().connectionMono(connection)),
+                new SendOptions().channelPool(ChannelPoolFactory.createChannelPool(connection, new ChannelPoolOptions().maxCacheSize(1))),
+                objectMapper, chatPublishProperties);
+    }
+
+    ChatMessagePublisher(Sender sender, SendOptions sendOptions, ObjectMapper objectMapper, ChatPublishProperties chatPublishProperties) {
+        this.sender = sender;
+        this.sendOptions = sendOptions;
+        this.objectMapper = objectMapper;
+        this.chatPublishProperties = chatPublishProperties;
+        start();
+    }
+
+    /**
+     * @return broker 가 메시지를 confirm 하면 완료
+     */
+    public Mono<Void> publish(ChatMessageDTO messageDTO) {
+        return Mono.defer(() -> {
+            byte[] body;
+            try {
+                body = objectMapper.writeValueAsBytes(messageDTO);
+            } catch (JsonProcessingException e) {
+                return Mono.error(e);
+            }
+            Sinks.One<Void> confirmed = Sinks.one();
+            Sinks.EmitResult result = emit(new PendingMessage(messageDTO.getMessageId(), body, confirmed));
+            if (result.isFailure()) {
+                return Mono.error(new IllegalStateException("Chat publisher is busy : " + result));
+            }
+            return confirmed.asMono();
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        publishing.dispose();
+        sender.close();
+    }
+
+    /**
+     * confirm 을 기다리는 동안 다음 batch 를 요청하지 않으므로 fair backpressure 로 모아서 overflow 없이 기다림
+     * 파이프라인이 예외로 끝나면 남은 메시지를 실패시키고 새 sink 로 다시 시작
+     */
+    private void start() {
+        Sinks.Many<PendingMessage> sink = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<PendingMessage>get(chatPublishProperties.bufferSize()).get());
+        pendingMessages = sink;
+        publishing = sink.asFlux()
+                .bufferTimeout(chatPublishProperties.batchSize(), chatPublishProperties.window(), Schedulers.parallel(), true)
+                .concatMap(this::publishBatch)
+                .doOnDiscard(Object.class, ChatMessagePublisher::failDiscarded)
+                .subscribe(null, e -> {
+                    log.error("Chat message publisher stopped, restarting : ", e);
+                    start();
+                });
+    }
+
+    // 파이프라인이 끝날 때 버려지는 대기 중인 메시지 (bufferTimeout 은 메시지, concatMap 은 batch 단위로 버림)
+    private static void failDiscarded(Object discarded) {
+        if (discarded instanceof PendingMessage pendingMessage) {
+            pendingMessage.fail(new IllegalStateException("Chat message publisher stopped"));
+        } else if (discarded instanceof Collection<?> batch) {
+            batch.forEach(ChatMessagePublisher::failDiscarded);
+        }
+    }
+
+    // 다른 스레드가 emit 중일 때만 재시도하고, 버퍼가 가득 찬 경우는 바로 실패 (emitNext 는 overflow 시 sink 를 종료시킴)
+    private Sinks.EmitResult emit(PendingMessage pendingMessage) {
+        Sinks.EmitResult result;
+        long deadline = System.nanoTime() + EMIT_RETRY_TIMEOUT.toNanos();
+        while ((result = pendingMessages.tryEmitNext(pendingMessage)) == Sinks.EmitResult.FAIL_NON_SERIALIZED
+                && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        return result;
+    }
+
+    private Mono<Void> publishBatch(List<PendingMessage> batch) {
+        return sender.sendWithTypedPublishConfirms(Flux.fromIterable(batch).map(PendingMessage::toOutboundMessage), sendOptions)
+                .doOnNext(ChatMessagePublisher::complete)
+                .then()
+                // confirm 이 오지 않은 메시지는 실패시키고 다음 batch 로 넘어감 (이미 confirm 된 메시지는 그대로 완료)
+                .timeout(chatPublishProperties.confirmTimeout())
+                .doOnError(e -> {
+                    log.error("Failed to publish {} chat messages : ", batch.size(), e);
+                    batch.forEach(pendingMessage -> pendingMessage.fail(e));
+                })
+                .onErrorResume(ignored -> Mono.empty());
+    }
+
+    private static void complete(OutboundMessageResult<CorrelableOutboundMessage<PendingMessage>> result) {
+        PendingMessage pendingMessage = result.getOutboundMessage().getCorrelationMetadata();
+        if (result.isAck()) {
+            pendingMessage.confirmed.tryEmitEmpty();
+        } else {
+            pendingMessage.fail(new IllegalStateException("Chat message nacked by broker : " + pendingMessage.messageId));
+        }
+    }
+
+    private static Mono<Connection> connect(ConnectionFactory connectionFactory) {
+        return Mono.fromCallable(() -> connectionFactory.newConnection("chat-publisher")).cache();
+    }
+
+    private record PendingMessage(String messageId, byte[] body, Sinks.One<Void> confirmed) {
+        private CorrelableOutboundMessage<PendingMessage> toOutboundMessage() {
+            return new CorrelableOutboundMessage<>(RabbitMQConfig.CHAT_EXCHANGE, RabbitMQConfig.CHAT_ROUTING_KEY,
+                    MESSAGE_PROPERTIES, body, this);
+        }
+
+        private void fail(Throwable e) {
+            confirmed.tryEmitError(e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.pitching.chat.service;
+
+import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.properties.ChatWriteProperties;
+import com.example.pitching.chat.repository.ChatRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * 채팅 메시지의 DynamoDB write-behind 저장
+ * 메시지를 batchSize 개(최대 25) 또는 window 동안 모아서 BatchWriteItem 한 번으로 저장한다
+ * 처리되지 않은 항목과 throttling 은 backoff 로 재시도하고, 저장이 끝난 메시지의 Mono 만 완료한다
+ */
+@Slf4j
+@Component
+public class ChatMessageWriter {
+    private static final Duration EMIT_RETRY_TIMEOUT = Duration.ofMillis(100);
+    private final ChatRepository chatRepository;
+    private final ChatWriteProperties chatWriteProperties;
+    private final Scheduler scheduler;
+    private volatile Sinks.Many<PendingWrite> pendingWrites;
+    private volatile Disposable writing;
+
+    @Autowired
+    public ChatMessageWriter(ChatRepository chatRepository, ChatWriteProperties chatWriteProperties) {
+        this(chatRepository, chatWriteProperties, Schedulers.parallel());
+    }
+
+    ChatMessageWriter(ChatRepository chatRepository, ChatWriteProperties chatWriteProperties, Scheduler scheduler) {
+        this.chatRepository = chatRepository;
+        this.chatWriteProperties = chatWriteProperties;
+        this.scheduler = scheduler;
+        start();
+    }
+
+    /**
+     * @return DynamoDB 에 저장되면 완료
+     */
+    public Mono<Void> write(ChatMessage message) {
+        return Mono.defer(() -> {
+            Sinks.One<Void> written = Sinks.one();
+            Sinks.EmitResult result = emit(new PendingWrite(message, written));
+            if (result.isFailure()) {
+                return Mono.error(new IllegalStateException("Chat message writer is busy : " + result));
+            }
+            return written.asMono();
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        writing.dispose();
+    }
+
+    /**
+     * 저장이 재시도 중이면 다음 batch 를 요청하지 않으므로 fair backpressure 로 모아서 overflow 없이 기다림
+     * 파이프라인이 예외로 끝나면 남은 메시지를 실패시키고 새 sink 로 다시 시작
+     */
+    private void start() {
+        Sinks.Many<PendingWrite> sink = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<PendingWrite>get(chatWriteProperties.bufferSize()).get());
+        pendingWrites = sink;
+        writing = sink.asFlux()
+                .bufferTimeout(chatWriteProperties.batchSize(), chatWriteProperties.window(), scheduler, true)
+                .concatMap(this::writeBatch)
+                .doOnDiscard(Object.class, ChatMessageWriter::failDiscarded)
+                .subscribe(null, e -> {
+                    log.error("Chat message writer stopped, restarting : ", e);
+                    start();
+                });
+    }
+
+    // 파이프라인이 끝날 때 버려지는 대기 중인 메시지 (bufferTimeout 은 메시지, concatMap 은 batch 단위로 버림)
+    private static void failDiscarded(Object discarded) {
+        if (discarded instanceof PendingWrite pendingWrite) {
+            pendingWrite.fail(new IllegalStateException("Chat message writer stopped"));
+        } else if (discarded instanceof Collection<?> batch) {
+            batch.forEach(ChatMessageWriter::failDiscarded);
+        }
+    }
+
+    // 다른 스레드가 emit 중일 때만 재시도하고, 버퍼가 가득 찬 경우는 바로 실패 (emitNext 는 overflow 시 sink 를 종료시킴)
+    private Sinks.EmitResult emit(PendingWrite pendingWrite) {
+        Sinks.EmitResult result;
+        long deadline = System.nanoTime() + EMIT_RETRY_TIMEOUT.toNanos();
+        while ((result = pendingWrites.tryEmitNext(pendingWrite)) == Sinks.EmitResult.FAIL_NON_SERIALIZED
+                && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        return result;
+    }
+
+    private Mono<Void> writeBatch(List<PendingWrite> batch) {
+        // BatchWriteItem 은 같은 키가 중복되면 요청 전체를 거부하므로 마지막 메시지만 저장 (putItem 을 연달아 한 것과 같음)
+        Map<MessageKey, ChatMessage> items = new LinkedHashMap<>();
+        batch.forEach(pendingWrite -> items.put(MessageKey.of(pendingWrite.message()), pendingWrite.message()));
+        AtomicReference<List<ChatMessage>> remaining = new AtomicReference<>(new ArrayList<>(items.values()));
+        return Mono.defer(() -> chatRepository.saveAll(remaining.get()))
+                .flatMap(unprocessed -> {
+                    if (unprocessed.isEmpty()) return Mono.<Void>empty();
+                    remaining.set(unprocessed);
+                    return Mono.error(new IllegalStateException(unprocessed.size() + " chat messages unprocessed"));
+                })
+                .retryWhen(Retry.backoff(chatWriteProperties.maxRetries(), chatWriteProperties.minBackoff())
+                        .maxBackoff(chatWriteProperties.maxBackoff())
+                        .scheduler(scheduler)
+                        .doBeforeRetry(signal -> log.warn("Retrying {} chat messages : {}",
+                                remaining.get().size(), signal.failure().getMessage())))
+                .doOnSuccess(ignored -> batch.forEach(PendingWrite::complete))
+                .onErrorResume(e -> {
+                    log.error("Failed to write {} chat messages : ", remaining.get().size(), e);
+                    Set<MessageKey> failed = remaining.get().stream().map(MessageKey::of).collect(Collectors.toSet());
+                    batch.forEach(pendingWrite -> {
+                        if (failed.contains(MessageKey.of(pendingWrite.message()))) pendingWrite.fail(e);
+                        else pendingWrite.complete();
+                    });
+                    return Mono.empty();
+                });
+    }
+
+    // ChatMessages 테이블의 partition key + sort key
+    private record MessageKey(Long channelId, Long timestamp) {
+        private static MessageKey of(ChatMessage message) {
+            return new MessageKey(message.getChannelId(), message.getTimestamp());
+        }
+    }
+
+    private record PendingWrite(ChatMessage message, Sinks.One<Void> written) {
+        private void complete() {
+            written.tryEmitEmpty();
+        }
+
+        private void fail(Throwable e) {
+            written.tryEmitError(e);
+        }
+    }
+}
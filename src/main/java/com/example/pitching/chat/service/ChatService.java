@@ -1,18 +1,26 @@
 package com.example.pitching.chat.service;
 
 import com.example.pitching.auth.domain.User;
-import com.example.pitching.chat.config.RabbitMQConfig;
 import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.ChatHistoryCursor;
+import com.example.pitching.chat.dto.ChatHistoryPage;
 import com.example.pitching.chat.dto.ChatMessageDTO;
+import com.example.pitching.chat.dto.properties.ChatCacheProperties;
 import com.example.pitching.chat.repository.ChatRepository;
 import com.example.pitching.chat.repository.ChatRedisRepository;
 import com.example.pitching.auth.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,19 +29,15 @@ public class ChatService {
     private final ChatRepository chatRepository;
     private final ChatRedisRepository chatRedisRepository;
     private final UserRepository userRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final ChatMessagePublisher chatMessagePublisher;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ChatCacheProperties chatCacheProperties;
 
     public Mono<ChatMessageDTO> saveTalkMessage(Long channelId, String sender, String message) {
         ChatMessage chatMessage = ChatMessage.createTalkMessage(channelId, sender, message);
         return userRepository.findById(sender)
                 .map(user -> ChatMessageDTO.from(chatMessage, user))
-                .doOnNext(messageDTO -> {
-                    rabbitTemplate.convertAndSend(
-                            RabbitMQConfig.CHAT_EXCHANGE,
-                            RabbitMQConfig.CHAT_ROUTING_KEY,
-                            messageDTO
-                    );
-                })
+                .flatMap(messageDTO -> chatMessagePublisher.publish(messageDTO).thenReturn(messageDTO))
                 .doOnSuccess(saved -> log.info("Message sent to queue: {}", saved.getMessageId()))
                 .doOnError(e -> log.error("Error sending message to queue: {}", e.getMessage()));
     }
@@ -51,10 +55,10 @@ public class ChatService {
         log.info("Attempting to save ChatMessage to DynamoDB: channelId={}, messageId={}",
                 chatMessage.getChannelId(), chatMessage.getMessageId());
 
-        return chatRepository.save(chatMessage)
-                .doOnSuccess(savedMessage ->
+        return chatMessageWriter.write(chatMessage)
+                .doOnSuccess(ignored ->
                         log.info("Successfully saved message to DynamoDB: messageId={}",
-                                savedMessage.getMessageId()))
+                                chatMessage.getMessageId()))
                 .doOnError(e ->
                         log.error("Failed to save message to DynamoDB: messageId={}, error={}",
                                 chatMessage.getMessageId(), e.getMessage(), e))
@@ -63,17 +67,38 @@ public class ChatService {
 
     public Flux<ChatMessageDTO> getChannelMessages(Long channelId) {
         return chatRedisRepository.getRecentMessages(channelId)
-                .switchIfEmpty(
-                        chatRepository.findByChannelIdOrderByTimestampAsc(channelId)
-                                .flatMap(message -> userRepository.findById(message.getSender())
-                                        .map(user -> ChatMessageDTO.from(message, user)))
-                                .flatMap(msg -> chatRedisRepository.saveMessage(msg).thenReturn(msg))
-                )
+                .switchIfEmpty(Flux.defer(() ->
+                        // 파티션 전체가 아니라 Redis 에 캐시하는 개수만큼 최근 메시지만 조회
+                        chatRepository.findPage(channelId, ChatHistoryCursor.of(null, null), chatCacheProperties.maxMessages())
+                                .flatMapMany(page -> {
+                                    List<ChatMessage> ascending = new ArrayList<>(page.items());
+                                    Collections.reverse(ascending);
+                                    return toMessageDTOs(ascending);
+                                })
+                                .collectList()
+                                .flatMapMany(messages -> cacheRecentMessages(channelId, messages)
+                                        .thenMany(Flux.fromIterable(messages)))
+                ))
                 .doOnSubscribe(s -> log.info("Fetching messages for channel: {}", channelId))
                 .doOnComplete(() -> log.info("Completed fetching messages for channel: {}", channelId))
                 .doOnError(e -> log.error("Error fetching messages for channel {}: {}", channelId, e.getMessage()));
     }
 
+    /**
+     * DynamoDB 에서 cursor 범위의 메시지를 최신 메시지부터 limit 개 조회
+     */
+    public Mono<ChatHistoryPage> getChannelMessageHistory(Long channelId, ChatHistoryCursor cursor, int limit) {
+        if (cursor.isEmptyRange()) {
+            return Mono.just(ChatHistoryPage.of(Flux.empty(), null));
+        }
+        return chatRepository.findPage(channelId, cursor, limit)
+                .map(page -> ChatHistoryPage.of(
+                        toMessageDTOs(page.items()),
+                        nextCursorOf(page, cursor)))
+                .defaultIfEmpty(ChatHistoryPage.of(Flux.empty(), null))
+                .doOnError(e -> log.error("Error fetching message history for channel {}: {}", channelId, e.getMessage()));
+    }
+
     public Mono<Void> deleteChannelMessages(Long channelId) {
         return Mono.when(
                         chatRepository.deleteByChannelId(channelId),
@@ -81,4 +106,36 @@ public class ChatService {
                 ).doOnSuccess(v -> log.info("Deleted all messages for channel: {}", channelId))
                 .doOnError(e -> log.error("Error deleting messages for channel {}: {}", channelId, e.getMessage()));
     }
-}
\ No newline at end of file
+
+    // 발신자를 중복 없이 한 번의 쿼리로 조회해서 메모리에서 붙임 (발신자가 없는 메시지는 제외)
+    private Flux<ChatMessageDTO> toMessageDTOs(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return Flux.empty();
+        }
+        Set<String> senders = messages.stream().map(ChatMessage::getSender).collect(Collectors.toSet());
+        return userRepository.findAllById(senders)
+                .collectMap(User::getEmail)
+                .flatMapIterable(users -> messages.stream()
+                        .filter(message -> users.containsKey(message.getSender()))
+                        .map(message -> ChatMessageDTO.from(message, users.get(message.getSender())))
+                        .toList());
+    }
+
+    // 캐시 저장에 실패해도 조회 결과는 그대로 반환
+    private Mono<Void> cacheRecentMessages(Long channelId, List<ChatMessageDTO> messages) {
+        if (messages.isEmpty()) {
+            return Mono.empty();
+        }
+        return chatRedisRepository.saveMessages(channelId, messages)
+                .onErrorResume(e -> {
+                    log.error("Failed to cache messages for channel {}: {}", channelId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private ChatHistoryCursor nextCursorOf(Page<ChatMessage> page, ChatHistoryCursor cursor) {
+        List<ChatMessage> items = page.items();
+        if (page.lastEvaluatedKey() == null || items.isEmpty()) return null;
+        return cursor.next(items.get(items.size() - 1).getTimestamp());
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.pitching.user.dto.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("app.topology-cache")
+public record TopologyCacheProperties(long maximumSize, Duration ttl) {
+    public TopologyCacheProperties {
+        if (maximumSize <= 0) maximumSize = 10_000;
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) ttl = Duration.ofMinutes(10);
+    }
+}
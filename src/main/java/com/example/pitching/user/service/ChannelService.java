@@ -17,6 +17,7 @@ import reactor.core.publisher.Mono;
 public class ChannelService {
     private final ChannelRepository channelRepository;
     private final ServerRepository serverRepository;
+    private final TopologyCache topologyCache;
 
     public Mono<Channel> createChannel(Long serverId, CreateChannelRequest request) {
         return Mono.just(request)
@@ -24,13 +25,15 @@ public class ChannelService {
                         .then(getNextChannelPosition(serverId))
                         .map(position -> createChannelEntity(serverId, req, position))
                         .flatMap(this::saveChannel)
+                        .doOnNext(channel -> topologyCache.invalidateChannel(channel.getChannelId()))
                 );
     }
 
     public Mono<Boolean> isValidChannel(Long serverId, Long channelId) {
-        return channelRepository.findById(channelId)
-                .map(channel -> serverId.equals(channel.getServerId()))
-                .defaultIfEmpty(false);
+        return topologyCache.getServerIdOfChannel(channelId, () -> channelRepository.findById(channelId)
+                        .map(Channel::getServerId)
+                        .defaultIfEmpty(TopologyCache.NO_SERVER))
+                .map(serverId::equals);
     }
 
     private Mono<Server> validateServer(Long serverId) {
@@ -66,7 +69,8 @@ public class ChannelService {
     public Mono<Channel> updateChannelName(Long channelId, String newName) {
         return findChannelById(channelId)
                 .map(channel -> updateChannelWithNewName(channel, newName))
-                .flatMap(this::saveChannel);
+                .flatMap(this::saveChannel)
+                .doOnNext(channel -> topologyCache.invalidateChannel(channelId));
     }
 
     private Mono<Channel> findChannelById(Long channelId) {
@@ -88,7 +92,8 @@ public class ChannelService {
 
     public Mono<Void> deleteChannel(Long channelId) {
         return findChannelById(channelId)
-                .then(channelRepository.deleteById(channelId));
+                .then(channelRepository.deleteById(channelId))
+                .doOnSuccess(ignored -> topologyCache.invalidateChannel(channelId));
     }
 
     public Flux<Channel> getChannelsByServerId(Long serverId) {
@@ -26,6 +26,7 @@ public class ServerService {
     private final UserServerMembershipRepository userServerMembershipRepository;
     private final S3FileStorageService fileStorageService;
     private final ServerMemberCounter memberCounter;
+    private final TopologyCache topologyCache;
 
     private <T> Mono<T> mapCommonError(Mono<T> mono) {
         return mono
@@ -40,6 +41,7 @@ public class ServerService {
                 serverRepository.save(Server.createNewServer(
                                 request.server_name(),
                                 request.server_image()))
+                        .doOnNext(server -> topologyCache.invalidateServer(server.getServerId()))
                         .flatMap(server -> memberCounter.initializeCount(server.getServerId(), 0L)
                                 .then(memberCounter.incrementCount(server.getServerId()))
                                 .then(Mono.just(server)))
@@ -91,6 +93,7 @@ public class ServerService {
                 .flatMap(__ -> findServer(serverId))
                 .doOnNext(server -> server.setServerName(newName))
                 .flatMap(serverRepository::save)
+                .doOnNext(server -> topologyCache.invalidateServer(serverId))
                 .map(this::mapToResponse)
                 .transform(this::mapCommonError);
     }
@@ -117,7 +120,7 @@ public class ServerService {
     }
 
     public Mono<Boolean> isValidServer(Long serverId) {
-        return serverRepository.existsById(serverId);
+        return topologyCache.isExistingServer(serverId, () -> serverRepository.existsById(serverId));
     }
 
     private Mono<Server> findServer(Long serverId) {
@@ -149,7 +152,8 @@ public class ServerService {
                 .flatMap(__ -> {
                     Mono<Void> deleteImage = server.getServerImage() != null ?
                             fileStorageService.delete(server.getServerImage()) : Mono.empty();
-                    return deleteImage.then(serverRepository.deleteById(serverId));
+                    return deleteImage.then(serverRepository.deleteById(serverId))
+                            .doOnSuccess(ignored -> topologyCache.invalidateServer(serverId));
                 });
     }
 
@@ -0,0 +1,109 @@
+package com.example.pitching.user.service;
+
+import com.example.pitching.user.dto.properties.TopologyCacheProperties;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 시그널링 요청마다 확인하는 채널 -> 서버, 서버 존재 여부를 노드 안에 캐시
+ * 채널/서버 생성, 수정, 삭제 시 로컬에서 바로 지우고 topology:invalidation 으로 다른 노드에도 알린다
+ */
+@Slf4j
+@Component
+public class TopologyCache {
+    // 존재하지 않는 채널 (없는 채널로 반복 요청해도 DB 를 조회하지 않음)
+    public static final Long NO_SERVER = -1L;
+    private static final String INVALIDATION_CHANNEL = "topology:invalidation";
+    private static final String CHANNEL_PREFIX = "channel:";
+    private static final String SERVER_PREFIX = "server:";
+    private final AsyncCache<Long, Long> serverIdByChannelId;
+    private final AsyncCache<Long, Boolean> serverExists;
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public TopologyCache(TopologyCacheProperties topologyCacheProperties, ReactiveStringRedisTemplate redisTemplate) {
+        this.serverIdByChannelId = buildCache(topologyCacheProperties);
+        this.serverExists = buildCache(topologyCacheProperties);
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @param loader 캐시에 없을 때 DB 에서 서버 ID 를 조회 (채널이 없으면 NO_SERVER)
+     * 같은 채널을 동시에 조회해도 DB 조회는 한 번만 한다
+     */
+    public Mono<Long> getServerIdOfChannel(Long channelId, Supplier<Mono<Long>> loader) {
+        return Mono.fromFuture(() -> serverIdByChannelId.get(channelId, (key, executor) -> loader.get().toFuture()));
+    }
+
+    public Mono<Boolean> isExistingServer(Long serverId, Supplier<Mono<Boolean>> loader) {
+        return Mono.fromFuture(() -> serverExists.get(serverId, (key, executor) -> loader.get().toFuture()));
+    }
+
+    public void invalidateChannel(Long channelId) {
+        evictChannel(channelId);
+        publishInvalidation(CHANNEL_PREFIX + channelId);
+    }
+
+    public void invalidateServer(Long serverId) {
+        evictServer(serverId);
+        publishInvalidation(SERVER_PREFIX + serverId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribeInvalidation() {
+        redisTemplate.listenToChannel(INVALIDATION_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnNext(this::onInvalidation)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> {
+                            // 구독이 끊긴 동안의 무효화 메시지는 받을 수 없으므로 전부 비움
+                            serverIdByChannelId.synchronous().invalidateAll();
+                            serverExists.synchronous().invalidateAll();
+                            log.error("Topology invalidation subscription failed, retrying : ", signal.failure());
+                        }))
+                .subscribe();
+    }
+
+    void onInvalidation(String message) {
+        if (message.startsWith(CHANNEL_PREFIX)) {
+            evictChannel(Long.valueOf(message.substring(CHANNEL_PREFIX.length())));
+        } else if (message.startsWith(SERVER_PREFIX)) {
+            evictServer(Long.valueOf(message.substring(SERVER_PREFIX.length())));
+        } else {
+            log.warn("Unknown topology invalidation : {}", message);
+        }
+    }
+
+    private void evictChannel(Long channelId) {
+        serverIdByChannelId.synchronous().invalidate(channelId);
+    }
+
+    // 서버가 삭제되면 해당 서버의 채널도 함께 지움
+    private void evictServer(Long serverId) {
+        serverExists.synchronous().invalidate(serverId);
+        serverIdByChannelId.synchronous().asMap().values().removeIf(cached -> Objects.equals(cached, serverId));
+    }
+
+    private void publishInvalidation(String message) {
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message)
+                .subscribe(null, e -> log.error("Failed to publish topology invalidation {} : ", message, e));
+    }
+
+    private static <V> AsyncCache<Long, V> buildCache(TopologyCacheProperties topologyCacheProperties) {
+        return Caffeine.newBuilder()
+                .maximumSize(topologyCacheProperties.maximumSize())
+                .expireAfterWrite(topologyCacheProperties.ttl())
+                .buildAsync();
+    }
+}
@@ -0,0 +1,8 @@
+-- 채팅 메시지 캐시에 메시지를 추가하고 최근 메시지만 남긴 뒤 TTL 을 갱신 (원자적으로 처리)
+-- KEYS[1] : chat:messages:%d
+-- ARGV[1] : 남길 최대 메시지 수, ARGV[2] : idle TTL (밀리초), ARGV[3..] : 메시지 JSON ...
+-- return : 남은 메시지 수
+redis.call('RPUSH', KEYS[1], unpack(ARGV, 3))
+redis.call('LTRIM', KEYS[1], -tonumber(ARGV[1]), -1)
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+return redis.call('LLEN', KEYS[1])
@@ -0,0 +1,29 @@
+-- 채널 입장 (voice state 추가 또는 채널 변경) 과 ENTER_CHANNEL_EVENT XADD 를 원자적으로 처리
+-- KEYS[1] : server:%d:call, KEYS[2] : server:%d:events
+-- ARGV[1] : user_id, ARGV[2] : 새 voice state "flags:channel_id:channel_type", ARGV[3] : channel_id, ARGV[4] : channel_type
+-- ARGV[5] : stream maxlen, ARGV[6..] : stream field value ...
+-- return : 저장된 voice state
+local current = redis.call('HGET', KEYS[1], ARGV[1])
+local voiceState = ARGV[2]
+if current then
+    local flags, channelId
+    if string.sub(current, 1, 1) == '{' then
+        -- 압축 형식 이전에 저장된 JSON
+        local state = cjson.decode(current)
+        flags = (state['muted'] and 1 or 0) + (state['deafened'] and 2 or 0)
+                + (state['camera_on'] and 4 or 0) + (state['screen_sharing'] and 8 or 0)
+        channelId = string.format('%d', state['channel_id'])
+    else
+        flags, channelId = string.match(current, '^(%d+):(%d+):')
+    end
+    if channelId ~= ARGV[3] or string.sub(current, 1, 1) == '{' then
+        voiceState = flags .. ':' .. ARGV[3] .. ':' .. ARGV[4]
+        redis.call('HSET', KEYS[1], ARGV[1], voiceState)
+    else
+        voiceState = current
+    end
+else
+    redis.call('HSET', KEYS[1], ARGV[1], voiceState)
+end
+redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[5], '*', unpack(ARGV, 6))
+return voiceState
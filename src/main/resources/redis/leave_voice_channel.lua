@@ -0,0 +1,6 @@
+-- 채널 퇴장 (voice state 삭제) 과 LEAVE_CHANNEL_EVENT XADD 를 원자적으로 처리
+-- KEYS[1] : server:%d:call, KEYS[2] : server:%d:events
+-- ARGV[1] : user_id, ARGV[2] : stream maxlen, ARGV[3..] : stream field value ...
+-- return : 스트림 레코드 ID
+redis.call('HDEL', KEYS[1], ARGV[1])
+return redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[2], '*', unpack(ARGV, 3))
@@ -0,0 +1,19 @@
+-- 음성 상태 변경을 한 번의 왕복으로 처리 (flags 부분만 교체)
+-- KEYS[1] : server:%d:call
+-- ARGV[1] : user_id, ARGV[2] : flags (muted 1, deafened 2, camera_on 4, screen_sharing 8)
+-- return : 변경된 voice state "flags:channel_id:channel_type" (채널에 없으면 nil)
+local current = redis.call('HGET', KEYS[1], ARGV[1])
+if not current then
+    return false
+end
+local channel
+if string.sub(current, 1, 1) == '{' then
+    -- 압축 형식 이전에 저장된 JSON
+    local state = cjson.decode(current)
+    channel = string.format(':%d:%s', state['channel_id'], state['channel_type'])
+else
+    channel = string.match(current, '^%d+(:.*)$')
+end
+local updated = ARGV[2] .. channel
+redis.call('HSET', KEYS[1], ARGV[1], updated)
+return updated
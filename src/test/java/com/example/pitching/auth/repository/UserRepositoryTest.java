@@ -1,5 +1,6 @@
 package com.example.pitching.auth.repository;
 
+import com.example.pitching.auth.domain.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,8 @@ import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.test.context.ActiveProfiles;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataR2dbcTest
@@ -56,6 +59,23 @@ class UserRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("여러 user_id 로 사용자를 한 번에 조회한다")
+    void findAllByUserIdIn() {
+        // given
+        createTestUser();
+        userRepository.insertUser("other@example.com", "otherUser", TEST_PASSWORD, TEST_ROLE).block();
+        Long userId = userRepository.findByEmail(TEST_EMAIL).map(User::getUserId).block();
+        Long otherUserId = userRepository.findByEmail("other@example.com").map(User::getUserId).block();
+
+        // when & then
+        StepVerifier.create(userRepository.findAllByUserIdIn(List.of(userId, otherUserId, -1L))
+                        .map(User::getUsername)
+                        .collectList())
+                .assertNext(usernames -> assertThat(usernames).containsExactlyInAnyOrder(TEST_USERNAME, "otherUser"))
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("이메일의 존재 여부를 확인한다")
     void existsByEmail() {
@@ -0,0 +1,48 @@
+package com.example.pitching.benchmark;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * @Tag("benchmark") 테스트에서 사용하는 간단한 측정 도구
+ * JMH 없이 현재 스레드의 할당량과 소요 시간을 측정한다 (./gradlew benchmark)
+ */
+public final class Benchmarks {
+    private static final int WARMUP_ITERATIONS = 20_000;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @return 한 번 실행할 때 현재 스레드에서 할당한 평균 바이트
+     */
+    public static double allocatedBytesPerOp(Runnable operation, int iterations) {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        repeat(operation, WARMUP_ITERATIONS);
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        repeat(operation, iterations);
+        long after = threadMXBean.getThreadAllocatedBytes(threadId);
+        return (double) (after - before) / iterations;
+    }
+
+    /**
+     * @return 한 번 실행하는 데 걸린 평균 나노초
+     */
+    public static double nanosPerOp(Runnable operation, int iterations) {
+        repeat(operation, WARMUP_ITERATIONS);
+        long start = System.nanoTime();
+        repeat(operation, iterations);
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+
+    public static void report(String name, String unit, double before, double after) {
+        System.out.printf("[benchmark] %-45s before=%12.1f %s  after=%12.1f %s%n", name, before, unit, after, unit);
+    }
+
+    private static void repeat(Runnable operation, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+    }
+}
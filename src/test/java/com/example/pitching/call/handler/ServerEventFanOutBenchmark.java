@@ -0,0 +1,59 @@
+package com.example.pitching.call.handler;
+
+import com.example.pitching.benchmark.Benchmarks;
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.operation.Frame;
+import com.example.pitching.call.operation.code.ResponseOperation;
+import com.example.pitching.call.operation.response.StateResponse;
+import com.example.pitching.call.service.ConvertService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+class ServerEventFanOutBenchmark {
+    private static final int ITERATIONS = 20_000;
+    private static final int SUBSCRIBERS = 100;
+    private static final String SEQUENCE = "1731800000000-0";
+
+    private final ConvertService convertService = new ConvertService(new ObjectMapper());
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private final String jsonData = convertService.convertObjectToJson(
+            new StateResponse("7", "tester", 1L, 2L, ChannelType.VOICE, true, false, false, false));
+    private final String operation = String.valueOf(ResponseOperation.UPDATE_STATE_EVENT.getCode());
+    private WebSocketMessage sink;
+
+    @Test
+    void fanOutOneStateChangeToOneHundredMembers() {
+        // 기존 : String 하나를 구독자마다 session.textMessage 로 UTF-8 인코딩
+        Runnable encodePerSubscriber = () -> {
+            String serverEvent = convertService.convertStreamMessageToFrame(operation, jsonData, SEQUENCE, null).toString();
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                sink = new WebSocketMessage(WebSocketMessage.Type.TEXT,
+                        bufferFactory.wrap(serverEvent.getBytes(StandardCharsets.UTF_8)));
+            }
+        };
+        // 변경 : 한 번 인코딩한 Frame 의 버퍼를 구독자들이 공유
+        Runnable sharedFrame = () -> {
+            Frame serverEvent = convertService.convertStreamMessageToFrame(operation, jsonData, SEQUENCE, null);
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                sink = serverEvent.toMessage(bufferFactory);
+            }
+        };
+
+        double before = Benchmarks.allocatedBytesPerOp(encodePerSubscriber, ITERATIONS);
+        double after = Benchmarks.allocatedBytesPerOp(sharedFrame, ITERATIONS);
+        Benchmarks.report("fan-out to " + SUBSCRIBERS + " members, allocation", "B", before, after);
+        Benchmarks.report("fan-out to " + SUBSCRIBERS + " members, time", "ns",
+                Benchmarks.nanosPerOp(encodePerSubscriber, ITERATIONS), Benchmarks.nanosPerOp(sharedFrame, ITERATIONS));
+
+        assertThat(after).isLessThan(before);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.pitching.call.operation;
+
+import com.example.pitching.benchmark.Benchmarks;
+import com.example.pitching.call.dto.properties.EndpointPoolProperties;
+import com.example.pitching.call.dto.properties.IceCandidateBatchProperties;
+import com.example.pitching.call.service.ConvertService;
+import com.example.pitching.call.service.KmsInstance;
+import com.example.pitching.kurento.FakeKurentoServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.KurentoClient;
+import org.kurento.client.MediaPipeline;
+import org.springframework.web.reactive.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 8명이 있는 영상 채널에 입장해서 모든 참여자의 SDP answer 를 받을 때까지 걸리는 시간 (time-to-first-frame 의 시그널링 구간)
+ * KMS 왕복은 FakeKurentoServer 의 latency 로 흉내낸다
+ */
+@Tag("benchmark")
+class EndpointPoolBenchmark {
+    private static final Duration KMS_LATENCY = Duration.ofMillis(2);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int PARTICIPANTS = 8;
+    private static final int ROUNDS = 20;
+
+    private final ConvertService convertService = new ConvertService(new ObjectMapper());
+    private final WebSocketSession session = mock(WebSocketSession.class);
+    private final UserSink userSink = mock(UserSink.class);
+
+    @Test
+    void joinVideoRoom() throws Exception {
+        double before = millisToAllAnswers(new EndpointPoolProperties(0, null));
+        double after = millisToAllAnswers(new EndpointPoolProperties(PARTICIPANTS, null));
+        Benchmarks.report("join " + PARTICIPANTS + "-person video room", "ms", before, after);
+
+        assertThat(after).isLessThan(before);
+    }
+
+    private double millisToAllAnswers(EndpointPoolProperties properties) throws Exception {
+        KurentoClient kurentoClient = new FakeKurentoServer(KMS_LATENCY).createClient();
+        try {
+            MediaPipeline pipeline = kurentoClient.createMediaPipeline();
+            EndpointPool endpointPool = EndpointPool.of(pipeline, properties, KmsInstance.of("fake", kurentoClient));
+            List<UserSession> senders = new ArrayList<>();
+            for (int i = 1; i < PARTICIPANTS; i++) {
+                senders.add(join("sender-" + i, endpointPool));
+            }
+            long elapsed = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                endpointPool.warmUp();
+                await().atMost(TIMEOUT).until(() -> endpointPool.size() == properties.size());
+                long start = System.nanoTime();
+                UserSession user = join("user-" + round, endpointPool);
+                for (UserSession sender : senders) {
+                    user.receiveVideoFrom(sender, "offer", convertService).block(TIMEOUT);
+                }
+                elapsed += System.nanoTime() - start;
+                user.close();
+            }
+            return elapsed / 1_000_000.0 / ROUNDS;
+        } finally {
+            kurentoClient.destroy();
+        }
+    }
+
+    private UserSession join(String userId, EndpointPool endpointPool) {
+        return UserSession.of(userId, 1L, session, userSink, endpointPool, IceCandidateBatchProperties.DISABLED, convertService)
+                .block(TIMEOUT);
+    }
+}
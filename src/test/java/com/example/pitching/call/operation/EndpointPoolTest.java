@@ -0,0 +1,89 @@
+package com.example.pitching.call.operation;
+
+import com.example.pitching.call.dto.properties.EndpointPoolProperties;
+import com.example.pitching.call.service.KmsInstance;
+import com.example.pitching.kurento.FakeKurentoServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.KurentoClient;
+import org.kurento.client.WebRtcEndpoint;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointPoolTest {
+    private static final String ENDPOINT = "WebRtcEndpoint";
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final FakeKurentoServer kurentoServer = new FakeKurentoServer();
+    private KurentoClient kurentoClient;
+    private KmsInstance kms;
+    private VirtualTimeScheduler scheduler;
+    private EndpointPool endpointPool;
+
+    @BeforeEach
+    void setUp() {
+        kurentoClient = kurentoServer.createClient();
+        scheduler = VirtualTimeScheduler.create();
+        kms = KmsInstance.of("fake", kurentoClient);
+        endpointPool = new EndpointPool(kurentoClient.createMediaPipeline(), new EndpointPoolProperties(2, IDLE_TIMEOUT), kms, scheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        kurentoClient.destroy();
+        scheduler.dispose();
+    }
+
+    @Test
+    @DisplayName("미리 만든 endpoint 를 꺼내주고 꺼낸 만큼 다시 채운다")
+    void acquire_FromPool() {
+        endpointPool.warmUp();
+        assertThat(endpointPool.size()).isEqualTo(2);
+
+        WebRtcEndpoint endpoint = endpointPool.acquire().block(TIMEOUT);
+
+        assertThat(endpoint).isNotNull();
+        assertThat(endpointPool.size()).isEqualTo(2);
+        assertThat(kurentoServer.created(ENDPOINT)).isEqualTo(3);
+        assertThat(kms.getEndpoints()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("idle timeout 동안 쓰이지 않은 endpoint 는 해제한다")
+    void expire_AfterIdleTimeout() {
+        endpointPool.warmUp();
+        scheduler.advanceTimeBy(IDLE_TIMEOUT);
+
+        assertThat(endpointPool.size()).isZero();
+        assertThat(kurentoServer.alive(ENDPOINT)).isZero();
+        assertThat(kms.getEndpoints()).isZero();
+    }
+
+    @Test
+    @DisplayName("꺼내 간 endpoint 는 idle timeout 이 지나도 해제하지 않는다")
+    void acquired_NotExpired() {
+        endpointPool.warmUp();
+        endpointPool.acquire().block(TIMEOUT);
+        endpointPool.close();
+        scheduler.advanceTimeBy(IDLE_TIMEOUT);
+
+        assertThat(kurentoServer.alive(ENDPOINT)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("닫으면 남은 endpoint 를 해제하고 더 이상 채우지 않는다")
+    void close_ReleasePooled() {
+        endpointPool.warmUp();
+        endpointPool.close();
+        endpointPool.warmUp();
+
+        assertThat(endpointPool.size()).isZero();
+        assertThat(kurentoServer.alive(ENDPOINT)).isZero();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.pitching.call.operation;
+
+import com.example.pitching.call.dto.properties.IceCandidateBatchProperties;
+import com.example.pitching.call.service.ConvertService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.IceCandidate;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IceCandidateBatcherTest {
+    private static final Duration WINDOW = Duration.ofMillis(20);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConvertService convertService = new ConvertService(objectMapper);
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final List<Frame> sent = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    @DisplayName("window 동안 모인 candidate 를 sender 별 ICE_CANDIDATES 프레임 하나로 보낸다")
+    void batchBySender() throws Exception {
+        IceCandidateBatcher batcher = createBatcher(new IceCandidateBatchProperties(16, WINDOW));
+
+        batcher.add("a", candidate("1"));
+        batcher.add("b", candidate("2"));
+        batcher.add("a", candidate("3"));
+        assertThat(sent).isEmpty();
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(sent).hasSize(2);
+        JsonNode first = objectMapper.readTree(sent.get(0).toString());
+        assertThat(first.get("op").asInt()).isEqualTo(19);
+        assertThat(first.at("/data/userId").asText()).isEqualTo("a");
+        assertThat(first.at("/data/candidates")).hasSize(2);
+        assertThat(objectMapper.readTree(sent.get(1).toString()).at("/data/userId").asText()).isEqualTo("b");
+    }
+
+    @Test
+    @DisplayName("maxSize 개가 모이면 window 를 기다리지 않고 보낸다")
+    void flushOnMaxSize() {
+        IceCandidateBatcher batcher = createBatcher(new IceCandidateBatchProperties(2, WINDOW));
+
+        batcher.add("a", candidate("1"));
+        batcher.add("a", candidate("2"));
+
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("배치를 지원하지 않는 클라이언트에는 ICE_CANDIDATE 로 하나씩 보낸다")
+    void disabled() throws Exception {
+        IceCandidateBatcher batcher = createBatcher(IceCandidateBatchProperties.DISABLED);
+
+        batcher.add("a", candidate("1"));
+        batcher.add("a", candidate("2"));
+
+        assertThat(sent).hasSize(2);
+        assertThat(objectMapper.readTree(sent.get(0).toString()).get("op").asInt()).isEqualTo(16);
+    }
+
+    private IceCandidateBatcher createBatcher(IceCandidateBatchProperties properties) {
+        return new IceCandidateBatcher(properties, sent::add, convertService, scheduler);
+    }
+
+    private IceCandidate candidate(String foundation) {
+        return new IceCandidate("candidate:" + foundation + " 1 udp 2122260223 10.0.0.1 50000 typ host", "0", 0);
+    }
+}
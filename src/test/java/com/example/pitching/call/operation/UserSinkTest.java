@@ -0,0 +1,134 @@
+package com.example.pitching.call.operation;
+
+import com.example.pitching.call.dto.OverflowPolicy;
+import com.example.pitching.call.dto.properties.UserSinkProperties;
+import com.example.pitching.call.service.UserSinkMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSinkTest {
+
+    private final UserSinkMetrics metrics = new UserSinkMetrics(new SimpleMeterRegistry());
+    private final AtomicBoolean disconnected = new AtomicBoolean();
+
+    @Test
+    @DisplayName("DROP_OLDEST : 큐가 가득 차면 가장 오래된 이벤트를 버린다")
+    void dropOldest() {
+        UserSink userSink = createUserSink(OverflowPolicy.DROP_OLDEST);
+
+        userSink.tryEmitNext(frame("1", null));
+        userSink.tryEmitNext(frame("2", null));
+        userSink.tryEmitNext(frame("3", null));
+
+        assertThat(metrics.getQueueDepth()).isEqualTo(2);
+        assertThat(metrics.getOverflowCount(OverflowPolicy.DROP_OLDEST)).isEqualTo(1);
+        StepVerifier.create(userSink.getUserSinkAsFlux().map(Frame::toString), 2)
+                .expectNext("2", "3")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        assertThat(metrics.getQueueDepth()).isZero();
+        assertThat(disconnected).isFalse();
+    }
+
+    @Test
+    @DisplayName("COALESCE_STATE : 같은 유저의 이전 상태 이벤트를 최신 이벤트로 대체한다")
+    void coalesceState() {
+        UserSink userSink = createUserSink(OverflowPolicy.COALESCE_STATE);
+
+        userSink.tryEmitNext(frame("state-1", "7"));
+        userSink.tryEmitNext(frame("enter", null));
+        userSink.tryEmitNext(frame("state-2", "7"));
+
+        assertThat(metrics.getOverflowCount(OverflowPolicy.COALESCE_STATE)).isEqualTo(1);
+        StepVerifier.create(userSink.getUserSinkAsFlux().map(Frame::toString), 2)
+                .expectNext("enter", "state-2")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("COALESCE_STATE : 대체할 상태 이벤트가 없으면 연결을 끊는다")
+    void coalesceState_Disconnect() {
+        UserSink userSink = createUserSink(OverflowPolicy.COALESCE_STATE);
+
+        userSink.tryEmitNext(frame("enter", null));
+        userSink.tryEmitNext(frame("state-1", "7"));
+        userSink.tryEmitNext(frame("state-2", "8"));
+
+        assertThat(disconnected).isTrue();
+        assertThat(metrics.getOverflowCount(OverflowPolicy.DISCONNECT)).isEqualTo(1);
+        assertThat(metrics.getQueueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("DISCONNECT : 큐가 가득 차면 느린 클라이언트의 연결을 끊는다")
+    void disconnect() {
+        UserSink userSink = createUserSink(OverflowPolicy.DISCONNECT);
+
+        userSink.tryEmitNext(frame("1", null));
+        userSink.tryEmitNext(frame("2", null));
+        userSink.tryEmitNext(frame("3", null));
+        userSink.tryEmitNext(frame("4", null));
+
+        assertThat(disconnected).isTrue();
+        assertThat(userSink.size()).isZero();
+        StepVerifier.create(userSink.getUserSinkAsFlux())
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @ParameterizedTest
+    @EnumSource(OverflowPolicy.class)
+    @DisplayName("큐가 가득 차도 시그널링 프레임은 버리지 않고 서버 이벤트보다 먼저 보낸다")
+    void signalSurvivesFullQueue(OverflowPolicy overflowPolicy) {
+        UserSink userSink = createUserSink(overflowPolicy);
+
+        userSink.tryEmitNext(frame("state-1", "7"));
+        userSink.tryEmitNext(frame("state-2", "8"));
+        userSink.tryEmitSignal(frame("answer", null));
+        userSink.tryEmitSignal(frame("candidate", null));
+
+        assertThat(disconnected).isFalse();
+        assertThat(metrics.getQueueDepth()).isEqualTo(2);
+        StepVerifier.create(userSink.getUserSinkAsFlux().map(Frame::toString), 4)
+                .expectNext("answer", "candidate", "state-1", "state-2")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("구독자가 요청한 만큼만 꺼내고 나머지는 큐에 남긴다")
+    void backpressure() {
+        UserSink userSink = createUserSink(OverflowPolicy.DISCONNECT);
+
+        StepVerifier.create(userSink.getUserSinkAsFlux().map(Frame::toString), 1)
+                .then(() -> {
+                    userSink.tryEmitNext(frame("1", null));
+                    userSink.tryEmitNext(frame("2", null));
+                })
+                .expectNext("1")
+                .then(() -> assertThat(userSink.size()).isEqualTo(1))
+                .thenRequest(1)
+                .expectNext("2")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        assertThat(disconnected).isFalse();
+    }
+
+    private UserSink createUserSink(OverflowPolicy overflowPolicy) {
+        return UserSink.of(new UserSinkProperties(2, overflowPolicy), metrics, () -> disconnected.set(true));
+    }
+
+    private Frame frame(String message, String coalesceKey) {
+        return Frame.of(message.getBytes(), coalesceKey);
+    }
+}
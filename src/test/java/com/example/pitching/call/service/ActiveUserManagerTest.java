@@ -0,0 +1,131 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.exception.WrongAccessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveUserManagerTest {
+    private static final String USER_ID = "7";
+    private static final String ACTIVE_USER_KEY = "user:active:7";
+
+    @Mock
+    private ReactiveStringRedisTemplate redisTemplate;
+    @Mock
+    private ReactiveValueOperations<String, String> valueOperations;
+
+    private ActiveUserManager activeUserManager;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        activeUserManager = new ActiveUserManager(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("서버 입장은 GETSET 한 번으로 처리하고, 이후 접근 확인은 Redis 를 조회하지 않는다")
+    void isCorrectAccess_ServedLocally() {
+        when(valueOperations.getAndSet(ACTIVE_USER_KEY, "1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(activeUserManager.addUserActiveToRedisIfServerIdChanged(USER_ID, "1"))
+                .expectNext(true)
+                .verifyComplete();
+        for (int i = 0; i < 10; i++) {
+            StepVerifier.create(activeUserManager.isCorrectAccess(USER_ID, 1L))
+                    .expectNext("1")
+                    .verifyComplete();
+        }
+
+        verify(valueOperations).getAndSet(ACTIVE_USER_KEY, "1");
+        verifyNoMoreInteractions(valueOperations);
+    }
+
+    @Test
+    @DisplayName("다른 서버로 이동하면 구독을 다시 해야 하고, 이전 서버로의 접근은 거부한다")
+    void addUserActive_MoveToOtherServer() {
+        when(valueOperations.getAndSet(ACTIVE_USER_KEY, "2")).thenReturn(Mono.just("1"));
+
+        StepVerifier.create(activeUserManager.addUserActiveToRedisIfServerIdChanged(USER_ID, "2"))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertThat(activeUserManager.isSubscriptionRequired(USER_ID)).isTrue();
+        StepVerifier.create(activeUserManager.isCorrectAccess(USER_ID, 1L))
+                .expectError(WrongAccessException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("GETSET 이 실패하면 로컬 값을 남기지 않고 접근 확인 때 Redis 에서 읽는다")
+    void addUserActive_RedisFailure() {
+        when(valueOperations.getAndSet(ACTIVE_USER_KEY, "1")).thenReturn(Mono.error(new IllegalStateException("redis down")));
+        when(valueOperations.get(ACTIVE_USER_KEY)).thenReturn(Mono.empty());
+
+        StepVerifier.create(activeUserManager.addUserActiveToRedisIfServerIdChanged(USER_ID, "1"))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        StepVerifier.create(activeUserManager.isCorrectAccess(USER_ID, 1L))
+                .expectError(WrongAccessException.class)
+                .verify();
+        verify(valueOperations).get(ACTIVE_USER_KEY);
+    }
+
+    @Test
+    @DisplayName("다른 노드가 바인딩을 바꾼 것을 GETSET 의 이전 값으로 확인하면 로컬 값을 지우고 Redis 에서 다시 읽는다")
+    void addUserActive_TakenOverByOtherNode() {
+        when(valueOperations.getAndSet(ACTIVE_USER_KEY, "1")).thenReturn(Mono.empty());
+        // 이 노드가 마지막으로 쓴 값은 1 이지만 그 사이 다른 노드가 3 으로 바꿈
+        when(valueOperations.getAndSet(ACTIVE_USER_KEY, "2")).thenReturn(Mono.just("3"));
+        when(valueOperations.get(ACTIVE_USER_KEY)).thenReturn(Mono.just("2"));
+        activeUserManager.addUserActiveToRedisIfServerIdChanged(USER_ID, "1").block();
+
+        StepVerifier.create(activeUserManager.addUserActiveToRedisIfServerIdChanged(USER_ID, "2"))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertThat(activeUserManager.isSubscriptionRequired(USER_ID)).isTrue();
+        StepVerifier.create(activeUserManager.isCorrectAccess(USER_ID, 2L))
+                .expectNext("2")
+                .verifyComplete();
+        verify(valueOperations).get(ACTIVE_USER_KEY);
+    }
+
+    @Test
+    @DisplayName("로컬에 없는 유저는 Redis 에서 한 번 읽어서 채운다")
+    void isCorrectAccess_LoadFromRedis() {
+        when(valueOperations.get(ACTIVE_USER_KEY)).thenReturn(Mono.just("1"));
+
+        activeUserManager.isCorrectAccess(USER_ID, 1L).block();
+        activeUserManager.isCorrectAccess(USER_ID, 1L).block();
+
+        verify(valueOperations, times(1)).get(anyString());
+    }
+
+    @Test
+    @DisplayName("서버에서 나가면 로컬 값도 지운다")
+    void removeUserActive() {
+        when(valueOperations.getAndSet(ACTIVE_USER_KEY, "1")).thenReturn(Mono.empty());
+        when(valueOperations.getAndDelete(ACTIVE_USER_KEY)).thenReturn(Mono.just("1"));
+        when(valueOperations.get(ACTIVE_USER_KEY)).thenReturn(Mono.empty());
+        activeUserManager.addUserActiveToRedisIfServerIdChanged(USER_ID, "1").block();
+
+        activeUserManager.removeUserActiveFromRedis(USER_ID).block();
+
+        StepVerifier.create(activeUserManager.isCorrectAccess(USER_ID, 1L))
+                .expectError(WrongAccessException.class)
+                .verify();
+    }
+}
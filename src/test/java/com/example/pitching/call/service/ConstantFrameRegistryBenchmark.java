@@ -0,0 +1,58 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.benchmark.Benchmarks;
+import com.example.pitching.call.dto.properties.ServerProperties;
+import com.example.pitching.call.operation.Event;
+import com.example.pitching.call.operation.Frame;
+import com.example.pitching.call.operation.code.ResponseOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+class ConstantFrameRegistryBenchmark {
+    private static final int ITERATIONS = 200_000;
+
+    private final ConvertService convertService = new ConvertService(new ObjectMapper());
+    private final ServerProperties serverProperties = new ServerProperties(8080,
+            new ServerProperties.Call("ws", "localhost", 8080, "/ws/v1/voice", 1, Duration.ofSeconds(20)));
+    private final ConstantFrameRegistry constantFrameRegistry = new ConstantFrameRegistry(serverProperties, convertService);
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    private WebSocketMessage sink;
+
+    @Test
+    void heartbeatAckAllocation() {
+        double before = Benchmarks.allocatedBytesPerOp(this::serializeHeartbeatAck, ITERATIONS);
+        double after = Benchmarks.allocatedBytesPerOp(this::sendConstantHeartbeatAck, ITERATIONS);
+        Benchmarks.report("HEARTBEAT_ACK allocation per heartbeat", "B", before, after);
+
+        assertThat(after).isLessThan(before);
+    }
+
+    @Test
+    void heartbeatAckLatency() {
+        double before = Benchmarks.nanosPerOp(this::serializeHeartbeatAck, ITERATIONS);
+        double after = Benchmarks.nanosPerOp(this::sendConstantHeartbeatAck, ITERATIONS);
+        Benchmarks.report("HEARTBEAT_ACK time per heartbeat", "ns", before, after);
+    }
+
+    // 기존 방식 : Event 생성 -> Jackson 직렬화 -> String -> UTF-8 인코딩
+    private void serializeHeartbeatAck() {
+        String json = convertService.convertObjectToJson(Event.of(ResponseOperation.HEARTBEAT_ACK, null, null));
+        sink = new WebSocketMessage(WebSocketMessage.Type.TEXT, bufferFactory.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void sendConstantHeartbeatAck() {
+        Frame frame = constantFrameRegistry.get(ResponseOperation.HEARTBEAT_ACK);
+        sink = frame.toMessage(bufferFactory);
+    }
+}
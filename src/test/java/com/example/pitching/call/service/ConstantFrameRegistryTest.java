@@ -0,0 +1,48 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.properties.ServerProperties;
+import com.example.pitching.call.operation.code.ResponseOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConstantFrameRegistryTest {
+
+    private final ServerProperties serverProperties = new ServerProperties(8080,
+            new ServerProperties.Call("ws", "localhost", 8080, "/ws/v1/voice", 1, Duration.ofSeconds(20)));
+    private final ConstantFrameRegistry constantFrameRegistry =
+            new ConstantFrameRegistry(serverProperties, new ConvertService(new ObjectMapper()));
+
+    @Test
+    @DisplayName("HEARTBEAT_ACK 와 INIT_ACK 는 미리 직렬화된 프레임을 반환한다")
+    void get_ConstantFrames() {
+        assertThat(constantFrameRegistry.get(ResponseOperation.HEARTBEAT_ACK).toString())
+                .isEqualTo("{\"op\":11}");
+        assertThat(constantFrameRegistry.get(ResponseOperation.INIT_ACK).toString())
+                .isEqualTo("{\"data\":{\"heartbeat_interval\":20000},\"op\":10}");
+    }
+
+    @Test
+    @DisplayName("같은 프레임을 여러 번 전송해도 공유 버퍼의 내용이 유지된다")
+    void toMessage_ReusesPayload() {
+        var frame = constantFrameRegistry.get(ResponseOperation.HEARTBEAT_ACK);
+
+        String first = frame.toMessage(DefaultDataBufferFactory.sharedInstance).getPayloadAsText();
+        String second = frame.toMessage(DefaultDataBufferFactory.sharedInstance).getPayloadAsText();
+
+        assertThat(first).isEqualTo(second).isEqualTo("{\"op\":11}");
+    }
+
+    @Test
+    @DisplayName("상수가 아닌 operation 은 예외를 던진다")
+    void get_NotConstant() {
+        assertThatThrownBy(() -> constantFrameRegistry.get(ResponseOperation.SERVER_ACK))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
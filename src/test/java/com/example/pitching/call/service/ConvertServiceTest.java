@@ -0,0 +1,129 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.exception.InvalidValueException;
+import com.example.pitching.call.operation.Event;
+import com.example.pitching.call.operation.code.RequestOperation;
+import com.example.pitching.call.operation.code.ResponseOperation;
+import com.example.pitching.call.operation.request.CandidateRequest;
+import com.example.pitching.call.operation.request.ChannelRequest;
+import com.example.pitching.call.operation.request.StateRequest;
+import com.example.pitching.call.operation.response.ChannelLeaveResponse;
+import com.example.pitching.call.operation.response.StateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConvertServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConvertService convertService = new ConvertService(objectMapper);
+
+    @Test
+    @DisplayName("op 와 data 를 한 번에 읽어 operation 에 맞는 Request 타입으로 변환한다")
+    void readRequestFromMessage_ChannelRequest() {
+        String message = """
+                {"op":3,"data":{"server_id":1,"channel_id":2,"channel_type":"VOICE"}}""";
+
+        StepVerifier.create(convertService.readRequestFromMessage(message))
+                .assertNext(request -> {
+                    assertThat(request.operation()).isEqualTo(RequestOperation.ENTER_CHANNEL);
+                    assertThat(request.dataAs(ChannelRequest.class))
+                            .isEqualTo(new ChannelRequest(1L, 2L, ChannelType.VOICE));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("data 가 op 보다 먼저 와도 올바른 Request 타입으로 변환한다")
+    void readRequestFromMessage_DataBeforeOp() {
+        String message = """
+                {"data":{"server_id":1,"channel_id":2,"muted":true,"deafened":false,"camera_on":true,"screen_sharing":false},"op":5}""";
+
+        StepVerifier.create(convertService.readRequestFromMessage(message))
+                .assertNext(request -> {
+                    assertThat(request.operation()).isEqualTo(RequestOperation.UPDATE_STATE);
+                    assertThat(request.dataAs(StateRequest.class))
+                            .isEqualTo(new StateRequest(1L, 2L, true, false, true, false));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("ICE candidate 의 candidate 객체를 그대로 유지한다")
+    void readRequestFromMessage_CandidateRequest() {
+        String message = """
+                {"op":6,"data":{"candidate":"candidate:1 1 UDP 2122252543 10.0.0.1 54321 typ host","sdp_mid":"0","sdp_m_line_index":0,"target_id":"7"}}""";
+
+        StepVerifier.create(convertService.readRequestFromMessage(message))
+                .assertNext(request -> {
+                    CandidateRequest candidateRequest = request.dataAs(CandidateRequest.class);
+                    assertThat(candidateRequest.candidate()).isEqualTo("candidate:1 1 UDP 2122252543 10.0.0.1 54321 typ host");
+                    assertThat(candidateRequest.sdpMid()).isEqualTo("0");
+                    assertThat(candidateRequest.userId()).isEqualTo("7");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("data 가 없는 HEARTBEAT 는 data 를 무시한다")
+    void readRequestFromMessage_Heartbeat() {
+        StepVerifier.create(convertService.readRequestFromMessage("{\"op\":1,\"data\":{\"ignored\":true}}"))
+                .assertNext(request -> {
+                    assertThat(request.operation()).isEqualTo(RequestOperation.HEARTBEAT);
+                    assertThat(request.data()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("op 가 없거나 잘못되면 InvalidValueException 을 반환한다")
+    void readRequestFromMessage_InvalidOperation() {
+        StepVerifier.create(convertService.readRequestFromMessage("{\"data\":{}}"))
+                .expectError(InvalidValueException.class)
+                .verify();
+        StepVerifier.create(convertService.readRequestFromMessage("{\"op\":99}"))
+                .expectError(InvalidValueException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("스트림에 저장된 op/data 에 seq 를 붙인 결과는 기존 Event 직렬화 결과와 같다")
+    void convertStreamMessageToFrame() throws Exception {
+        StateResponse stateResponse = new StateResponse("7", "tester", 1L, 2L, ChannelType.VIDEO, true, false, true, false);
+        String expected = convertService.convertObjectToJson(Event.of(ResponseOperation.UPDATE_STATE_EVENT, stateResponse, "1700000000000-0"));
+
+        String actual = convertService.convertStreamMessageToFrame(
+                String.valueOf(ResponseOperation.UPDATE_STATE_EVENT.getCode()),
+                convertService.convertObjectToJson(stateResponse),
+                "1700000000000-0",
+                "7").toString();
+
+        assertThat(objectMapper.readTree(actual)).isEqualTo(objectMapper.readTree(expected));
+    }
+
+    @Test
+    @DisplayName("message 필드 하나로 저장된 이전 형식 레코드도 같은 프레임으로 변환한다")
+    void convertLegacyStreamMessageToFrame() throws Exception {
+        ChannelLeaveResponse leaveResponse = new ChannelLeaveResponse("7", 1L, 2L, ChannelType.VOICE);
+        String legacyMessage = convertService.convertObjectToJson(Event.of(ResponseOperation.LEAVE_CHANNEL_EVENT, leaveResponse, null));
+        String expected = convertService.convertObjectToJson(Event.of(ResponseOperation.LEAVE_CHANNEL_EVENT, leaveResponse, "1700000000000-0"));
+
+        String actual = convertService.convertLegacyStreamMessageToFrame(legacyMessage, "1700000000000-0").toString();
+
+        assertThat(objectMapper.readTree(actual)).isEqualTo(objectMapper.readTree(expected));
+    }
+
+    @Test
+    @DisplayName("이전 형식 레코드의 op 가 서버 이벤트가 아니면 변환하지 않는다")
+    void convertLegacyStreamMessageToFrame_UnsupportedOperation() {
+        String legacyMessage = convertService.convertObjectToJson(Event.of(ResponseOperation.ROOM_MODE, null, null));
+
+        assertThatThrownBy(() -> convertService.convertLegacyStreamMessageToFrame(legacyMessage, "1700000000000-0"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.pitching.call.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.OneArgFunction;
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis 없이 Lua 스크립트를 실행하는 테스트용 Redis
+ * 스크립트가 사용하는 HGET/HSET/HDEL/XADD 와 cjson.decode 만 흉내내고, Redis 처럼 명령과 스크립트를 하나씩 실행한다
+ */
+class InMemoryRedis {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Globals globals = JsePlatform.standardGlobals();
+    // getScriptAsString 은 호출할 때마다 리소스를 다시 읽으므로 스크립트 객체 단위로 컴파일 결과를 보관
+    private final Map<RedisScript<?>, LuaValue> scripts = new HashMap<>();
+    private final Map<String, Map<String, String>> hashes = new HashMap<>();
+    private final Map<String, List<Map<String, String>>> streams = new HashMap<>();
+    private long lastStreamId;
+
+    InMemoryRedis() {
+        LuaTable redis = new LuaTable();
+        redis.set("call", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                return redisCall(args);
+            }
+        });
+        LuaTable cjson = new LuaTable();
+        cjson.set("decode", new OneArgFunction() {
+            @Override
+            public LuaValue call(LuaValue json) {
+                return decode(json.checkjstring());
+            }
+        });
+        globals.set("redis", redis);
+        globals.set("cjson", cjson);
+        // Redis 의 Lua 5.1 에서는 unpack 이 전역 함수
+        globals.set("unpack", globals.get("table").get("unpack"));
+    }
+
+    /**
+     * @return 스크립트의 반환값 (nil 이나 false 를 반환하면 null)
+     */
+    synchronized String eval(RedisScript<?> script, List<String> keys, List<?> args) {
+        LuaValue chunk = scripts.computeIfAbsent(script, ignored -> globals.load(script.getScriptAsString(), "script"));
+        globals.set("KEYS", toTable(keys));
+        globals.set("ARGV", toTable(args));
+        LuaValue result = chunk.call();
+        return result.isnil() || LuaValue.FALSE.equals(result) ? null : result.tojstring();
+    }
+
+    synchronized String hget(String key, String field) {
+        return hashes.getOrDefault(key, Map.of()).get(field);
+    }
+
+    synchronized boolean hexists(String key, String field) {
+        return hashes.getOrDefault(key, Map.of()).containsKey(field);
+    }
+
+    synchronized boolean hset(String key, String field, String value) {
+        return hashes.computeIfAbsent(key, ignored -> new HashMap<>()).put(field, value) == null;
+    }
+
+    synchronized long hdel(String key, String field) {
+        Map<String, String> hash = hashes.get(key);
+        return hash != null && hash.remove(field) != null ? 1 : 0;
+    }
+
+    /**
+     * @return 레코드 ID (maxlen 을 넘으면 오래된 레코드부터 정확히 잘라냄)
+     */
+    synchronized String xadd(String key, int maxlen, Map<String, String> fields) {
+        List<Map<String, String>> stream = streams.computeIfAbsent(key, ignored -> new ArrayList<>());
+        stream.add(new LinkedHashMap<>(fields));
+        if (stream.size() > maxlen) stream.subList(0, stream.size() - maxlen).clear();
+        return ++lastStreamId + "-0";
+    }
+
+    synchronized List<Map<String, String>> stream(String key) {
+        return List.copyOf(streams.getOrDefault(key, List.of()));
+    }
+
+    private Varargs redisCall(Varargs args) {
+        String command = args.checkjstring(1).toUpperCase();
+        String key = args.checkjstring(2);
+        return switch (command) {
+            case "HGET" -> {
+                String value = hget(key, args.checkjstring(3));
+                yield value == null ? LuaValue.FALSE : LuaValue.valueOf(value);
+            }
+            case "HSET" -> LuaValue.valueOf(hset(key, args.checkjstring(3), args.checkjstring(4)) ? 1 : 0);
+            case "HDEL" -> LuaValue.valueOf(hdel(key, args.checkjstring(3)));
+            case "XADD" -> LuaValue.valueOf(xadd(args));
+            default -> throw new LuaError("Unsupported command : " + command);
+        };
+    }
+
+    // XADD key [MAXLEN [~|=] count] * field value ...
+    private String xadd(Varargs args) {
+        int index = 3;
+        int maxlen = Integer.MAX_VALUE;
+        if (args.checkjstring(index).equalsIgnoreCase("MAXLEN")) {
+            index++;
+            if (args.checkjstring(index).equals("~") || args.checkjstring(index).equals("=")) index++;
+            maxlen = Integer.parseInt(args.checkjstring(index++));
+        }
+        if (!args.checkjstring(index++).equals("*")) throw new LuaError("Only auto-generated stream IDs are supported");
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (; index < args.narg(); index += 2) {
+            fields.put(args.checkjstring(index), args.checkjstring(index + 1));
+        }
+        return xadd(args.checkjstring(2), maxlen, fields);
+    }
+
+    private LuaValue decode(String json) {
+        try {
+            return toLua(objectMapper.readTree(json));
+        } catch (JsonProcessingException e) {
+            throw new LuaError("Invalid JSON : " + json);
+        }
+    }
+
+    private static LuaValue toLua(JsonNode node) {
+        if (node.isObject()) {
+            LuaTable table = new LuaTable();
+            node.fields().forEachRemaining(field -> table.set(field.getKey(), toLua(field.getValue())));
+            return table;
+        }
+        if (node.isArray()) {
+            LuaTable table = new LuaTable();
+            for (int i = 0; i < node.size(); i++) {
+                table.set(i + 1, toLua(node.get(i)));
+            }
+            return table;
+        }
+        if (node.isBoolean()) return LuaValue.valueOf(node.booleanValue());
+        if (node.isNumber()) return LuaValue.valueOf(node.doubleValue());
+        if (node.isTextual()) return LuaValue.valueOf(node.textValue());
+        return LuaValue.NIL;
+    }
+
+    private static LuaTable toTable(List<?> values) {
+        LuaTable table = new LuaTable();
+        for (int i = 0; i < values.size(); i++) {
+            table.set(i + 1, LuaValue.valueOf(String.valueOf(values.get(i))));
+        }
+        return table;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.kurento.FakeKurentoServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.KurentoClient;
+import org.kurento.commons.exception.KurentoException;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KmsPoolTest {
+    private static final Duration RECONNECT_INTERVAL = Duration.ofSeconds(10);
+
+    private final FakeKurentoServer kurentoServer = new FakeKurentoServer();
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private KmsPool kmsPool;
+
+    @AfterEach
+    void tearDown() {
+        if (kmsPool != null) kmsPool.destroy();
+        scheduler.dispose();
+    }
+
+    @Test
+    @DisplayName("시작할 때 연결할 수 없는 KMS 도 풀에 남기고, 연결되면 Room 을 배치한다")
+    void keepsUnreachableKmsAndReconnects() {
+        KmsInstance kms = KmsInstance.connect("kms-1", listener -> connectAfter(3));
+        kmsPool = new KmsPool(List.of(kms), RECONNECT_INTERVAL, scheduler);
+
+        assertThat(kmsPool.getInstances()).containsExactly(kms);
+        assertThat(kms.isHealthy()).isFalse();
+        StepVerifier.create(kmsPool.select()).expectError(IllegalStateException.class).verify();
+
+        scheduler.advanceTimeBy(RECONNECT_INTERVAL);
+        assertThat(kms.isConnected()).isFalse();
+        scheduler.advanceTimeBy(RECONNECT_INTERVAL);
+
+        assertThat(kms.isHealthy()).isTrue();
+        StepVerifier.create(kmsPool.select()).expectNext(kms).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("연결된 KMS 에는 다시 연결하지 않는다")
+    void doesNotReconnectConnectedKms() {
+        KmsInstance kms = KmsInstance.connect("kms-1", listener -> connectAfter(1));
+        kmsPool = new KmsPool(List.of(kms), RECONNECT_INTERVAL, scheduler);
+
+        scheduler.advanceTimeBy(RECONNECT_INTERVAL.multipliedBy(3));
+
+        assertThat(attempts).hasValue(1);
+        assertThat(kms.isHealthy()).isTrue();
+    }
+
+    // successfulAttempt 번째 시도부터 연결됨
+    private KurentoClient connectAfter(int successfulAttempt) {
+        if (attempts.incrementAndGet() < successfulAttempt) throw new KurentoException("connection refused");
+        return kurentoServer.createClient();
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.dto.RoomMode;
+import com.example.pitching.call.dto.properties.EndpointPoolProperties;
+import com.example.pitching.call.dto.properties.IceCandidateBatchProperties;
+import com.example.pitching.call.dto.properties.RoomProperties;
+import com.example.pitching.call.operation.Frame;
+import com.example.pitching.call.operation.UserSession;
+import com.example.pitching.call.operation.UserSink;
+import com.example.pitching.kurento.FakeKurentoServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.IceCandidate;
+import org.kurento.client.KurentoClient;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RoomManagerTest {
+    private static final Duration GRACE_PERIOD = Duration.ofSeconds(5);
+    private static final int COMPOSITE_THRESHOLD = 4;
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String PIPELINE = "MediaPipeline";
+    private static final String ENDPOINT = "WebRtcEndpoint";
+    private static final String COMPOSITE = "Composite";
+    private static final String HUB_PORT = "HubPort";
+
+    private final FakeKurentoServer kurentoServer = new FakeKurentoServer();
+    private final FakeKurentoServer otherKurentoServer = new FakeKurentoServer();
+    private final ConvertService convertService = new ConvertService(new ObjectMapper());
+    private final WebSocketSession session = mock(WebSocketSession.class);
+    private final UserSink userSink = mock(UserSink.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(32);
+    private KurentoClient kurentoClient;
+    private KurentoClient otherKurentoClient;
+    private KmsInstance kms;
+    private KmsInstance otherKms;
+    private VirtualTimeScheduler scheduler;
+    private RoomManager roomManager;
+
+    @BeforeEach
+    void setUp() {
+        kurentoClient = kurentoServer.createClient();
+        otherKurentoClient = otherKurentoServer.createClient();
+        kms = KmsInstance.of("kms-1", kurentoClient);
+        otherKms = KmsInstance.of("kms-2", otherKurentoClient);
+        scheduler = VirtualTimeScheduler.create();
+        roomManager = createRoomManager(KmsPool.of(List.of(kms)));
+        when(session.close(any(CloseStatus.class))).thenReturn(Mono.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        kurentoClient.destroy();
+        otherKurentoClient.destroy();
+        scheduler.dispose();
+    }
+
+    @Test
+    @DisplayName("빈 채널에 동시에 입장해도 pipeline 은 하나만 만든다")
+    void join_Concurrently() throws Exception {
+        runConcurrently(200, i -> join(1L, "user-" + i));
+
+        assertThat(kurentoServer.created(PIPELINE)).isEqualTo(1);
+        assertThat(roomManager.findRoom(1L).getParticipants()).hasSize(200);
+    }
+
+    @Test
+    @DisplayName("grace period 안에 다시 입장하면 pipeline 을 재사용한다")
+    void leaveAndRejoin_WithinGracePeriod() {
+        roomManager.leave(join(1L, "user"));
+        scheduler.advanceTimeBy(GRACE_PERIOD.minusSeconds(1));
+        UserSession rejoined = join(1L, "user");
+        scheduler.advanceTimeBy(GRACE_PERIOD);
+
+        assertThat(kurentoServer.created(PIPELINE)).isEqualTo(1);
+        assertThat(kurentoServer.released(PIPELINE)).isZero();
+        assertThat(roomManager.findRoom(1L).getParticipants()).containsExactly(rejoined);
+    }
+
+    @Test
+    @DisplayName("마지막 참여자가 나가고 grace period 가 지나면 pipeline 을 해제한다")
+    void leave_ReleaseAfterGracePeriod() {
+        roomManager.leave(join(1L, "user"));
+
+        assertThat(roomManager.doesRoomExists(1L)).isTrue();
+        scheduler.advanceTimeBy(GRACE_PERIOD);
+
+        assertThat(roomManager.doesRoomExists(1L)).isFalse();
+        await().atMost(Duration.ofSeconds(5)).until(() -> kurentoServer.alive(PIPELINE) == 0);
+    }
+
+    @Test
+    @DisplayName("수백 건의 입장/퇴장이 동시에 일어나도 pipeline 과 endpoint 가 새지 않는다")
+    void joinAndLeave_Stress() throws Exception {
+        int channels = 8;
+        runConcurrently(800, i -> {
+            Long channelId = (long) (i % channels);
+            for (int round = 0; round < 3; round++) {
+                UserSession user = join(channelId, "user-" + i);
+                if (ThreadLocalRandom.current().nextBoolean()) scheduler.advanceTimeBy(Duration.ofSeconds(1));
+                roomManager.leave(user);
+            }
+        });
+
+        // 진행 중에는 채널마다 pipeline 이 최대 하나만 살아있어야 함
+        assertThat(kurentoServer.created(PIPELINE) - kurentoServer.released(PIPELINE)).isLessThanOrEqualTo(channels);
+        scheduler.advanceTimeBy(GRACE_PERIOD);
+
+        assertThat(roomManager.size()).isZero();
+        await().atMost(Duration.ofSeconds(10)).until(() ->
+                kurentoServer.alive(PIPELINE) == 0 && kurentoServer.alive(ENDPOINT) == 0);
+    }
+
+    @Test
+    @DisplayName("다시 입장한 뒤 이전 세션이 늦게 나가도 새 세션은 Room 에 남는다")
+    void leave_StaleSessionAfterRejoin() {
+        UserSession stale = join(1L, "user");
+        UserSession rejoined = join(1L, "user");
+        int endpoints = kms.getEndpoints();
+
+        roomManager.leave(stale);
+
+        assertThat(roomManager.findRoom(1L).getParticipants()).singleElement().isSameAs(rejoined);
+        // 교체될 때 이미 닫힌 세션의 endpoint 를 다시 해제하지 않음
+        assertThat(kms.getEndpoints()).isEqualTo(endpoints);
+        scheduler.advanceTimeBy(GRACE_PERIOD);
+        assertThat(roomManager.doesRoomExists(1L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("새 Room 은 부하가 가장 적은 KMS 에 만들고, 기존 Room 은 처음 KMS 를 계속 사용한다")
+    void join_PlaceOnLeastLoadedKms() {
+        roomManager = createRoomManager(KmsPool.of(List.of(kms, otherKms)));
+
+        join(1L, "user-1");
+        join(1L, "user-2");
+        join(2L, "user-3");
+
+        assertThat(kurentoServer.created(PIPELINE)).isEqualTo(1);
+        assertThat(otherKurentoServer.created(PIPELINE)).isEqualTo(1);
+        assertThat(kurentoServer.created(ENDPOINT)).isGreaterThan(otherKurentoServer.created(ENDPOINT));
+    }
+
+    @Test
+    @DisplayName("연결이 끊긴 KMS 에는 새 Room 을 만들지 않는다")
+    void join_SkipDrainedKms() {
+        roomManager = createRoomManager(KmsPool.of(List.of(kms, otherKms)));
+        kms.disconnected();
+
+        join(1L, "user-1");
+        join(2L, "user-2");
+
+        assertThat(kurentoServer.created(PIPELINE)).isZero();
+        assertThat(otherKurentoServer.created(PIPELINE)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Room 의 KMS 연결이 끊기면 다음 입장 때 Room 을 닫고 다른 KMS 에 다시 만든다")
+    void join_RebuildRoomOnDisconnectedKms() {
+        roomManager = createRoomManager(KmsPool.of(List.of(kms, otherKms)));
+        UserSession evicted = join(1L, "user-1");
+        kms.disconnected();
+
+        UserSession rejoined = join(1L, "user-2");
+
+        assertThat(otherKurentoServer.created(PIPELINE)).isEqualTo(1);
+        assertThat(roomManager.findRoom(1L).getParticipants()).containsExactly(rejoined);
+        assertThat(kms.getPipelines()).isZero();
+        assertThat(kms.getEndpoints()).isZero();
+        await().atMost(Duration.ofSeconds(5)).until(() -> kurentoServer.released(PIPELINE) == 1);
+        // 미디어가 끊긴 참여자는 다시 연결해서 입장하도록 세션을 닫음
+        verify(session).close(CloseStatus.SERVICE_RESTARTED);
+    }
+
+    @Test
+    @DisplayName("닫힌 Room 의 참여자가 나중에 나가도 새 Room 과 KMS 부하는 그대로다")
+    void leave_EvictedSessionAfterRebuild() {
+        roomManager = createRoomManager(KmsPool.of(List.of(kms, otherKms)));
+        UserSession evicted = join(1L, "user-1");
+        kms.disconnected();
+        UserSession rejoined = join(1L, "user-2");
+        // 미리 만드는 endpoint 가 다 만들어진 뒤의 부하와 비교
+        await().atMost(Duration.ofSeconds(5)).until(() -> roomManager.findRoom(1L).getEndpointPool().size() == 2);
+        int otherEndpoints = otherKms.getEndpoints();
+
+        roomManager.leave(evicted);
+
+        assertThat(roomManager.findRoom(1L).getParticipants()).containsExactly(rejoined);
+        assertThat(kms.getEndpoints()).isZero();
+        assertThat(otherKms.getEndpoints()).isEqualTo(otherEndpoints);
+    }
+
+    @Test
+    @DisplayName("KMS 가 다른 서버로 재연결되면 사라진 pipeline 대신 Room 을 다시 만든다")
+    void join_RebuildRoomAfterKmsReconnectedToDifferentServer() {
+        join(1L, "user-1");
+        kms.reconnected(false);
+
+        join(1L, "user-2");
+
+        assertThat(kurentoServer.created(PIPELINE)).isEqualTo(2);
+        assertThat(roomManager.findRoom(1L).getParticipants()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("같은 서버로 재연결되면 기존 Room 을 계속 사용한다")
+    void join_KeepRoomAfterKmsReconnectedToSameServer() {
+        join(1L, "user-1");
+        kms.disconnected();
+        kms.reconnected(true);
+
+        join(1L, "user-2");
+
+        assertThat(kurentoServer.created(PIPELINE)).isEqualTo(1);
+        assertThat(roomManager.findRoom(1L).getParticipants()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("다른 참여자의 endpoint 를 만드는 중에 도착한 ICE candidate 는 endpoint 가 만들어진 뒤에 추가한다")
+    void addCandidate_BeforeOfferCompletes() {
+        FakeKurentoServer slowKurentoServer = new FakeKurentoServer(Duration.ofMillis(50));
+        KurentoClient slowKurentoClient = slowKurentoServer.createClient();
+        try {
+            roomManager = createRoomManager(KmsPool.of(List.of(KmsInstance.of("kms-slow", slowKurentoClient))));
+            UserSession receiver = join(1L, "user-1");
+            UserSession sender = join(1L, "user-2");
+
+            // 클라이언트는 RECEIVE_VIDEO 바로 뒤에 ON_ICE_CANDIDATE 를 보냄
+            Mono<Void> negotiation = receiver.receiveVideoFrom(sender, "offer", convertService);
+            negotiation.subscribeOn(Schedulers.boundedElastic()).subscribe();
+            receiver.addCandidate(new IceCandidate("candidate:1 1 UDP 1 10.0.0.1 5000 typ host", "0", 0), sender.getUserId());
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> slowKurentoServer.invoked("gatherCandidates") == 1);
+            await().atMost(Duration.ofSeconds(5)).until(() -> slowKurentoServer.invoked("addIceCandidate") == 1);
+            assertThat(slowKurentoServer.invoked("processOffer")).isEqualTo(1);
+        } finally {
+            slowKurentoClient.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Room 이 해제되면 KMS 부하도 함께 줄어든다")
+    void leave_ReleaseKmsLoad() {
+        roomManager.leave(join(1L, "user"));
+        scheduler.advanceTimeBy(GRACE_PERIOD);
+
+        assertThat(kms.getPipelines()).isZero();
+        assertThat(kms.getEndpoints()).isZero();
+    }
+
+    private RoomManager createRoomManager(KmsPool kmsPool) {
+        return new RoomManager(kmsPool, new RoomProperties(GRACE_PERIOD, COMPOSITE_THRESHOLD), new EndpointPoolProperties(2, IDLE_TIMEOUT), scheduler);
+    }
+
+    private UserSession join(Long channelId, String userId) {
+        return join(channelId, ChannelType.VIDEO, userId);
+    }
+
+    private UserSession join(Long channelId, ChannelType channelType, String userId) {
+        return roomManager.join(channelId, channelType, userId, session, userSink, IceCandidateBatchProperties.DISABLED, convertService)
+                .block(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("음성 채널 참여자가 threshold 이상이 되면 기존 참여자까지 모두 Composite 로 전환한다")
+    void join_SwitchToCompositeAboveThreshold() {
+        List<UserSession> users = new ArrayList<>();
+        for (int i = 0; i < COMPOSITE_THRESHOLD + 2; i++) {
+            users.add(join(1L, ChannelType.VOICE, "user-" + i));
+        }
+
+        assertThat(roomManager.findRoom(1L).getMode()).isEqualTo(RoomMode.COMPOSITE);
+        assertThat(kurentoServer.created(COMPOSITE)).isEqualTo(1);
+        await().atMost(Duration.ofSeconds(5)).until(() -> kurentoServer.created(HUB_PORT) == users.size());
+        verify(userSink, timeout(5000).times(users.size())).tryEmitSignal(any(Frame.class));
+
+        users.forEach(roomManager::leave);
+        scheduler.advanceTimeBy(GRACE_PERIOD);
+        await().atMost(Duration.ofSeconds(5)).until(() -> kurentoServer.alive(HUB_PORT) == 0);
+    }
+
+    @Test
+    @DisplayName("영상 채널은 참여자가 많아도 MESH 모드를 유지한다")
+    void join_VideoChannelStaysMesh() {
+        for (int i = 0; i < COMPOSITE_THRESHOLD + 2; i++) {
+            join(1L, ChannelType.VIDEO, "user-" + i);
+        }
+
+        assertThat(roomManager.findRoom(1L).getMode()).isEqualTo(RoomMode.MESH);
+        assertThat(kurentoServer.created(COMPOSITE)).isZero();
+    }
+
+    private void runConcurrently(int tasks, IntConsumer task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.accept(index);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+}
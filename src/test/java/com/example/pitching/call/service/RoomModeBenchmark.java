@@ -0,0 +1,80 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.benchmark.Benchmarks;
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.dto.RoomMode;
+import com.example.pitching.call.dto.properties.EndpointPoolProperties;
+import com.example.pitching.call.dto.properties.IceCandidateBatchProperties;
+import com.example.pitching.call.dto.properties.RoomProperties;
+import com.example.pitching.call.operation.UserSession;
+import com.example.pitching.call.operation.UserSink;
+import com.example.pitching.kurento.FakeKurentoServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kurento.client.KurentoClient;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 30명 음성 채널에서 모든 참여자가 서로의 오디오를 받을 때 KMS 에 만들어지는 미디어 객체 수와 RPC 수
+ * KMS CPU 는 미디어 객체(특히 WebRtcEndpoint 의 DTLS/SRTP 처리) 수에 비례하므로 객체 수로 비교한다
+ */
+@Tag("benchmark")
+class RoomModeBenchmark {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int PARTICIPANTS = 30;
+
+    private final ConvertService convertService = new ConvertService(new ObjectMapper());
+    private final WebSocketSession session = mock(WebSocketSession.class);
+    private final UserSink userSink = mock(UserSink.class);
+
+    @Test
+    void voiceChannelOf30() {
+        FakeKurentoServer mesh = fillVoiceChannel(Integer.MAX_VALUE, RoomMode.MESH);
+        FakeKurentoServer composite = fillVoiceChannel(PARTICIPANTS, RoomMode.COMPOSITE);
+        Benchmarks.report("media elements for " + PARTICIPANTS + " voice users", "objs", mediaElements(mesh), mediaElements(composite));
+        Benchmarks.report("kms rpc for " + PARTICIPANTS + " voice users", "rpcs", rpcs(mesh), rpcs(composite));
+
+        assertThat(mediaElements(composite)).isLessThan(mediaElements(mesh));
+    }
+
+    private FakeKurentoServer fillVoiceChannel(int compositeThreshold, RoomMode expectedMode) {
+        FakeKurentoServer kurentoServer = new FakeKurentoServer();
+        KurentoClient kurentoClient = kurentoServer.createClient();
+        RoomManager roomManager = new RoomManager(KmsPool.of(List.of(KmsInstance.of("fake", kurentoClient))), new RoomProperties(null, compositeThreshold),
+                new EndpointPoolProperties(0, null), Schedulers.immediate());
+        try {
+            List<UserSession> users = new ArrayList<>();
+            for (int i = 0; i < PARTICIPANTS; i++) {
+                users.add(roomManager.join(1L, ChannelType.VOICE, "user-" + i, session, userSink,
+                        IceCandidateBatchProperties.DISABLED, convertService).block(TIMEOUT));
+            }
+            assertThat(roomManager.findRoom(1L).getMode()).isEqualTo(expectedMode);
+            // 클라이언트는 MESH 에서 모든 참여자를, COMPOSITE 에서 자신의 endpoint 만 협상
+            for (UserSession user : users) {
+                Stream<UserSession> senders = expectedMode == RoomMode.MESH ? users.stream() : Stream.of(user);
+                senders.forEach(sender -> user.receiveVideoFrom(sender, "offer", convertService).block(TIMEOUT));
+            }
+            return kurentoServer;
+        } finally {
+            kurentoClient.destroy();
+        }
+    }
+
+    private long mediaElements(FakeKurentoServer kurentoServer) {
+        return kurentoServer.alive("WebRtcEndpoint") + kurentoServer.alive("HubPort") + kurentoServer.alive("Composite");
+    }
+
+    private long rpcs(FakeKurentoServer kurentoServer) {
+        return kurentoServer.invocations("create") + kurentoServer.invocations("invoke") + kurentoServer.invocations("subscribe");
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.dto.StreamRecord;
+import com.example.pitching.call.dto.properties.StateCoalescingProperties;
+import com.example.pitching.call.operation.Data;
+import com.example.pitching.call.operation.code.ResponseOperation;
+import com.example.pitching.call.operation.response.ChannelEnterResponse;
+import com.example.pitching.call.operation.response.ChannelLeaveResponse;
+import com.example.pitching.call.operation.response.StateResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServerEventPublisherTest {
+    private static final Long SERVER_ID = 1L;
+    private static final Duration WINDOW = Duration.ofMillis(50);
+
+    @Mock
+    private ServerStreamManager serverStreamManager;
+
+    private final List<Data> published = new CopyOnWriteArrayList<>();
+    private final Map<String, Data> dataByRecordKey = new ConcurrentHashMap<>();
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private ServerEventPublisher serverEventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        // 스트림 레코드 대신 원본 data 를 기록해서 순서를 확인
+        lenient().when(serverStreamManager.createStreamRecord(anyLong(), any(ResponseOperation.class), any(Data.class)))
+                .thenAnswer(invocation -> {
+                    String recordKey = UUID.randomUUID().toString();
+                    dataByRecordKey.put(recordKey, invocation.getArgument(2));
+                    return StreamRecord.of(recordKey, 500, Map.of());
+                });
+        lenient().when(serverStreamManager.addToStream(any(StreamRecord.class)))
+                .thenAnswer(invocation -> Mono.fromSupplier(() ->
+                        record(dataByRecordKey.get(invocation.<StreamRecord>getArgument(0).key()))));
+        lenient().when(serverStreamManager.addVoiceMessageToStream(anyLong(), any(ResponseOperation.class), any(Data.class)))
+                .thenAnswer(invocation -> Mono.fromSupplier(() -> record(invocation.getArgument(2))));
+        serverEventPublisher = new ServerEventPublisher(serverStreamManager, new StateCoalescingProperties(WINDOW), scheduler);
+    }
+
+    @Test
+    @DisplayName("window 안의 UPDATE_STATE 는 마지막 상태 하나만 스트림에 올린다")
+    void coalesceStateWithinWindow() {
+        publishState("7", true, false);
+        publishState("7", false, false);
+        publishState("7", true, true);
+
+        assertThat(published).isEmpty();
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(published).containsExactly(state("7", true, true));
+    }
+
+    @Test
+    @DisplayName("유저마다 따로 합친다")
+    void coalescePerUser() {
+        publishState("7", true, false);
+        publishState("8", true, false);
+        publishState("7", false, false);
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(published).containsExactlyInAnyOrder(state("7", false, false), state("8", true, false));
+    }
+
+    @Test
+    @DisplayName("LEAVE 는 대기 중인 같은 유저의 상태 변경보다 뒤에 올라간다")
+    void leaveAfterPendingState() {
+        publishState("7", true, false);
+        publishState("7", true, true);
+        ChannelLeaveResponse leave = new ChannelLeaveResponse("7", SERVER_ID, 2L, ChannelType.VOICE);
+
+        StepVerifier.create(serverEventPublisher.publish(SERVER_ID, "7", ResponseOperation.LEAVE_CHANNEL_EVENT, leave))
+                .verifyComplete();
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(published).containsExactly(state("7", true, true), leave);
+    }
+
+    @Test
+    @DisplayName("ENTER 이후의 상태 변경은 ENTER 뒤에 올라가고, 다음 ENTER 전에 모두 올라간다")
+    void enterStateEnterOrdering() {
+        ChannelEnterResponse firstEnter = new ChannelEnterResponse("7", "tester", null, SERVER_ID, 2L, ChannelType.VOICE);
+        ChannelEnterResponse secondEnter = new ChannelEnterResponse("7", "tester", null, SERVER_ID, 3L, ChannelType.VIDEO);
+
+        serverEventPublisher.publish(SERVER_ID, "7", ResponseOperation.ENTER_CHANNEL_EVENT, firstEnter).block();
+        publishState("7", true, false);
+        publishState("7", false, true);
+        serverEventPublisher.publish(SERVER_ID, "7", ResponseOperation.ENTER_CHANNEL_EVENT, secondEnter).block();
+        publishState("7", true, true);
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(published).containsExactly(firstEnter, state("7", false, true), secondEnter, state("7", true, true));
+    }
+
+    @Test
+    @DisplayName("window 가 0 이면 합치지 않고 바로 올린다")
+    void disabled() {
+        serverEventPublisher = new ServerEventPublisher(serverStreamManager, new StateCoalescingProperties(Duration.ZERO), scheduler);
+
+        publishState("7", true, false);
+        publishState("7", false, false);
+
+        assertThat(published).containsExactly(state("7", true, false), state("7", false, false));
+    }
+
+    private String record(Data data) {
+        published.add(data);
+        return String.valueOf(published.size());
+    }
+
+    private void publishState(String userId, boolean muted, boolean deafened) {
+        serverEventPublisher.publish(SERVER_ID, userId, ResponseOperation.UPDATE_STATE_EVENT, state(userId, muted, deafened)).block();
+    }
+
+    private StateResponse state(String userId, boolean muted, boolean deafened) {
+        return new StateResponse(userId, "tester", SERVER_ID, 2L, ChannelType.VOICE, muted, deafened, false, false);
+    }
+}
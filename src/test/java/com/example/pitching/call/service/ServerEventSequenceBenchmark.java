@@ -0,0 +1,69 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.benchmark.Benchmarks;
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.operation.Data;
+import com.example.pitching.call.operation.Event;
+import com.example.pitching.call.operation.code.ResponseOperation;
+import com.example.pitching.call.operation.response.ChannelEnterResponse;
+import com.example.pitching.call.operation.response.ChannelLeaveResponse;
+import com.example.pitching.call.operation.response.StateResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+class ServerEventSequenceBenchmark {
+    private static final int ITERATIONS = 200_000;
+    private static final String SEQUENCE = "1731800000000-0";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConvertService convertService = new ConvertService(objectMapper);
+    private Object sink;
+
+    @ParameterizedTest
+    @EnumSource(value = ResponseOperation.class, names = {"ENTER_CHANNEL_EVENT", "LEAVE_CHANNEL_EVENT", "UPDATE_STATE_EVENT"})
+    void sequenceStampingThroughput(ResponseOperation responseOperation) {
+        Data data = createData(responseOperation);
+        // 기존 : message 필드 하나에 Event 전체 JSON 저장
+        String legacyMessage = convertService.convertObjectToJson(Event.of(responseOperation, data, null));
+        // 변경 : op, data 필드를 따로 저장
+        String operation = String.valueOf(responseOperation.getCode());
+        String jsonData = convertService.convertObjectToJson(data);
+
+        Runnable reparse = () -> sink = convertService.convertObjectToJson(reparseWithSequence(legacyMessage, data.getClass()));
+        Runnable splice = () -> sink = convertService.convertStreamMessageToFrame(operation, jsonData, SEQUENCE, null);
+
+        double reparseNanos = Benchmarks.nanosPerOp(reparse, ITERATIONS);
+        double spliceNanos = Benchmarks.nanosPerOp(splice, ITERATIONS);
+        Benchmarks.report(responseOperation + " events/s", "ops", 1e9 / reparseNanos, 1e9 / spliceNanos);
+        Benchmarks.report(responseOperation + " allocation per event", "B",
+                Benchmarks.allocatedBytesPerOp(reparse, ITERATIONS), Benchmarks.allocatedBytesPerOp(splice, ITERATIONS));
+
+        assertThat(spliceNanos).isLessThan(reparseNanos);
+    }
+
+    // 이전 구현 : Event JSON 을 트리로 읽고 data 를 타입으로 역직렬화한 뒤 seq 를 넣어 다시 직렬화
+    private Event reparseWithSequence(String legacyMessage, Class<? extends Data> dataClass) {
+        try {
+            JsonNode message = objectMapper.readTree(legacyMessage);
+            ResponseOperation responseOperation = ResponseOperation.from(message.get("op").asInt());
+            return Event.of(responseOperation, objectMapper.readValue(message.get("data").toString(), dataClass), SEQUENCE);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Data createData(ResponseOperation responseOperation) {
+        return switch (responseOperation) {
+            case ENTER_CHANNEL_EVENT -> new ChannelEnterResponse("7", "tester", "https://cdn.pitching.site/profile/7.png", 1L, 2L, ChannelType.VOICE);
+            case LEAVE_CHANNEL_EVENT -> new ChannelLeaveResponse("7", 1L, 2L, ChannelType.VOICE);
+            default -> new StateResponse("7", "tester", 1L, 2L, ChannelType.VOICE, true, false, false, false);
+        };
+    }
+}
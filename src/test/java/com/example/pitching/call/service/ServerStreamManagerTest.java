@@ -0,0 +1,118 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.config.RedisConfig;
+import com.example.pitching.call.operation.Frame;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.Limit;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServerStreamManagerTest {
+    private static final Long SERVER_ID = 1L;
+    private static final String STREAM_KEY = "server:1:events";
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(5);
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final RedisClient redisClient = mock(RedisClient.class);
+    @SuppressWarnings("unchecked")
+    private final StatefulRedisConnection<String, String> connection = mock(StatefulRedisConnection.class);
+    @SuppressWarnings("unchecked")
+    private final RedisReactiveCommands<String, String> readCommands = mock(RedisReactiveCommands.class);
+    @SuppressWarnings("unchecked")
+    private final RedisReactiveCommands<String, String> redisCommands = mock(RedisReactiveCommands.class);
+    private final Queue<Flux<StreamMessage<String, String>>> replies = new ConcurrentLinkedQueue<>();
+    private ServerStreamManager serverStreamManager;
+
+    @BeforeEach
+    void setUp() {
+        when(redisClient.connect()).thenReturn(connection);
+        when(connection.reactive()).thenReturn(readCommands);
+        when(readCommands.xread(any(XReadArgs.class), anyStreamOffsets())).thenAnswer(invocation -> {
+            Flux<StreamMessage<String, String>> reply = replies.poll();
+            return reply != null ? reply : Mono.delay(POLL_TIMEOUT).thenMany(Flux.<StreamMessage<String, String>>empty());
+        });
+        when(redisCommands.xrevrange(anyString(), any(), any(Limit.class))).thenReturn(Flux.empty());
+        serverStreamManager = new ServerStreamManager(new ConvertService(new ObjectMapper()), redisClient, redisCommands,
+                new RedisConfig.RedisProperties("localhost", 6379, 1000, 1, POLL_TIMEOUT));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(serverStreamManager, "onShutdown");
+    }
+
+    @Test
+    @DisplayName("첫 구독자가 생길 때만 스트림을 등록하고, 마지막 구독자가 나가면 해제한다")
+    void registersStreamOnFirstSubscriberAndUnregistersOnLast() {
+        Disposable first = serverStreamManager.getMessageFromServerSink(SERVER_ID).subscribe();
+        Disposable second = serverStreamManager.getMessageFromServerSink(SERVER_ID).subscribe();
+        verify(redisCommands, times(1)).xrevrange(anyString(), any(), any(Limit.class));
+
+        // 구독자가 남아 있으면 등록을 유지
+        first.dispose();
+        Disposable third = serverStreamManager.getMessageFromServerSink(SERVER_ID).subscribe();
+        verify(redisCommands, times(1)).xrevrange(anyString(), any(), any(Limit.class));
+
+        // 모든 구독자가 나간 뒤 다시 구독하면 새로 등록
+        second.dispose();
+        third.dispose();
+        serverStreamManager.getMessageFromServerSink(SERVER_ID).subscribe().dispose();
+        verify(redisCommands, times(2)).xrevrange(anyString(), any(), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("op/data 가 없는 레코드는 건너뛰고 다음 레코드를 전달한다")
+    void skipsMalformedRecord() {
+        replies.add(Flux.just(
+                new StreamMessage<>(STREAM_KEY, "1-0", Map.of()),
+                new StreamMessage<>(STREAM_KEY, "2-0", Map.of("op", "5", "data", "{\"user_id\":\"7\"}"))));
+
+        StepVerifier.create(serverStreamManager.getMessageFromServerSink(SERVER_ID))
+                .assertNext(frame -> assertThat(frame.toString())
+                        .isEqualTo("{\"op\":5,\"data\":{\"user_id\":\"7\"},\"seq\":\"2-0\"}"))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("같은 서버의 구독자들은 같은 프레임을 받는다")
+    void sharesFramesBetweenSubscribers() {
+        Flux<Frame> first = serverStreamManager.getMessageFromServerSink(SERVER_ID);
+        Flux<Frame> second = serverStreamManager.getMessageFromServerSink(SERVER_ID);
+
+        StepVerifier.create(Flux.merge(first.take(1), second.take(1)))
+                .then(() -> replies.add(Flux.just(new StreamMessage<>(STREAM_KEY, "1-0", Map.of("op", "5", "data", "{}")))))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static XReadArgs.StreamOffset<String>[] anyStreamOffsets() {
+        return any(XReadArgs.StreamOffset[].class);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.pitching.call.service;
+
+import io.lettuce.core.Limit;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * XREAD 는 미리 넣어둔 응답을 순서대로 돌려주고, 응답이 없으면 poll timeout 만큼 기다린 뒤 빈 결과를 돌려준다
+ * 각 XREAD 에 전달된 스트림별 offset 을 기록해서 offset 이 넘어가는지 확인한다
+ */
+class ServerStreamShardTest {
+    private static final Long SERVER_ID = 1L;
+    private static final String STREAM_KEY = "server:1:events";
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(5);
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @SuppressWarnings("unchecked")
+    private final StatefulRedisConnection<String, String> connection = mock(StatefulRedisConnection.class);
+    @SuppressWarnings("unchecked")
+    private final RedisReactiveCommands<String, String> readCommands = mock(RedisReactiveCommands.class);
+    @SuppressWarnings("unchecked")
+    private final RedisReactiveCommands<String, String> redisCommands = mock(RedisReactiveCommands.class);
+    private final Queue<Flux<StreamMessage<String, String>>> replies = new ConcurrentLinkedQueue<>();
+    private final List<Map<String, String>> reads = new CopyOnWriteArrayList<>();
+    private final List<String> dispatched = new CopyOnWriteArrayList<>();
+    private ServerStreamShard shard;
+
+    @BeforeEach
+    void setUp() {
+        when(connection.reactive()).thenReturn(readCommands);
+        when(readCommands.xread(any(XReadArgs.class), anyStreamOffsets())).thenAnswer(invocation -> {
+            XReadArgs.StreamOffset<?>[] streamOffsets = (XReadArgs.StreamOffset<?>[]) invocation.getRawArguments()[1];
+            reads.add(Arrays.stream(streamOffsets)
+                    .collect(Collectors.toMap(offset -> offset.getName().toString(), XReadArgs.StreamOffset::getOffset)));
+            Flux<StreamMessage<String, String>> reply = replies.poll();
+            return reply != null ? reply : Mono.delay(POLL_TIMEOUT).thenMany(Flux.<StreamMessage<String, String>>empty());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (shard != null) shard.dispose();
+    }
+
+    @Test
+    @DisplayName("등록 시점의 마지막 ID 부터 읽고, 전달한 레코드의 ID 로 offset 을 넘긴다")
+    void readsFromLastIdAndAdvancesOffset() {
+        lastId("5-0");
+        replies.add(Flux.just(record("6-0"), record("7-0")));
+        shard = createShard((serverId, message) -> dispatched.add(message.getId()));
+
+        shard.add(SERVER_ID);
+
+        await().atMost(TIMEOUT).until(() -> reads.contains(Map.of(STREAM_KEY, "7-0")));
+        assertThat(reads.get(0)).isEqualTo(Map.of(STREAM_KEY, "5-0"));
+        assertThat(dispatched).containsExactly("6-0", "7-0");
+    }
+
+    @Test
+    @DisplayName("빈 스트림은 처음부터 읽는다")
+    void readsEmptyStreamFromBeginning() {
+        lastId(null);
+        shard = createShard((serverId, message) -> dispatched.add(message.getId()));
+
+        shard.add(SERVER_ID);
+
+        await().atMost(TIMEOUT).until(() -> reads.contains(Map.of(STREAM_KEY, "0-0")));
+    }
+
+    @Test
+    @DisplayName("레코드 처리 중 예외가 나도 read loop 는 다음 레코드를 계속 읽는다")
+    void keepsReadingAfterDispatchFails() {
+        lastId("5-0");
+        replies.add(Flux.just(record("6-0")));
+        replies.add(Flux.just(record("7-0")));
+        shard = createShard((serverId, message) -> {
+            dispatched.add(message.getId());
+            if (message.getId().equals("6-0")) throw new NullPointerException("op");
+        });
+
+        shard.add(SERVER_ID);
+
+        await().atMost(TIMEOUT).until(() -> dispatched.contains("7-0"));
+        // 실패한 레코드를 다시 읽지 않음
+        assertThat(dispatched).containsExactly("6-0", "7-0");
+        assertThat(reads).contains(Map.of(STREAM_KEY, "6-0"));
+    }
+
+    @Test
+    @DisplayName("등록을 해제한 스트림은 더 이상 읽지 않는다")
+    void stopsReadingRemovedStream() {
+        lastId("5-0");
+        shard = createShard((serverId, message) -> dispatched.add(message.getId()));
+        shard.add(SERVER_ID);
+        await().atMost(TIMEOUT).until(() -> !reads.isEmpty());
+
+        shard.remove(SERVER_ID);
+        int readsBeforeRemoved = reads.size();
+
+        assertThat(shard.size()).isZero();
+        // 해제 직전에 시작된 XREAD 하나 외에는 호출하지 않음
+        await().during(Duration.ofMillis(50)).atMost(TIMEOUT).until(() -> reads.size() <= readsBeforeRemoved + 1);
+    }
+
+    private ServerStreamShard createShard(BiConsumer<Long, StreamMessage<String, String>> messageConsumer) {
+        return new ServerStreamShard(0, connection, redisCommands, POLL_TIMEOUT, 100,
+                serverId -> String.format("server:%d:events", serverId), messageConsumer);
+    }
+
+    private void lastId(String id) {
+        when(redisCommands.xrevrange(anyString(), any(), any(Limit.class)))
+                .thenReturn(id == null ? Flux.empty() : Flux.just(record(id)));
+    }
+
+    private static StreamMessage<String, String> record(String id) {
+        return new StreamMessage<>(STREAM_KEY, id, Map.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static XReadArgs.StreamOffset<String>[] anyStreamOffsets() {
+        return any(XReadArgs.StreamOffset[].class);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.dto.VoiceState;
+import com.example.pitching.call.operation.request.StateRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VoiceStateCodecTest {
+
+    private final ConvertService convertService = new ConvertService(new ObjectMapper());
+    private final VoiceStateCodec voiceStateCodec = new VoiceStateCodec(convertService);
+
+    @Test
+    @DisplayName("상태 플래그는 비트로, 채널은 id 와 타입만 저장하고 username 은 저장하지 않는다")
+    void encode() {
+        VoiceState voiceState = new VoiceState("7", "tester", 1L, 2L, ChannelType.VIDEO, true, false, true, false);
+
+        assertThat(voiceStateCodec.encode(voiceState)).isEqualTo("5:2:VIDEO");
+    }
+
+    @Test
+    @DisplayName("인코딩한 값을 user_id, server_id 와 함께 다시 voice state 로 복원한다")
+    void decode() {
+        VoiceState voiceState = new VoiceState("7", "tester", 1L, 2L, ChannelType.VOICE, false, true, false, true);
+
+        assertThat(voiceStateCodec.decode(1L, "7", voiceStateCodec.encode(voiceState)))
+                .isEqualTo(voiceState.changeUsername(null));
+    }
+
+    @Test
+    @DisplayName("압축 형식 이전에 JSON 으로 저장된 voice state 도 읽는다")
+    void decode_LegacyJson() {
+        VoiceState voiceState = new VoiceState("7", "tester", 1L, 2L, ChannelType.VOICE, true, true, false, false);
+
+        assertThat(voiceStateCodec.decode(1L, "7", convertService.convertObjectToJson(voiceState)))
+                .isEqualTo(voiceState.changeUsername(null));
+    }
+
+    @Test
+    @DisplayName("상태 변경 요청을 Lua 스크립트에 넘길 플래그로 변환한다")
+    void flagsOf() {
+        StateRequest stateRequest = new StateRequest(1L, 2L, true, true, true, true);
+
+        assertThat(voiceStateCodec.flagsOf(stateRequest))
+                .isEqualTo(VoiceStateCodec.MUTED | VoiceStateCodec.DEAFENED | VoiceStateCodec.CAMERA_ON | VoiceStateCodec.SCREEN_SHARING);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.benchmark.Benchmarks;
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.dto.VoiceState;
+import com.example.pitching.call.operation.Data;
+import com.example.pitching.call.operation.response.ServerResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+class VoiceStateEncodingBenchmark {
+    private static final int ITERATIONS = 2_000;
+    private static final int VOICE_USERS = 100;
+    private static final Long SERVER_ID = 1L;
+
+    private final ConvertService convertService = new ConvertService(new ObjectMapper());
+    private final VoiceStateCodec voiceStateCodec = new VoiceStateCodec(convertService);
+    private final Map<String, String> jsonHash = new LinkedHashMap<>();
+    private final Map<String, String> compactHash = new LinkedHashMap<>();
+    private List<Data> sink;
+
+    VoiceStateEncodingBenchmark() {
+        for (int i = 0; i < VOICE_USERS; i++) {
+            VoiceState voiceState = new VoiceState(String.valueOf(1000 + i), "tester" + i, SERVER_ID, 20L + i % 3,
+                    ChannelType.VOICE, i % 2 == 0, false, i % 5 == 0, false);
+            jsonHash.put(voiceState.userId(), convertService.convertObjectToJson(voiceState));
+            compactHash.put(voiceState.userId(), voiceStateCodec.encode(voiceState));
+        }
+    }
+
+    @Test
+    void bytesPerVoiceUser() {
+        // Redis 없이 측정하므로 해시 값 자체의 크기만 비교 (필드/엔트리 오버헤드는 두 방식이 같음)
+        double before = averageValueBytes(jsonHash);
+        double after = averageValueBytes(compactHash);
+        Benchmarks.report("voice state value per user", "B", before, after);
+
+        assertThat(after).isLessThan(before);
+    }
+
+    @Test
+    void buildServerAckData() {
+        // username, profile_image 는 두 방식 모두 DB 에서 조회하므로 제외
+        Runnable json = () -> {
+            List<Data> response = new ArrayList<>(VOICE_USERS);
+            jsonHash.values().forEach(value -> response.add(
+                    ServerResponse.from(convertService.convertJsonToObject(value, VoiceState.class), null)));
+            sink = response;
+        };
+        Runnable compact = () -> {
+            List<Data> response = new ArrayList<>(VOICE_USERS);
+            compactHash.forEach((userId, value) -> response.add(
+                    ServerResponse.from(voiceStateCodec.decode(SERVER_ID, userId, value), null)));
+            sink = response;
+        };
+
+        double before = Benchmarks.nanosPerOp(json, ITERATIONS);
+        double after = Benchmarks.nanosPerOp(compact, ITERATIONS);
+        Benchmarks.report("SERVER_ACK data for " + VOICE_USERS + " voice users, time", "ns", before, after);
+        Benchmarks.report("SERVER_ACK data for " + VOICE_USERS + " voice users, allocation", "B",
+                Benchmarks.allocatedBytesPerOp(json, ITERATIONS), Benchmarks.allocatedBytesPerOp(compact, ITERATIONS));
+
+        assertThat(after).isLessThan(before);
+    }
+
+    private double averageValueBytes(Map<String, String> hash) {
+        return hash.values().stream()
+                .mapToInt(value -> value.getBytes(StandardCharsets.UTF_8).length)
+                .average()
+                .orElseThrow();
+    }
+}
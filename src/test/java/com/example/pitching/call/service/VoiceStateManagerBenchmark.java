@@ -0,0 +1,192 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.benchmark.Benchmarks;
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.dto.StreamRecord;
+import com.example.pitching.call.dto.VoiceState;
+import com.example.pitching.call.operation.request.ChannelRequest;
+import com.example.pitching.call.operation.request.StateRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 같은 서버의 사용자 CONCURRENCY 명이 동시에 입장/상태 변경/퇴장할 때 연산 하나의 지연 시간 (p50, p99)
+ * before 는 스크립트 이전 구현의 명령 순서 (입장 HEXISTS + HGET + HSET + XADD, 상태 변경 HEXISTS + HGET + HSET + HGET, 퇴장 HDEL + XADD)
+ * after 는 VoiceStateManager 의 Lua 스크립트 한 번
+ * Redis 는 InMemoryRedis 가 스레드 하나에서 명령을 하나씩 실행하고, 명령마다 ROUND_TRIP 만큼의 네트워크 왕복을 흉내낸다
+ * (Lettuce 처럼 커넥션 하나에 파이프라이닝하므로 왕복끼리는 겹칠 수 있음)
+ * luaj 는 Redis 의 Lua 보다 스크립트 실행이 훨씬 느리므로, 동시 사용자를 많이 늘리면 왕복 횟수 대신 인터프리터 속도를 재게 된다
+ */
+@Tag("benchmark")
+class VoiceStateManagerBenchmark {
+    private static final Long SERVER_ID = 1L;
+    private static final String CALL_KEY = "server:1:call";
+    private static final String EVENTS_KEY = "server:1:events";
+    private static final int CONCURRENCY = 8;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 50;
+    private static final Duration ROUND_TRIP = Duration.ofMillis(1);
+    private static final StreamRecord EVENT_RECORD = StreamRecord.of(EVENTS_KEY, 1000, Map.of("op", "10", "data", "{}"));
+
+    private final Scheduler redisThread = Schedulers.newSingle("redis");
+    private final ConvertService convertService = new ConvertService(new ObjectMapper());
+    private final VoiceStateCodec voiceStateCodec = new VoiceStateCodec(convertService);
+    private InMemoryRedis redis;
+    private VoiceStateManager voiceStateManager;
+
+    @BeforeEach
+    void setUp() {
+        // 측정 대상에 mock 호출 비용이 섞이지 않도록 스크립트 실행만 바꾼 템플릿을 사용
+        ReactiveStringRedisTemplate redisTemplate = new ReactiveStringRedisTemplate(mock(ReactiveRedisConnectionFactory.class)) {
+            @Override
+            public <T> Flux<T> execute(RedisScript<T> script, List<String> keys, List<?> args) {
+                return roundTrip(() -> redis.eval(script, keys, args)).map(script.getResultType()::cast).flux();
+            }
+        };
+        voiceStateManager = new VoiceStateManager(redisTemplate, voiceStateCodec);
+    }
+
+    @AfterEach
+    void tearDown() {
+        redisThread.dispose();
+    }
+
+    @Test
+    void enterChannel() {
+        compare("enter channel", user -> enterBefore(user, channelOf(user)), user -> enterAfter(user, channelOf(user)));
+    }
+
+    @Test
+    void updateState() {
+        compare("update state", this::updateBefore, this::updateAfter);
+    }
+
+    @Test
+    void leaveChannel() {
+        compare("leave channel", this::leaveBefore, this::leaveAfter);
+    }
+
+    private void compare(String name, IntFunction<Mono<?>> before, IntFunction<Mono<?>> after) {
+        double[] beforeMicros = latenciesMicros(before);
+        double[] afterMicros = latenciesMicros(after);
+        String label = name + " (" + CONCURRENCY + " concurrent)";
+        Benchmarks.report(label + " p50", "us", percentile(beforeMicros, 0.5), percentile(afterMicros, 0.5));
+        Benchmarks.report(label + " p99", "us", percentile(beforeMicros, 0.99), percentile(afterMicros, 0.99));
+
+        assertThat(percentile(afterMicros, 0.5)).isLessThan(percentile(beforeMicros, 0.5));
+    }
+
+    // 매 라운드마다 모든 사용자가 채널에 있는 상태에서 시작하고, 앞의 WARMUP_ROUNDS 는 측정하지 않음
+    private double[] latenciesMicros(IntFunction<Mono<?>> operation) {
+        redis = new InMemoryRedis();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            boolean warmup = round < WARMUP_ROUNDS;
+            for (int user = 0; user < CONCURRENCY; user++) {
+                redis.hset(CALL_KEY, userId(user), voiceStateCodec.encode(voiceState(user, 2L)));
+            }
+            Flux.range(0, CONCURRENCY)
+                    .flatMap(user -> Mono.defer(() -> {
+                        long start = System.nanoTime();
+                        return operation.apply(user)
+                                .doOnSuccess(ignored -> {
+                                    if (!warmup) latencies.add(System.nanoTime() - start);
+                                });
+                    }), CONCURRENCY)
+                    .blockLast();
+        }
+        return latencies.stream().mapToDouble(nanos -> nanos / 1_000.0).sorted().toArray();
+    }
+
+    private Mono<?> enterBefore(int user, Long channelId) {
+        String userId = userId(user);
+        return roundTrip(() -> redis.hexists(CALL_KEY, userId))
+                .flatMap(exists -> roundTrip(() -> redis.hget(CALL_KEY, userId)))
+                .map(value -> voiceStateCodec.decode(SERVER_ID, userId, value))
+                .filter(voiceState -> !Objects.equals(voiceState.channelId(), channelId))
+                .flatMap(voiceState -> roundTrip(() -> redis.hset(CALL_KEY, userId,
+                        voiceStateCodec.encode(voiceState.changeChannelId(channelId, ChannelType.VOICE)))))
+                .then(roundTrip(() -> redis.xadd(EVENTS_KEY, EVENT_RECORD.maxlen(), EVENT_RECORD.fields())));
+    }
+
+    private Mono<?> enterAfter(int user, Long channelId) {
+        return voiceStateManager.addIfAbsentOrChangeChannel(new ChannelRequest(SERVER_ID, channelId, ChannelType.VOICE),
+                userId(user), voiceState(user, channelId), EVENT_RECORD);
+    }
+
+    private Mono<?> updateBefore(int user) {
+        String userId = userId(user);
+        StateRequest stateRequest = stateRequest(user);
+        return roundTrip(() -> redis.hexists(CALL_KEY, userId))
+                .flatMap(exists -> roundTrip(() -> redis.hget(CALL_KEY, userId)))
+                .map(value -> voiceStateCodec.decode(SERVER_ID, userId, value).updateState(stateRequest))
+                .flatMap(voiceState -> roundTrip(() -> redis.hset(CALL_KEY, userId, voiceStateCodec.encode(voiceState))))
+                // ReplyHandler 가 변경된 상태를 다시 읽음
+                .flatMap(ignored -> roundTrip(() -> redis.hget(CALL_KEY, userId)))
+                .map(value -> voiceStateCodec.decode(SERVER_ID, userId, value));
+    }
+
+    private Mono<?> updateAfter(int user) {
+        return voiceStateManager.updateState(stateRequest(user), userId(user));
+    }
+
+    private Mono<?> leaveBefore(int user) {
+        String userId = userId(user);
+        return roundTrip(() -> redis.hdel(CALL_KEY, userId))
+                .then(roundTrip(() -> redis.xadd(EVENTS_KEY, EVENT_RECORD.maxlen(), EVENT_RECORD.fields())));
+    }
+
+    private Mono<?> leaveAfter(int user) {
+        return voiceStateManager.removeVoiceStateAndPublish(SERVER_ID, userId(user), EVENT_RECORD);
+    }
+
+    // 요청과 응답이 각각 ROUND_TRIP 의 절반씩 걸리고, 그 사이에 Redis 스레드 하나가 명령을 실행
+    private <T> Mono<T> roundTrip(Callable<T> command) {
+        Duration oneWay = ROUND_TRIP.dividedBy(2);
+        return Mono.delay(oneWay, redisThread)
+                .then(Mono.fromCallable(command))
+                .delayElement(oneWay);
+    }
+
+    // 절반은 같은 채널에 다시 입장하고, 절반은 다른 채널로 이동
+    private static Long channelOf(int user) {
+        return user % 2 == 0 ? 2L : 3L;
+    }
+
+    private static String userId(int user) {
+        return String.valueOf(user);
+    }
+
+    private static VoiceState voiceState(int user, Long channelId) {
+        return new VoiceState(userId(user), null, SERVER_ID, channelId, ChannelType.VOICE, false, false, false, false);
+    }
+
+    private static StateRequest stateRequest(int user) {
+        return new StateRequest(SERVER_ID, 2L, user % 2 == 0, false, user % 3 == 0, false);
+    }
+
+    private static double percentile(double[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.pitching.call.service;
+
+import com.example.pitching.call.dto.ChannelType;
+import com.example.pitching.call.dto.StreamRecord;
+import com.example.pitching.call.dto.VoiceState;
+import com.example.pitching.call.exception.WrongAccessException;
+import com.example.pitching.call.operation.request.ChannelRequest;
+import com.example.pitching.call.operation.request.StateRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 입장/퇴장/상태 변경 Lua 스크립트를 InMemoryRedis 에서 실제로 실행해서 스크립트와 결과 변환을 함께 확인한다
+ */
+class VoiceStateManagerTest {
+    private static final Long SERVER_ID = 1L;
+    private static final String USER_ID = "7";
+    private static final String CALL_KEY = "server:1:call";
+    private static final String EVENTS_KEY = "server:1:events";
+    private static final Map<String, String> EVENT_FIELDS = Map.of("op", "10", "data", "{\"user_id\":\"7\"}");
+
+    private final InMemoryRedis redis = new InMemoryRedis();
+    private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+    private final ConvertService convertService = new ConvertService(new ObjectMapper());
+    private VoiceStateManager voiceStateManager;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.execute(anyScript(), anyList(), anyList())).thenAnswer(invocation -> Mono.justOrEmpty(
+                redis.eval(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2))).flux());
+        voiceStateManager = new VoiceStateManager(redisTemplate, new VoiceStateCodec(convertService));
+    }
+
+    @Test
+    @DisplayName("처음 입장하면 voice state 를 저장하고 입장 이벤트를 스트림에 추가한다")
+    void addIfAbsentOrChangeChannel_NewUser() {
+        VoiceState voiceState = voiceState(2L, ChannelType.VOICE, false, false);
+
+        StepVerifier.create(enter(2L, ChannelType.VOICE, voiceState))
+                .expectNext(voiceState.changeUsername(null))
+                .verifyComplete();
+
+        assertThat(redis.hget(CALL_KEY, USER_ID)).isEqualTo("0:2:VOICE");
+        assertThat(redis.stream(EVENTS_KEY)).containsExactly(EVENT_FIELDS);
+    }
+
+    @Test
+    @DisplayName("이미 같은 채널에 있으면 기존 상태를 유지하고 입장 이벤트만 추가한다")
+    void addIfAbsentOrChangeChannel_SameChannel() {
+        redis.hset(CALL_KEY, USER_ID, "5:2:VIDEO");
+
+        StepVerifier.create(enter(2L, ChannelType.VIDEO, voiceState(2L, ChannelType.VIDEO, false, false)))
+                .expectNext(voiceState(2L, ChannelType.VIDEO, true, true).changeUsername(null))
+                .verifyComplete();
+
+        assertThat(redis.hget(CALL_KEY, USER_ID)).isEqualTo("5:2:VIDEO");
+        assertThat(redis.stream(EVENTS_KEY)).containsExactly(EVENT_FIELDS);
+    }
+
+    @Test
+    @DisplayName("다른 채널로 옮기면 상태 플래그는 유지하고 채널만 바꾼다")
+    void addIfAbsentOrChangeChannel_OtherChannel() {
+        redis.hset(CALL_KEY, USER_ID, "5:2:VIDEO");
+
+        StepVerifier.create(enter(3L, ChannelType.VOICE, voiceState(3L, ChannelType.VOICE, false, false)))
+                .expectNext(voiceState(3L, ChannelType.VOICE, true, true).changeUsername(null))
+                .verifyComplete();
+
+        assertThat(redis.hget(CALL_KEY, USER_ID)).isEqualTo("5:3:VOICE");
+    }
+
+    @Test
+    @DisplayName("JSON 으로 저장된 이전 voice state 는 입장할 때 압축 형식으로 바꾼다")
+    void addIfAbsentOrChangeChannel_LegacyJson() {
+        redis.hset(CALL_KEY, USER_ID, convertService.convertObjectToJson(voiceState(2L, ChannelType.VOICE, true, true)));
+
+        StepVerifier.create(enter(2L, ChannelType.VOICE, voiceState(2L, ChannelType.VOICE, false, false)))
+                .expectNext(voiceState(2L, ChannelType.VOICE, true, true).changeUsername(null))
+                .verifyComplete();
+
+        assertThat(redis.hget(CALL_KEY, USER_ID)).isEqualTo("5:2:VOICE");
+    }
+
+    @Test
+    @DisplayName("퇴장하면 voice state 를 삭제하고 퇴장 이벤트의 레코드 ID 를 반환한다")
+    void removeVoiceStateAndPublish() {
+        redis.hset(CALL_KEY, USER_ID, "5:2:VIDEO");
+
+        StepVerifier.create(voiceStateManager.removeVoiceStateAndPublish(SERVER_ID, USER_ID, eventRecord()))
+                .expectNext("1-0")
+                .verifyComplete();
+
+        assertThat(redis.hexists(CALL_KEY, USER_ID)).isFalse();
+        assertThat(redis.stream(EVENTS_KEY)).containsExactly(EVENT_FIELDS);
+    }
+
+    @Test
+    @DisplayName("상태를 바꾸면 플래그만 교체하고 채널은 유지한다")
+    void updateState() {
+        redis.hset(CALL_KEY, USER_ID, "5:2:VIDEO");
+        StateRequest stateRequest = new StateRequest(SERVER_ID, 2L, false, true, false, false);
+
+        StepVerifier.create(voiceStateManager.updateState(stateRequest, USER_ID))
+                .expectNext(new VoiceState(USER_ID, null, SERVER_ID, 2L, ChannelType.VIDEO, false, true, false, false))
+                .verifyComplete();
+
+        assertThat(redis.hget(CALL_KEY, USER_ID)).isEqualTo("2:2:VIDEO");
+    }
+
+    @Test
+    @DisplayName("JSON 으로 저장된 이전 voice state 도 채널을 유지한 채 상태를 바꾼다")
+    void updateState_LegacyJson() {
+        redis.hset(CALL_KEY, USER_ID, convertService.convertObjectToJson(voiceState(2L, ChannelType.VIDEO, false, false)));
+        StateRequest stateRequest = new StateRequest(SERVER_ID, 2L, true, false, false, true);
+
+        StepVerifier.create(voiceStateManager.updateState(stateRequest, USER_ID))
+                .expectNext(new VoiceState(USER_ID, null, SERVER_ID, 2L, ChannelType.VIDEO, true, false, false, true))
+                .verifyComplete();
+
+        assertThat(redis.hget(CALL_KEY, USER_ID)).isEqualTo("9:2:VIDEO");
+    }
+
+    @Test
+    @DisplayName("채널에 없는 사용자의 상태를 바꾸면 WrongAccessException 이 발생하고 아무것도 저장하지 않는다")
+    void updateState_NotInChannel() {
+        StateRequest stateRequest = new StateRequest(SERVER_ID, 2L, true, false, false, false);
+
+        StepVerifier.create(voiceStateManager.updateState(stateRequest, USER_ID))
+                .expectError(WrongAccessException.class)
+                .verify();
+
+        assertThat(redis.hexists(CALL_KEY, USER_ID)).isFalse();
+    }
+
+    private Mono<VoiceState> enter(Long channelId, ChannelType channelType, VoiceState voiceState) {
+        return voiceStateManager.addIfAbsentOrChangeChannel(
+                new ChannelRequest(SERVER_ID, channelId, channelType), USER_ID, voiceState, eventRecord());
+    }
+
+    // muted, camera_on 만 바꿔가며 사용 (플래그 1, 4)
+    private VoiceState voiceState(Long channelId, ChannelType channelType, boolean muted, boolean cameraOn) {
+        return new VoiceState(USER_ID, "tester", SERVER_ID, channelId, channelType, muted, false, cameraOn, false);
+    }
+
+    private StreamRecord eventRecord() {
+        return StreamRecord.of(EVENTS_KEY, 1000, EVENT_FIELDS);
+    }
+
+    private static <T> RedisScript<T> anyScript() {
+        return any();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.pitching.chat.controller;
 
 import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.ChatHistoryCursor;
+import com.example.pitching.chat.dto.ChatHistoryPage;
 import com.example.pitching.chat.dto.ChatMessageDTO;
 import com.example.pitching.chat.service.ChatService;
 import com.example.pitching.config.PermitAllConfig;
@@ -12,6 +14,7 @@ import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.server.ResponseStatusException;
@@ -35,6 +38,7 @@ class ChatControllerTest {
     private ChatService chatService;
 
     private static final String BASE_URL = "/ws/v1/channels/{channel_id}/messages";
+    private static final String HISTORY_URL = BASE_URL + "/history";
     private static final Long CHANNEL_ID = 1L;
     private static final String TEST_EMAIL = "test@example.com";
     private static final String TEST_USERNAME = "Test User";
@@ -151,6 +155,56 @@ class ChatControllerTest {
                 });
     }
 
+    @Test
+    @DisplayName("채널 메시지 기록 조회 성공 - NDJSON 과 다음 페이지 토큰")
+    void getChannelMessageHistory_Success() {
+        String nextCursor = ChatHistoryCursor.of(testMessage.getTimestamp(), null).encode();
+        when(chatService.getChannelMessageHistory(CHANNEL_ID, ChatHistoryCursor.of(null, null), 50))
+                .thenReturn(Mono.just(new ChatHistoryPage(Flux.fromIterable(testMessages), nextCursor)));
+
+        webTestClient.get()
+                .uri(HISTORY_URL, CHANNEL_ID)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectHeader().valueEquals(ChatController.NEXT_CURSOR_HEADER, nextCursor)
+                .expectBodyList(ChatMessageDTO.class)
+                .value(messageList -> assertThat(messageList).extracting(ChatMessageDTO::getMessageId)
+                        .containsExactly(testMessage.getMessageId()));
+    }
+
+    @Test
+    @DisplayName("채널 메시지 기록 조회 성공 - cursor 로 다음 페이지 조회")
+    void getChannelMessageHistory_WithCursor() {
+        ChatHistoryCursor cursor = ChatHistoryCursor.of(1000L, 10L);
+        when(chatService.getChannelMessageHistory(CHANNEL_ID, cursor, 20))
+                .thenReturn(Mono.just(new ChatHistoryPage(Flux.empty(), null)));
+
+        webTestClient.get()
+                .uri(HISTORY_URL + "?limit=20&before=5&cursor=" + cursor.encode(), CHANNEL_ID)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(ChatController.NEXT_CURSOR_HEADER);
+    }
+
+    @Test
+    @DisplayName("채널 메시지 기록 조회 실패 - 잘못된 cursor, limit")
+    void getChannelMessageHistory_Failure_InvalidParameter() {
+        webTestClient.get()
+                .uri(HISTORY_URL + "?cursor=invalid", CHANNEL_ID)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get()
+                .uri(HISTORY_URL + "?limit=101", CHANNEL_ID)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
     @Test
     @DisplayName("채널 메시지 삭제 성공")
     void deleteChannelMessages_Success() {
@@ -0,0 +1,180 @@
+package com.example.pitching.chat.handler;
+
+import com.example.pitching.benchmark.Benchmarks;
+import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.ChatMessageDTO;
+import com.example.pitching.chat.service.ChatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 1,000 명이 구독한 채널에 메시지 하나를 브로드캐스트하는 비용
+ * before 는 세션마다 session.send 를 새로 구독하는 이전 방식, after 는 채널 sink 에 한 번 emit
+ */
+@Tag("benchmark")
+class ChatBroadcastBenchmark {
+    private static final Long CHANNEL_ID = 1L;
+    private static final int SUBSCRIBERS = 1_000;
+    private static final int ITERATIONS = 2_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChatMessageDTO message = new ChatMessageDTO(CHANNEL_ID, 1703001234567L, "message-id",
+            ChatMessage.MessageType.TALK, "user@example.com", "홍길동", "안녕하세요!", "profile.jpg");
+
+    @Test
+    void broadcastToChannel() throws Exception {
+        List<StubSession> sessions = createSessions();
+        String payload = objectMapper.writeValueAsString(message);
+        Runnable perSessionSend = () -> Flux.fromIterable(sessions)
+                .flatMap(session -> session.send(Mono.just(session.textMessage(payload))))
+                .then()
+                .block();
+
+        ChatWebSocketHandler handler = new ChatWebSocketHandler(objectMapper, mock(ChatService.class));
+        List<StubSession> subscribers = createSessions();
+        subscribers.forEach(session -> {
+            handler.handle(session).subscribe();
+            session.receive.tryEmitNext(subscribeMessage());
+        });
+        Runnable multicast = () -> handler.broadcastToChannel(CHANNEL_ID, message).block();
+
+        Benchmarks.report("broadcast to " + SUBSCRIBERS + " subscribers", "us/op",
+                Benchmarks.nanosPerOp(perSessionSend, ITERATIONS) / 1_000,
+                Benchmarks.nanosPerOp(multicast, ITERATIONS) / 1_000);
+        Benchmarks.report("broadcast to " + SUBSCRIBERS + " subscribers", "B/op",
+                Benchmarks.allocatedBytesPerOp(perSessionSend, ITERATIONS),
+                Benchmarks.allocatedBytesPerOp(multicast, ITERATIONS));
+
+        assertThat(subscribers).allSatisfy(session -> assertThat(session.delivered.sum()).isGreaterThan(0));
+    }
+
+    private List<StubSession> createSessions() {
+        List<StubSession> sessions = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            sessions.add(new StubSession("session-" + i));
+        }
+        return sessions;
+    }
+
+    private WebSocketMessage subscribeMessage() {
+        WebSocketCommand command = new WebSocketCommand();
+        command.setType("SUBSCRIBE");
+        command.setChannelId(CHANNEL_ID);
+        command.setDestination("/ws/chat/" + CHANNEL_ID);
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(command);
+            return new WebSocketMessage(WebSocketMessage.Type.TEXT, DefaultDataBufferFactory.sharedInstance.wrap(payload));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 보낸 메시지의 개수만 세는 세션 (실제 세션처럼 textMessage 는 매번 인코딩)
+     */
+    private static final class StubSession implements WebSocketSession {
+        private final String id;
+        private final Sinks.Many<WebSocketMessage> receive =
+                Sinks.many().unicast().onBackpressureBuffer();
+        private final LongAdder delivered = new LongAdder();
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        private StubSession(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public HandshakeInfo getHandshakeInfo() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DataBufferFactory bufferFactory() {
+            return DefaultDataBufferFactory.sharedInstance;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Flux<WebSocketMessage> receive() {
+            return receive.asFlux();
+        }
+
+        @Override
+        public Mono<Void> send(Publisher<WebSocketMessage> messages) {
+            return Flux.from(messages)
+                    .doOnNext(ignored -> delivered.increment())
+                    .then();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public Mono<Void> close(CloseStatus status) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<CloseStatus> closeStatus() {
+            return Mono.never();
+        }
+
+        @Override
+        public WebSocketMessage textMessage(String payload) {
+            return message(WebSocketMessage.Type.TEXT, buffer -> buffer.wrap(payload.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public WebSocketMessage binaryMessage(Function<DataBufferFactory, DataBuffer> payloadFactory) {
+            return message(WebSocketMessage.Type.BINARY, payloadFactory);
+        }
+
+        @Override
+        public WebSocketMessage pingMessage(Function<DataBufferFactory, DataBuffer> payloadFactory) {
+            return message(WebSocketMessage.Type.PING, payloadFactory);
+        }
+
+        @Override
+        public WebSocketMessage pongMessage(Function<DataBufferFactory, DataBuffer> payloadFactory) {
+            return message(WebSocketMessage.Type.PONG, payloadFactory);
+        }
+
+        private WebSocketMessage message(WebSocketMessage.Type type, Function<DataBufferFactory, DataBuffer> payloadFactory) {
+            return new WebSocketMessage(type, payloadFactory.apply(bufferFactory()));
+        }
+    }
+}
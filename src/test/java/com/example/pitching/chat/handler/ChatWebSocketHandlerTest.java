@@ -12,11 +12,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 import java.util.ArrayList;
@@ -190,6 +193,35 @@ class ChatWebSocketHandlerTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("채널 브로드캐스트는 구독한 세션의 outbound 스트림으로 전달")
+    void broadcastToChannel_Success() {
+        // given
+        WebSocketMessage subscribeMessage = mock(WebSocketMessage.class);
+        when(subscribeMessage.getPayloadAsText()).thenReturn(writeValueAsString(createSubscribeCommand(CHANNEL_ID)));
+        Sinks.Many<WebSocketMessage> inbound = Sinks.many().unicast().onBackpressureBuffer();
+        when(session.receive()).thenReturn(inbound.asFlux());
+        when(session.bufferFactory()).thenReturn(DefaultDataBufferFactory.sharedInstance);
+        when(session.send(any())).thenAnswer(invocation -> {
+            Publisher<WebSocketMessage> outbound = invocation.getArgument(0);
+            return Flux.from(outbound)
+                    .doOnNext(message -> sentMessages.add(message.getPayloadAsText()))
+                    .then();
+        });
+        chatWebSocketHandler.handle(session).subscribe();
+        inbound.tryEmitNext(subscribeMessage);
+
+        ChatMessageDTO messageDTO = ChatMessageDTO.from(ChatMessage.createTalkMessage(CHANNEL_ID, SENDER_EMAIL, MESSAGE), testUser);
+
+        // when
+        StepVerifier.create(chatWebSocketHandler.broadcastToChannel(CHANNEL_ID, messageDTO))
+                .verifyComplete();
+
+        // then
+        assertThat(sentMessages).containsExactly(writeValueAsString(messageDTO));
+        verify(session, times(1)).send(any());
+    }
+
     private WebSocketCommand createSubscribeCommand(Long channelId) {
         WebSocketCommand command = new WebSocketCommand();
         command.setType("SUBSCRIBE");
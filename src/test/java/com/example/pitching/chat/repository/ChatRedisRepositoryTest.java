@@ -0,0 +1,74 @@
+package com.example.pitching.chat.repository;
+
+import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.ChatMessageDTO;
+import com.example.pitching.chat.dto.properties.ChatCacheProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ChatRedisRepositoryTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+    private final ChatRedisRepository chatRedisRepository =
+            new ChatRedisRepository(redisTemplate, objectMapper, new ChatCacheProperties(50, Duration.ofHours(1)));
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveMessagesAppendsWithCapAndTtlInOneScript() throws Exception {
+        ChatMessageDTO first = message("first");
+        ChatMessageDTO second = message("second");
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(2L));
+
+        StepVerifier.create(chatRedisRepository.saveMessages(1L, List.of(first, second)))
+                .verifyComplete();
+
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("chat:messages:1")), args.capture());
+        assertThat(args.getValue()).containsExactly(
+                "50",
+                "3600000",
+                objectMapper.writeValueAsString(first),
+                objectMapper.writeValueAsString(second));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveMessageReturnsSavedMessage() {
+        ChatMessageDTO message = message("hello");
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(1L));
+
+        StepVerifier.create(chatRedisRepository.saveMessage(message))
+                .expectNext(message)
+                .verifyComplete();
+    }
+
+    @Test
+    void saveMessagesSkipsEmptyBatch() {
+        StepVerifier.create(chatRedisRepository.saveMessages(1L, List.of()))
+                .verifyComplete();
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private ChatMessageDTO message(String text) {
+        return new ChatMessageDTO(1L, 1703001234567L, text, ChatMessage.MessageType.TALK,
+                "test@example.com", "Test User", text, "profile.jpg");
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.pitching.chat.service;
+
+import com.example.pitching.auth.domain.User;
+import com.example.pitching.auth.repository.UserRepository;
+import com.example.pitching.benchmark.Benchmarks;
+import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.ChatHistoryCursor;
+import com.example.pitching.chat.dto.ChatMessageDTO;
+import com.example.pitching.chat.dto.properties.ChatCacheProperties;
+import com.example.pitching.chat.repository.ChatRedisRepository;
+import com.example.pitching.chat.repository.ChatRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis 캐시가 비어있는 채널을 처음 열 때 (작성자 10명, 메시지 100개) DynamoDB 조회 이후의 시간
+ * before 는 메시지마다 findById + RPUSH, after 는 findAllById 한 번 + RPUSH/LTRIM 한 번
+ * DB, Redis 왕복은 10개 연결 풀에서 QUERY_LATENCY 만큼 걸리는 것으로 흉내낸다
+ */
+@Tag("benchmark")
+class ChatHydrationBenchmark {
+    private static final Long CHANNEL_ID = 1L;
+    private static final int MESSAGES = 100;
+    private static final int AUTHORS = 10;
+    private static final int ROUNDS = 20;
+    private static final Duration QUERY_LATENCY = Duration.ofMillis(1);
+
+    private final Scheduler connectionPool = Schedulers.newBoundedElastic(10, Integer.MAX_VALUE, "connection-pool");
+    private final AtomicInteger queries = new AtomicInteger();
+    private final Map<String, User> users = IntStream.range(0, AUTHORS)
+            .mapToObj(i -> User.createNewUser("user" + i + "@example.com", "user" + i, "profile.jpg", "password"))
+            .collect(Collectors.toMap(User::getEmail, Function.identity()));
+    private final List<ChatMessage> newestFirst = IntStream.range(0, MESSAGES)
+            .mapToObj(i -> new ChatMessage(CHANNEL_ID, (long) (MESSAGES - i), "message-" + i,
+                    ChatMessage.MessageType.TALK, "user" + (i % AUTHORS) + "@example.com", "message " + i))
+            .toList();
+
+    @AfterEach
+    void tearDown() {
+        connectionPool.dispose();
+    }
+
+    @Test
+    void openColdChannel() {
+        UserRepository userRepository = mock(UserRepository.class);
+        ChatRepository chatRepository = mock(ChatRepository.class);
+        ChatRedisRepository chatRedisRepository = mock(ChatRedisRepository.class);
+        when(userRepository.findById(anyString())).thenAnswer(invocation -> query(users.get(invocation.<String>getArgument(0))));
+        when(userRepository.findAllById(anyIterable())).thenAnswer(invocation -> query(
+                        StreamSupport.stream(invocation.<Iterable<String>>getArgument(0).spliterator(), false).map(users::get).toList())
+                .flatMapMany(Flux::fromIterable));
+        when(chatRedisRepository.getRecentMessages(CHANNEL_ID)).thenReturn(Flux.empty());
+        when(chatRedisRepository.saveMessage(any(ChatMessageDTO.class))).thenAnswer(invocation -> query(invocation.getArgument(0)));
+        when(chatRedisRepository.saveMessages(eq(CHANNEL_ID), anyList())).thenAnswer(invocation -> query(true).then());
+        when(chatRepository.findPage(CHANNEL_ID, ChatHistoryCursor.of(null, null), MESSAGES))
+                .thenReturn(Mono.just(Page.builder(ChatMessage.class).items(newestFirst).build()));
+        ChatService chatService = new ChatService(chatRepository, chatRedisRepository, userRepository,
+                mock(ChatMessagePublisher.class), mock(ChatMessageWriter.class),
+                new ChatCacheProperties(MESSAGES, Duration.ofDays(1)));
+
+        // 이전 구현: 메시지마다 발신자 조회 후 RPUSH
+        Flux<ChatMessageDTO> perMessage = Flux.defer(() -> {
+            List<ChatMessage> ascending = new ArrayList<>(newestFirst);
+            Collections.reverse(ascending);
+            return Flux.fromIterable(ascending)
+                    .flatMapSequential(message -> userRepository.findById(message.getSender())
+                            .map(user -> ChatMessageDTO.from(message, user)))
+                    .concatMap(message -> chatRedisRepository.saveMessage(message).thenReturn(message));
+        });
+        Flux<ChatMessageDTO> batched = chatService.getChannelMessages(CHANNEL_ID);
+
+        double beforeQueries = queriesPerOpen(perMessage);
+        double beforeMillis = millisPerOpen(perMessage);
+        double afterQueries = queriesPerOpen(batched);
+        double afterMillis = millisPerOpen(batched);
+        Benchmarks.report("open cold channel (" + MESSAGES + " messages)", "ms", beforeMillis, afterMillis);
+        Benchmarks.report("open cold channel (" + MESSAGES + " messages)", "round trips", beforeQueries, afterQueries);
+
+        assertThat(afterMillis).isLessThan(beforeMillis);
+    }
+
+    private double queriesPerOpen(Flux<ChatMessageDTO> open) {
+        queries.set(0);
+        assertThat(open.collectList().block()).hasSize(MESSAGES);
+        return queries.get();
+    }
+
+    private double millisPerOpen(Flux<ChatMessageDTO> open) {
+        open.blockLast();
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            open.blockLast();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+    }
+
+    private <T> Mono<T> query(T result) {
+        return Mono.fromCallable(() -> {
+            queries.incrementAndGet();
+            LockSupport.parkNanos(QUERY_LATENCY.toNanos());
+            return result;
+        }).subscribeOn(connectionPool);
+    }
+}
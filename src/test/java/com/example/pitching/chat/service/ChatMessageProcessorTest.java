@@ -0,0 +1,69 @@
+package com.example.pitching.chat.service;
+
+import com.example.pitching.auth.domain.User;
+import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.ChatMessageDTO;
+import com.example.pitching.chat.handler.ChatWebSocketHandler;
+import com.example.pitching.chat.repository.ChatRedisRepository;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.rabbit.listener.support.ContainerUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatMessageProcessorTest {
+
+    @Mock
+    private ChatService chatService;
+
+    @Mock
+    private ChatRedisRepository chatRedisRepository;
+
+    @Mock
+    private ChatWebSocketHandler webSocketHandler;
+
+    @InjectMocks
+    private ChatMessageProcessor chatMessageProcessor;
+
+    private final ChatMessageDTO message = ChatMessageDTO.from(
+            ChatMessage.createTalkMessage(1L, "test@example.com", "Hello, World!"),
+            User.createNewUser("test@example.com", "Test User", "profile.jpg", "password"));
+
+    @Test
+    void processMessage_Success() {
+        when(chatService.saveMessageToDynamoDB(message)).thenReturn(Mono.just(message));
+        when(chatRedisRepository.saveMessage(message)).thenReturn(Mono.just(message));
+        when(webSocketHandler.broadcastToChannel(1L, message)).thenReturn(Mono.empty());
+
+        StepVerifier.create(chatMessageProcessor.processMessage(message))
+                .verifyComplete();
+
+        verify(webSocketHandler, times(1)).broadcastToChannel(1L, message);
+    }
+
+    @Test
+    void processMessage_RejectWithoutRequeueWhenWriteFails() {
+        when(chatService.saveMessageToDynamoDB(message))
+                .thenReturn(Mono.error(new IllegalStateException("1 chat messages unprocessed")));
+
+        StepVerifier.create(chatMessageProcessor.processMessage(message))
+                .expectErrorSatisfies(e -> {
+                    assertThat(e).isInstanceOf(AmqpRejectAndDontRequeueException.class)
+                            .hasCauseInstanceOf(IllegalStateException.class);
+                    // 컨테이너 기본값이 requeue 여도 dead letter 큐로 보냄
+                    assertThat(ContainerUtils.shouldRequeue(true, e, LogFactory.getLog(getClass()))).isFalse();
+                })
+                .verify();
+
+        verifyNoInteractions(chatRedisRepository, webSocketHandler);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.pitching.chat.service;
+
+import com.example.pitching.auth.domain.User;
+import com.example.pitching.chat.config.RabbitMQConfig;
+import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.ChatMessageDTO;
+import com.example.pitching.chat.dto.properties.ChatPublishProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.rabbitmq.OutboundMessage;
+import reactor.rabbitmq.OutboundMessageResult;
+import reactor.rabbitmq.SendOptions;
+import reactor.rabbitmq.Sender;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatMessagePublisherTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Sender sender = mock(Sender.class);
+    private final List<List<OutboundMessage>> batches = new CopyOnWriteArrayList<>();
+    private final User user = User.createNewUser("test@example.com", "Test User", "profile.jpg", "password");
+    private ChatMessagePublisher chatMessagePublisher;
+
+    @AfterEach
+    void tearDown() {
+        if (chatMessagePublisher != null) chatMessagePublisher.destroy();
+    }
+
+    @Test
+    void publishesMessagesInBatchesOfBatchSize() throws Exception {
+        brokerReplies(true);
+        chatMessagePublisher = createPublisher(new ChatPublishProperties(2, Duration.ofMillis(50), 64, null));
+        List<ChatMessageDTO> messages = IntStream.range(0, 5).mapToObj(i -> message("message " + i)).toList();
+
+        StepVerifier.create(Flux.fromIterable(messages).flatMap(chatMessagePublisher::publish))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(batches).extracting(List::size).containsExactly(2, 2, 1);
+        OutboundMessage first = batches.get(0).get(0);
+        assertThat(first.getExchange()).isEqualTo(RabbitMQConfig.CHAT_EXCHANGE);
+        assertThat(first.getRoutingKey()).isEqualTo(RabbitMQConfig.CHAT_ROUTING_KEY);
+        assertThat(first.getProperties().getContentType()).isEqualTo("application/json");
+        assertThat(objectMapper.readValue(first.getBody(), ChatMessageDTO.class)).isEqualTo(messages.get(0));
+    }
+
+    @Test
+    void publishesPartialBatchAfterWindow() {
+        brokerReplies(true);
+        chatMessagePublisher = createPublisher(new ChatPublishProperties(64, Duration.ofMillis(20), 64, null));
+
+        StepVerifier.create(chatMessagePublisher.publish(message("hello")))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(batches).extracting(List::size).containsExactly(1);
+    }
+
+    @Test
+    void failsWhenBrokerNacks() {
+        brokerReplies(false);
+        chatMessagePublisher = createPublisher(new ChatPublishProperties(1, Duration.ofMillis(20), 64, null));
+
+        StepVerifier.create(chatMessagePublisher.publish(message("hello")))
+                .expectError(IllegalStateException.class)
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void failsAllMessagesOfBatchWhenSendFails() {
+        when(sender.sendWithTypedPublishConfirms(anyOutboundMessages(), any(SendOptions.class)))
+                .thenReturn(Flux.error(new IllegalStateException("connection closed")));
+        chatMessagePublisher = createPublisher(new ChatPublishProperties(2, Duration.ofMillis(20), 64, null));
+
+        StepVerifier.create(Mono.when(chatMessagePublisher.publish(message("a")), chatMessagePublisher.publish(message("b"))))
+                .expectErrorMessage("connection closed")
+                .verify(TIMEOUT);
+
+        // 실패한 batch 뒤에도 계속 발행
+        brokerReplies(true);
+        StepVerifier.create(chatMessagePublisher.publish(message("c")))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void failsUnconfirmedMessagesAfterConfirmTimeout() {
+        when(sender.sendWithTypedPublishConfirms(anyOutboundMessages(), any(SendOptions.class)))
+                .thenReturn(Flux.never());
+        chatMessagePublisher = createPublisher(new ChatPublishProperties(1, Duration.ofMillis(5), 64, Duration.ofMillis(50)));
+
+        StepVerifier.create(chatMessagePublisher.publish(message("lost")))
+                .expectError(TimeoutException.class)
+                .verify(TIMEOUT);
+
+        // confirm 을 기다리던 batch 를 포기한 뒤에도 계속 발행
+        brokerReplies(true);
+        StepVerifier.create(chatMessagePublisher.publish(message("after")))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void keepsAcceptingMessagesWhileConfirmIsSlow() {
+        // 첫 confirm 이 늦는 동안 window 가 수십 번 지나가도 overflow 없이 모았다가 발행
+        when(sender.sendWithTypedPublishConfirms(anyOutboundMessages(), any(SendOptions.class))).thenAnswer(invocation -> {
+            Duration delay = batches.isEmpty() ? Duration.ofMillis(500) : Duration.ZERO;
+            return confirm(invocation.getArgument(0), true).delaySubscription(delay);
+        });
+        chatMessagePublisher = createPublisher(new ChatPublishProperties(2, Duration.ofMillis(5), 1024, null));
+
+        StepVerifier.create(Flux.interval(Duration.ofMillis(10)).take(50)
+                        .flatMap(i -> chatMessagePublisher.publish(message("message " + i))))
+                .expectComplete()
+                .verify(TIMEOUT);
+        StepVerifier.create(chatMessagePublisher.publish(message("after")))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(batches).flatExtracting(batch -> batch).hasSize(51);
+    }
+
+    private void brokerReplies(boolean ack) {
+        when(sender.sendWithTypedPublishConfirms(anyOutboundMessages(), any(SendOptions.class)))
+                .thenAnswer(invocation -> confirm(invocation.getArgument(0), ack));
+    }
+
+    private <T extends OutboundMessage> Flux<OutboundMessageResult<T>> confirm(Publisher<T> outboundMessages, boolean ack) {
+        return Flux.from(outboundMessages)
+                .collectList()
+                .doOnNext(batch -> batches.add(List.copyOf(batch)))
+                .flatMapIterable(batch -> batch)
+                .map(outboundMessage -> new OutboundMessageResult<>(outboundMessage, ack));
+    }
+
+    private static <T extends OutboundMessage> Publisher<T> anyOutboundMessages() {
+        return any();
+    }
+
+    private ChatMessagePublisher createPublisher(ChatPublishProperties properties) {
+        return new ChatMessagePublisher(sender, new SendOptions(), objectMapper, properties);
+    }
+
+    private ChatMessageDTO message(String text) {
+        return ChatMessageDTO.from(ChatMessage.createTalkMessage(1L, user.getEmail(), text), user);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.pitching.chat.service;
+
+import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.properties.ChatWriteProperties;
+import com.example.pitching.chat.repository.ChatRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ChatRepository.saveAll 을 메모리 테이블로 흉내낸다
+ * 처리하지 않은 항목을 돌려주어 BatchWriteItem 의 UnprocessedItems 를 재현한다
+ */
+class ChatMessageWriterTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final ChatRepository chatRepository = mock(ChatRepository.class);
+    private final Map<String, ChatMessage> table = new ConcurrentHashMap<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private ChatMessageWriter chatMessageWriter;
+
+    @AfterEach
+    void tearDown() {
+        if (chatMessageWriter != null) chatMessageWriter.destroy();
+    }
+
+    @Test
+    void writesMessagesInBatchesOfAtMost25() {
+        fakeTable(0);
+        chatMessageWriter = createWriter(new ChatWriteProperties(100, Duration.ofMillis(50), 1024, 3, Duration.ofMillis(1), null));
+        List<ChatMessage> messages = IntStream.range(0, 60).mapToObj(i -> message(i, "message " + i)).toList();
+
+        StepVerifier.create(Flux.fromIterable(messages).flatMap(chatMessageWriter::write))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(batchSizes).containsExactly(25, 25, 10);
+        assertThat(table).hasSize(60);
+    }
+
+    @Test
+    void retriesUnprocessedItemsUntilWritten() {
+        fakeTable(2);
+        chatMessageWriter = createWriter(new ChatWriteProperties(5, Duration.ofMillis(20), 1024, 3, Duration.ofMillis(1), null));
+
+        StepVerifier.create(Flux.range(0, 5).flatMap(i -> chatMessageWriter.write(message(i, "message " + i))))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        // 처음 5개 중 2개가 처리되지 않아 2개만 다시 저장
+        assertThat(batchSizes).containsExactly(5, 2);
+        assertThat(table).hasSize(5);
+    }
+
+    @Test
+    void failsOnlyUnprocessedMessagesAfterMaxRetries() {
+        when(chatRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ChatMessage> messages = invocation.getArgument(0);
+            batchSizes.add(messages.size());
+            // 첫 번째 메시지는 계속 처리되지 않음
+            messages.stream().skip(1).forEach(message -> table.put(message.getMessageId(), message));
+            return Mono.just(messages.subList(0, 1));
+        });
+        chatMessageWriter = createWriter(new ChatWriteProperties(2, Duration.ofMillis(20), 1024, 2, Duration.ofMillis(1), null));
+
+        ChatMessage unprocessed = message(0, "unprocessed");
+        ChatMessage written = message(1, "written");
+        Mono<Void> first = chatMessageWriter.write(unprocessed).cache();
+        Mono<Void> second = chatMessageWriter.write(written).cache();
+        first.subscribe(null, ignored -> {
+        });
+        second.subscribe();
+
+        StepVerifier.create(first).expectError().verify(TIMEOUT);
+        StepVerifier.create(second).expectComplete().verify(TIMEOUT);
+        assertThat(batchSizes).containsExactly(2, 1, 1);
+        assertThat(table).containsOnlyKeys(written.getMessageId());
+    }
+
+    @Test
+    void writesOnlyLastMessageOfDuplicateKeys() {
+        fakeTable(0);
+        chatMessageWriter = createWriter(new ChatWriteProperties(2, Duration.ofMillis(20), 1024, 0, Duration.ofMillis(1), null));
+        ChatMessage first = message(0, "first");
+        ChatMessage second = message(0, "second");
+
+        StepVerifier.create(Mono.when(chatMessageWriter.write(first), chatMessageWriter.write(second)))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(batchSizes).containsExactly(1);
+        assertThat(table).containsOnlyKeys(second.getMessageId());
+    }
+
+    @Test
+    void keepsAcceptingWritesWhileSlowBatchIsWritten() {
+        // 첫 저장이 오래 걸리는 동안 window 가 수십 번 지나가도 overflow 없이 모았다가 저장
+        when(chatRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ChatMessage> messages = invocation.getArgument(0);
+            Duration delay = batchSizes.isEmpty() ? Duration.ofMillis(500) : Duration.ZERO;
+            batchSizes.add(messages.size());
+            messages.forEach(message -> table.put(message.getMessageId(), message));
+            return Mono.delay(delay).thenReturn(List.<ChatMessage>of());
+        });
+        chatMessageWriter = createWriter(new ChatWriteProperties(2, Duration.ofMillis(5), 1024, 0, Duration.ofMillis(1), null));
+
+        StepVerifier.create(Flux.interval(Duration.ofMillis(10)).take(50)
+                        .flatMap(i -> chatMessageWriter.write(message(i, "message " + i))))
+                .expectComplete()
+                .verify(TIMEOUT);
+        StepVerifier.create(chatMessageWriter.write(message(50, "after")))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(table).hasSize(51);
+    }
+
+    @Test
+    void keepsAcceptingWritesAfterSaveFails() {
+        when(chatRepository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("DynamoDB unavailable"))
+                .thenAnswer(invocation -> {
+                    List<ChatMessage> messages = invocation.getArgument(0);
+                    messages.forEach(message -> table.put(message.getMessageId(), message));
+                    return Mono.just(List.<ChatMessage>of());
+                });
+        chatMessageWriter = createWriter(new ChatWriteProperties(1, Duration.ofMillis(5), 1024, 0, Duration.ofMillis(1), null));
+        ChatMessage failed = message(0, "failed");
+        ChatMessage written = message(1, "written");
+
+        StepVerifier.create(chatMessageWriter.write(failed))
+                .expectError()
+                .verify(TIMEOUT);
+        StepVerifier.create(chatMessageWriter.write(written))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(table).containsOnlyKeys(written.getMessageId());
+    }
+
+    // 첫 호출에서만 앞의 unprocessedOnFirstCall 개를 처리하지 않고 돌려줌
+    private void fakeTable(int unprocessedOnFirstCall) {
+        when(chatRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ChatMessage> messages = invocation.getArgument(0);
+            int unprocessed = batchSizes.isEmpty() ? Math.min(unprocessedOnFirstCall, messages.size()) : 0;
+            batchSizes.add(messages.size());
+            messages.subList(unprocessed, messages.size()).forEach(message -> table.put(message.getMessageId(), message));
+            return Mono.just(List.copyOf(messages.subList(0, unprocessed)));
+        });
+    }
+
+    private ChatMessageWriter createWriter(ChatWriteProperties properties) {
+        return new ChatMessageWriter(chatRepository, properties, Schedulers.parallel());
+    }
+
+    private ChatMessage message(long timestamp, String text) {
+        return new ChatMessage(1L, timestamp, "message-" + text, ChatMessage.MessageType.TALK, "test@example.com", text);
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.pitching.chat.service;
 
-import com.example.pitching.chat.config.RabbitMQConfig;
 import com.example.pitching.chat.domain.ChatMessage;
+import com.example.pitching.chat.dto.ChatHistoryCursor;
+import com.example.pitching.chat.dto.ChatHistoryPage;
 import com.example.pitching.chat.dto.ChatMessageDTO;
+import com.example.pitching.chat.dto.properties.ChatCacheProperties;
 import com.example.pitching.chat.repository.ChatRepository;
 import com.example.pitching.chat.repository.ChatRedisRepository;
 import com.example.pitching.auth.repository.UserRepository;
@@ -12,20 +14,31 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ActiveProfiles("test")
 @ExtendWith(MockitoExtension.class)
 class ChatServiceTest {
+    // 기본값(100)과 다른 값으로 설정값이 조회 개수에 쓰이는지 확인
+    private static final int MAX_MESSAGES = 50;
 
     @Mock
     private ChatRepository chatRepository;
@@ -37,7 +50,13 @@ class ChatServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private ChatMessagePublisher chatMessagePublisher;
+
+    @Mock
+    private ChatMessageWriter chatMessageWriter;
+
+    @Spy
+    private ChatCacheProperties chatCacheProperties = new ChatCacheProperties(MAX_MESSAGES, Duration.ofDays(1));
 
     @InjectMocks
     private ChatService chatService;
@@ -64,11 +83,8 @@ class ChatServiceTest {
     void saveTalkMessage_Success() {
         when(userRepository.findById(sender))
                 .thenReturn(Mono.just(sampleUser));
-        doNothing().when(rabbitTemplate).convertAndSend(
-                eq(RabbitMQConfig.CHAT_EXCHANGE),
-                eq(RabbitMQConfig.CHAT_ROUTING_KEY),
-                any(ChatMessageDTO.class)
-        );
+        when(chatMessagePublisher.publish(any(ChatMessageDTO.class)))
+                .thenReturn(Mono.empty());
 
         StepVerifier.create(chatService.saveTalkMessage(channelId, sender, message))
                 .expectNextMatches(dto -> {
@@ -77,11 +93,7 @@ class ChatServiceTest {
                             dto.getSenderName().equals(username);
                     if (matches) {
                         verify(userRepository, times(1)).findById(sender);
-                        verify(rabbitTemplate, times(1)).convertAndSend(
-                                eq(RabbitMQConfig.CHAT_EXCHANGE),
-                                eq(RabbitMQConfig.CHAT_ROUTING_KEY),
-                                any(ChatMessageDTO.class)
-                        );
+                        verify(chatMessagePublisher, times(1)).publish(any(ChatMessageDTO.class));
                     }
                     return matches;
                 })
@@ -90,15 +102,15 @@ class ChatServiceTest {
 
     @Test
     void saveMessageToDynamoDB_Success() {
-        when(chatRepository.save(any(ChatMessage.class)))
-                .thenReturn(Mono.just(sampleChatMessage));
+        when(chatMessageWriter.write(any(ChatMessage.class)))
+                .thenReturn(Mono.empty());
 
         StepVerifier.create(chatService.saveMessageToDynamoDB(sampleMessageDTO))
                 .expectNextMatches(dto -> {
                     boolean matches = dto.getMessage().equals(message) &&
                             dto.getChannelId().equals(channelId);
                     if (matches) {
-                        verify(chatRepository, times(1)).save(any(ChatMessage.class));
+                        verify(chatMessageWriter, times(1)).write(any(ChatMessage.class));
                     }
                     return matches;
                 })
@@ -109,11 +121,11 @@ class ChatServiceTest {
     void getChannelMessages_Success() {
         when(chatRedisRepository.getRecentMessages(channelId))
                 .thenReturn(Flux.empty());
-        when(chatRepository.findByChannelIdOrderByTimestampAsc(channelId))
-                .thenReturn(Flux.just(sampleChatMessage));
-        when(userRepository.findById(sender))
-                .thenReturn(Mono.just(sampleUser));
-        when(chatRedisRepository.saveMessage(any(ChatMessageDTO.class)))
+        when(chatRepository.findPage(channelId, ChatHistoryCursor.of(null, null), MAX_MESSAGES))
+                .thenReturn(Mono.just(Page.builder(ChatMessage.class).items(List.of(sampleChatMessage)).build()));
+        when(userRepository.findAllById(Set.of(sender)))
+                .thenReturn(Flux.just(sampleUser));
+        when(chatRedisRepository.saveMessages(eq(channelId), anyList()))
                 .thenReturn(Mono.empty());
 
         StepVerifier.create(chatService.getChannelMessages(channelId))
@@ -123,8 +135,8 @@ class ChatServiceTest {
                             dto.getSenderName().equals(username);
                     if (matches) {
                         verify(chatRepository, times(1))
-                                .findByChannelIdOrderByTimestampAsc(channelId);
-                        verify(userRepository, times(1)).findById(sender);
+                                .findPage(channelId, ChatHistoryCursor.of(null, null), MAX_MESSAGES);
+                        verify(userRepository, times(1)).findAllById(Set.of(sender));
                     }
                     return matches;
                 })
@@ -132,9 +144,34 @@ class ChatServiceTest {
     }
 
     @Test
-    void getChannelMessages_WithNullChannelId() {
-        when(chatRepository.findByChannelIdOrderByTimestampAsc(null))
+    void getChannelMessages_HydratesSendersWithOneQuery() {
+        String otherSender = "other@example.com";
+        User otherUser = User.createNewUser(otherSender, "Other User", profileImage, "password");
+        ChatMessage first = new ChatMessage(channelId, 3L, "first", ChatMessage.MessageType.TALK, sender, "first");
+        ChatMessage second = new ChatMessage(channelId, 2L, "second", ChatMessage.MessageType.TALK, otherSender, "second");
+        ChatMessage third = new ChatMessage(channelId, 1L, "third", ChatMessage.MessageType.TALK, sender, "third");
+        when(chatRedisRepository.getRecentMessages(channelId))
                 .thenReturn(Flux.empty());
+        when(chatRepository.findPage(channelId, ChatHistoryCursor.of(null, null), MAX_MESSAGES))
+                .thenReturn(Mono.just(Page.builder(ChatMessage.class).items(List.of(first, second, third)).build()));
+        when(userRepository.findAllById(Set.of(sender, otherSender)))
+                .thenReturn(Flux.just(sampleUser, otherUser));
+        when(chatRedisRepository.saveMessages(eq(channelId), anyList()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(chatService.getChannelMessages(channelId).map(ChatMessageDTO::getSenderName))
+                .expectNext(username, "Other User", username)
+                .verifyComplete();
+
+        verify(userRepository, times(1)).findAllById(Set.of(sender, otherSender));
+        verify(userRepository, never()).findById(any(String.class));
+        verify(chatRedisRepository, times(1)).saveMessages(eq(channelId), argThat(messages -> messages.size() == 3));
+    }
+
+    @Test
+    void getChannelMessages_WithNullChannelId() {
+        when(chatRepository.findPage(null, ChatHistoryCursor.of(null, null), MAX_MESSAGES))
+                .thenReturn(Mono.empty());
 
         when(chatRedisRepository.getRecentMessages(null))
                 .thenReturn(Flux.empty());
@@ -143,6 +180,48 @@ class ChatServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getChannelMessageHistory_ReturnsNextCursorWhenMoreMessages() {
+        ChatMessage older = new ChatMessage(channelId, 1000L, "older", ChatMessage.MessageType.TALK, sender, "older");
+        ChatHistoryCursor cursor = ChatHistoryCursor.of(null, 500L);
+        when(chatRepository.findPage(channelId, cursor, 2))
+                .thenReturn(Mono.just(Page.builder(ChatMessage.class)
+                        .items(List.of(sampleChatMessage, older))
+                        .lastEvaluatedKey(Map.of("channelId", AttributeValue.fromN("1"), "timestamp", AttributeValue.fromN("1000")))
+                        .build()));
+        when(userRepository.findAllById(Set.of(sender)))
+                .thenReturn(Flux.just(sampleUser));
+
+        ChatHistoryPage page = chatService.getChannelMessageHistory(channelId, cursor, 2).block();
+
+        assertThat(ChatHistoryCursor.decode(page.nextCursor())).isEqualTo(ChatHistoryCursor.of(1000L, 500L));
+        StepVerifier.create(page.messages())
+                .expectNextMatches(dto -> dto.getMessageId().equals(sampleChatMessage.getMessageId()))
+                .expectNextMatches(dto -> dto.getMessageId().equals("older") && dto.getSenderName().equals(username))
+                .verifyComplete();
+    }
+
+    @Test
+    void getChannelMessageHistory_LastPageHasNoCursor() {
+        ChatHistoryCursor cursor = ChatHistoryCursor.of(null, null);
+        when(chatRepository.findPage(channelId, cursor, 50))
+                .thenReturn(Mono.just(Page.builder(ChatMessage.class).items(List.of()).build()));
+
+        ChatHistoryPage page = chatService.getChannelMessageHistory(channelId, cursor, 50).block();
+
+        assertThat(page.nextCursor()).isNull();
+        StepVerifier.create(page.messages()).verifyComplete();
+    }
+
+    @Test
+    void getChannelMessageHistory_EmptyRangeDoesNotQuery() {
+        ChatHistoryPage page = chatService.getChannelMessageHistory(channelId, ChatHistoryCursor.of(11L, 10L), 50).block();
+
+        assertThat(page.nextCursor()).isNull();
+        StepVerifier.create(page.messages()).verifyComplete();
+        verifyNoInteractions(chatRepository);
+    }
+
     @Test
     void deleteChannelMessages_Success() {
         when(chatRepository.deleteByChannelId(channelId))
@@ -0,0 +1,107 @@
+package com.example.pitching.kurento;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.kurento.client.KurentoClient;
+import org.kurento.jsonrpc.DefaultJsonRpcHandler;
+import org.kurento.jsonrpc.Transaction;
+import org.kurento.jsonrpc.client.JsonRpcClientLocal;
+import org.kurento.jsonrpc.message.Request;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * KMS 없이 KurentoClient 를 사용하기 위한 JSON-RPC 서버
+ * create/release 된 미디어 객체를 타입별로 기록하고, SDP 협상은 고정된 SDP 로, 그 외 요청은 빈 값으로 응답한다
+ * latency 를 주면 KMS 왕복 시간만큼 응답을 늦춘다 (JsonRpcClientLocal 은 호출한 스레드에서 처리함)
+ */
+public class FakeKurentoServer extends DefaultJsonRpcHandler<JsonObject> {
+    private static final String SESSION_ID = "fake-session";
+    private static final String FAKE_SDP = "v=0";
+    private static final Set<String> SDP_OPERATIONS = Set.of("processOffer", "processAnswer", "generateOffer");
+    private final AtomicLong objectIds = new AtomicLong();
+    private final Map<String, String> typeByObjectId = new ConcurrentHashMap<>();
+    private final Set<String> releasedObjectIds = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> invocations = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> operations = new ConcurrentHashMap<>();
+    private final Duration latency;
+
+    public FakeKurentoServer() {
+        this(Duration.ZERO);
+    }
+
+    public FakeKurentoServer(Duration latency) {
+        this.latency = latency;
+    }
+
+    public KurentoClient createClient() {
+        return KurentoClient.createFromJsonRpcClient(new JsonRpcClientLocal(this));
+    }
+
+    @Override
+    public void handleRequest(Transaction transaction, Request<JsonObject> request) throws Exception {
+        JsonObject params = request.getParams();
+        invocations.computeIfAbsent(request.getMethod(), ignored -> new AtomicLong()).incrementAndGet();
+        if (!latency.isZero()) LockSupport.parkNanos(latency.toNanos());
+        switch (request.getMethod()) {
+            case "create" -> {
+                String type = params.get("type").getAsString();
+                String objectId = type + "-" + objectIds.incrementAndGet();
+                typeByObjectId.put(objectId, type);
+                transaction.sendResponse(result(new JsonPrimitive(objectId)));
+            }
+            case "release" -> {
+                releasedObjectIds.add(params.get("object").getAsString());
+                transaction.sendResponse(result(null));
+            }
+            case "subscribe" -> transaction.sendResponse(result(new JsonPrimitive("subscription-" + objectIds.incrementAndGet())));
+            case "invoke" -> {
+                String operation = params.get("operation").getAsString();
+                operations.computeIfAbsent(operation, ignored -> new AtomicLong()).incrementAndGet();
+                transaction.sendResponse(result(SDP_OPERATIONS.contains(operation) ? new JsonPrimitive(FAKE_SDP) : null));
+            }
+            default -> transaction.sendResponse(result(null));
+        }
+    }
+
+    public long created(String type) {
+        return typeByObjectId.values().stream().filter(type::equals).count();
+    }
+
+    public long released(String type) {
+        return releasedObjectIds.stream().map(typeByObjectId::get).filter(type::equals).count();
+    }
+
+    /**
+     * @return 생성된 뒤 해제되지 않은 객체 수
+     */
+    public long alive(String type) {
+        return created(type) - released(type);
+    }
+
+    public long invocations(String method) {
+        AtomicLong count = invocations.get(method);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @param operation invoke 로 호출된 미디어 객체의 메서드 (ex. processOffer, addIceCandidate)
+     */
+    public long invoked(String operation) {
+        AtomicLong count = operations.get(operation);
+        return count == null ? 0 : count.get();
+    }
+
+    private JsonObject result(JsonElement value) {
+        JsonObject result = new JsonObject();
+        if (value != null) result.add("value", value);
+        result.addProperty("sessionId", SESSION_ID);
+        return result;
+    }
+}
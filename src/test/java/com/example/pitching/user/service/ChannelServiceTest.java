@@ -34,6 +34,9 @@ class ChannelServiceTest {
     @Mock
     private ServerRepository serverRepository;
 
+    @Mock
+    private TopologyCache topologyCache;
+
     @InjectMocks
     private ChannelService channelService;
 
@@ -48,6 +48,8 @@ class ServerServiceTest {
     private FilePart filePart;
     @Mock
     private ServerMemberCounter memberCounter;
+    @Mock
+    private TopologyCache topologyCache;
 
     @InjectMocks
     private ServerService serverService;
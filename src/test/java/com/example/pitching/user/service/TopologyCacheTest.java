@@ -0,0 +1,102 @@
+package com.example.pitching.user.service;
+
+import com.example.pitching.user.dto.properties.TopologyCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TopologyCacheTest {
+    private static final Long SERVER_ID = 1L;
+    private static final Long CHANNEL_ID = 10L;
+
+    @Mock
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    private TopologyCache topologyCache;
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        topologyCache = new TopologyCache(new TopologyCacheProperties(100, Duration.ofMinutes(1)), redisTemplate);
+        lenient().when(redisTemplate.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+    }
+
+    @Test
+    @DisplayName("한 번 조회한 채널의 서버 ID 는 DB 를 다시 조회하지 않는다")
+    void getServerIdOfChannel_Cached() {
+        getServerIdOfChannel(SERVER_ID);
+
+        StepVerifier.create(getServerIdOfChannel(SERVER_ID))
+                .expectNext(SERVER_ID)
+                .verifyComplete();
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("같은 채널을 동시에 조회하면 DB 조회는 한 번만 한다")
+    void getServerIdOfChannel_ConcurrentLoad() {
+        Sinks.One<Long> pendingLoad = Sinks.one();
+        Mono<Long> first = topologyCache.getServerIdOfChannel(CHANNEL_ID, () -> countLoad(pendingLoad.asMono()));
+        Mono<Long> second = topologyCache.getServerIdOfChannel(CHANNEL_ID, () -> countLoad(pendingLoad.asMono()));
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> pendingLoad.tryEmitValue(SERVER_ID))
+                .assertNext(tuple -> assertThat(tuple.getT1()).isEqualTo(tuple.getT2()).isEqualTo(SERVER_ID))
+                .verifyComplete();
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("채널을 무효화하면 다시 DB 에서 조회하고 다른 노드에도 알린다")
+    void invalidateChannel() {
+        getServerIdOfChannel(TopologyCache.NO_SERVER).block();
+
+        topologyCache.invalidateChannel(CHANNEL_ID);
+
+        StepVerifier.create(getServerIdOfChannel(SERVER_ID))
+                .expectNext(SERVER_ID)
+                .verifyComplete();
+        assertThat(loadCount).hasValue(2);
+        verify(redisTemplate).convertAndSend("topology:invalidation", "channel:" + CHANNEL_ID);
+    }
+
+    @Test
+    @DisplayName("다른 노드에서 서버 무효화 메시지를 받으면 해당 서버의 채널도 함께 지운다")
+    void onInvalidation_Server() {
+        getServerIdOfChannel(SERVER_ID).block();
+        topologyCache.isExistingServer(SERVER_ID, () -> countLoad(Mono.just(true))).block();
+
+        topologyCache.onInvalidation("server:" + SERVER_ID);
+
+        getServerIdOfChannel(SERVER_ID).block();
+        topologyCache.isExistingServer(SERVER_ID, () -> countLoad(Mono.just(false))).block();
+        assertThat(loadCount).hasValue(4);
+    }
+
+    private Mono<Long> getServerIdOfChannel(Long serverId) {
+        return topologyCache.getServerIdOfChannel(CHANNEL_ID, () -> countLoad(Mono.just(serverId)));
+    }
+
+    private <T> Mono<T> countLoad(Mono<T> load) {
+        return Mono.defer(() -> {
+            loadCount.incrementAndGet();
+            return load;
+        });
+    }
+}